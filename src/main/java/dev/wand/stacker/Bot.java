@@ -1,24 +1,45 @@
 package dev.wand.stacker;
 
+import dev.wand.stacker.cluster.LeaderElection;
+import dev.wand.stacker.cluster.Lifecycle;
+import dev.wand.stacker.cluster.Shards;
 import dev.wand.stacker.commands.*;
+import dev.wand.stacker.commands.tester.ReconcileTestersCommand;
 import dev.wand.stacker.commands.tester.TesterCommand;
 import dev.wand.stacker.config.Config;
-import dev.wand.stacker.db.Database;
+import dev.wand.stacker.config.ConfigKey;
+import dev.wand.stacker.config.ConfigWatcher;
+import dev.wand.stacker.config.GatewayProfile;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.db.ChangeFeed;
+import dev.wand.stacker.index.DuplicateDetector;
+import dev.wand.stacker.index.ThreadIndex;
+import dev.wand.stacker.jobs.ForumReconciliationJob;
+import dev.wand.stacker.jobs.Outbox;
+import dev.wand.stacker.jobs.PendingTesterReconciliationJob;
+import dev.wand.stacker.jobs.StaleThreadSweeper;
 import dev.wand.stacker.listeners.ForumThreadListener;
 import dev.wand.stacker.listeners.PendingTesterListener;
-import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.JDABuilder;
+import dev.wand.stacker.listeners.SessionListener;
+import dev.wand.stacker.listeners.ThreadIndexListener;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
 import net.dv8tion.jda.api.entities.Activity;
-import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.sharding.ShardManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main bot class - Entry point for the Stacker Discord Bot.
  * <p>
- * This bot uses JDA (Java Discord API) to interact with Discord.
+ * This bot uses JDA (Java Discord API) to interact with Discord, through a ShardManager
+ * so guilds are spread over as many gateway shards as Discord recommends.
  * It implements a modular command system with proper permission checking
  * and a centralized embed management system.
  * <p>
@@ -26,8 +47,12 @@ import java.util.List;
  * - Commands are registered with CommandManager
  * - All commands require the configured role (automatic check)
  * - Embeds are managed centrally through EmbedManager
- * - Configuration is stored in Config class
+ * - Configuration is stored in Config class; IDs are reloaded from CONFIG_FILE without a restart
  * - Event listeners handle automatic actions (e.g., auto-tagging new threads)
+ * - With several instances on one database, only the elected leader polls, runs jobs and
+ *   handles events (see LeaderElection); the others only answer interactions
+ * - Shutdown drains in-flight commands and hands leadership over (see Lifecycle), so rolling
+ *   deploys drop no interactions
  * <p>
  * To add a new command:
  * 1. Create a class that implements CommandInterface in the commands package
@@ -41,56 +66,105 @@ import java.util.List;
 public class Bot {
 
     private static final Logger logger = LoggerFactory.getLogger(Bot.class);
-    private static JDA jda;
+    private static ShardManager shardManager;
 
     public static void main(String[] args) {
         try {
+            long startNanos = System.nanoTime();
             logger.info("Starting Stacker Bot...");
+            ConfigWatcher.start();
+            StatsCommand.loadSnapshot();
+            Metrics.startReporter(Config.getMetricsLogIntervalMinutes());
 
-            // Initialise the database connection pool and create tables if needed
-            Database.initialize();
+            // Startup runs as a small dependency graph:
+            //   storage warm-up ────────┐
+            //   command data building ──┼─> command registration (if changed)
+            //   shard logins ───────────┘   └─> live poll resume (in background)
+            // Repositories wait for the backend on first use, so early events are safe.
+            CompletableFuture<Void> storageReady = CompletableFuture.runAsync(Repositories::initialize);
 
             // Get bot token from environment variable
             String token = Config.getBotToken();
 
-            // Create CommandManager
+            // Register commands before connecting so the first interaction can already be routed
             CommandManager commandManager = new CommandManager();
+            setupCommands(commandManager);
+            CompletableFuture<List<CommandData>> commandData =
+                    CompletableFuture.supplyAsync(commandManager::buildCommandData);
 
             // Create event listeners
             ForumThreadListener forumThreadListener = new ForumThreadListener();
             PendingTesterListener pendingTesterListener = new PendingTesterListener();
+            ThreadIndexListener threadIndexListener = new ThreadIndexListener();
+            SessionListener sessionListener = new SessionListener();
 
-            // Build JDA instance
-            jda = JDABuilder.createDefault(token)
-                    .enableIntents(
-                            GatewayIntent.GUILD_MEMBERS,
-                            GatewayIntent.GUILD_MESSAGES,
-                            GatewayIntent.MESSAGE_CONTENT
-                    )
+            // Build the shard manager with the trimmed gateway / cache profile; shards log in concurrently
+            shardManager = GatewayProfile.createBuilder(token)
                     .setActivity(Activity.watching("for bugs"))
-                    .addEventListeners(commandManager, forumThreadListener, pendingTesterListener)
+                    .addEventListeners(commandManager, forumThreadListener, pendingTesterListener,
+                            threadIndexListener, sessionListener)
                     .build();
 
-            // Wait for JDA to be ready
-            jda.awaitReady();
-            logger.info("Bot is ready!");
+            // On shutdown, drain interactions and hand the poll to a follower before closing shards and storage.
+            // Installed right away so a stop during startup is orderly too
+            Lifecycle.installShutdownHook(shardManager);
+            Shards.registerMetrics(shardManager);
 
-            // Register commands with the CommandManager
-            setupCommands(commandManager);
+            // Wait for every shard to be ready
+            Shards.awaitReady(shardManager);
+            logStartupFootprint(startNanos);
+
+            // Registration needs both the guild cache and the stored command fingerprint
+            storageReady.join();
+            GuildConfig.initialize();
+            List<CommandData> registeredCommands = commandData.join();
+            registerCommandsWithDiscord(registeredCommands);
+
+            // Run queued Discord side effects, including any left over from before the restart
+            Outbox.start(shardManager);
+
+            // Follow changes other instances make to cached tables
+            StatsCommand.followStorageChanges(shardManager);
+            if (Repositories.isPostgres()) {
+                ChangeFeed.start();
+            }
 
-            // Register commands with Discord
-            registerCommandsWithDiscord(commandManager);
+            // Only the leader polls and runs catch-up jobs; followers just answer interactions
+            LeaderElection.onChange(leader -> {
+                if (leader) {
+                    onElected();
+                } else {
+                    StatsCommand.stopLivePolls();
+                }
+            });
+            LeaderElection.start();
 
-            // Resume any live stats polls that were active before shutdown
-            StatsCommand.resumeLivePolls(jda);
+            // React to config and guild settings changes that need more than reading the new value
+            GuildConfig.onGuildAdded(settings -> {
+                registerCommandsWithDiscord(settings.guildId(), registeredCommands);
+                if (LeaderElection.isLeader()) {
+                    ForumReconciliationJob.runAsync(shardManager);
+                }
+            });
+            Config.subscribe(Set.of(ConfigKey.CHANNEL_TESTER_LOG_FORUM), config -> {
+                if (LeaderElection.isLeader()) {
+                    ForumReconciliationJob.runAsync(shardManager);
+                }
+            });
 
-            // Gracefully close the database connection pool on JVM shutdown
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                logger.info("Shutdown hook: closing database connection pool");
-                Database.close();
-            }));
+            // Build the forum thread index (warm from storage, then catch up from Discord),
+            // then start the index-driven sweeper and sign threads the duplicate detector has not seen yet
+            CompletableFuture.runAsync(() -> {
+                        ThreadIndex.bootstrap(shardManager);
+                        StaleThreadSweeper.start(shardManager);
+                        DuplicateDetector.bootstrap(shardManager);
+                    })
+                    .exceptionally(e -> {
+                        logger.error("Failed to bootstrap thread index", e);
+                        return null;
+                    });
 
-            logger.info("All commands registered successfully!");
+            logger.info("Startup complete in {} ms", (System.nanoTime() - startNanos) / 1_000_000);
 
         } catch (Exception e) {
             logger.error("Failed to start bot", e);
@@ -98,6 +172,41 @@ public class Bot {
         }
     }
 
+    /**
+     * Start the leader's work: the shared live stats poll and the jobs that catch up on anything
+     * missed while no instance was leading.
+     */
+    private static void onElected() {
+        // Resume any live stats polls that were active before shutdown or handover
+        try {
+            StatsCommand.resumeLivePolls(shardManager);
+        } catch (RuntimeException e) {
+            logger.error("Failed to resume live stats polls", e);
+        }
+
+        // Tag forum threads that were created while no instance was leading
+        ForumReconciliationJob.runAsync(shardManager);
+
+        // Grant roles to pending testers who joined while no instance was leading
+        PendingTesterReconciliationJob.runAsync(shardManager);
+    }
+
+    /**
+     * Log how long the gateway took to become ready and how much heap is in use afterwards.
+     * Used to compare gateway profiles between deployments.
+     *
+     * @param startNanos {@link System#nanoTime()} captured at process start
+     */
+    private static void logStartupFootprint(long startNanos) {
+        Runtime runtime = Runtime.getRuntime();
+        long usedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        logger.info("Bot is ready! ({} ms, {} shard(s), {} guild(s), {} cached member(s), {} MB heap in use)",
+                elapsedMs, shardManager.getShardsTotal(), shardManager.getGuildCache().size(),
+                shardManager.getGuildCache().stream()
+                        .mapToLong(guild -> guild.getMemberCache().size()).sum(), usedMb);
+    }
+
     /**
      * Register all commands with the CommandManager.
      * Add new commands here to make them available.
@@ -106,6 +215,7 @@ public class Bot {
      */
     private static void setupCommands(CommandManager commandManager) {
         commandManager.registerCommand(new TesterCommand());
+        commandManager.registerCommand(new ReconcileTestersCommand());
         commandManager.registerCommand(new FixCommand());
         commandManager.registerCommand(new InProgressCommand());
         commandManager.registerCommand(new ResolvedCommand());
@@ -116,44 +226,39 @@ public class Bot {
     }
 
     /**
-     * Register all commands with Discord.
-     * This updates the slash commands available in Discord.
-     * Commands are registered to the specific guild for immediate availability.
+     * Register all commands with Discord in every served guild (see {@link GuildConfig}).
+     * Commands are registered to the specific guild for immediate availability,
+     * through whichever shard owns that guild.
+     * Only changed commands are uploaded; see {@link CommandRegistrar}.
      *
-     * @param commandManager The command manager with registered commands
+     * @param commandData The command data of all registered commands
      */
-    private static void registerCommandsWithDiscord(CommandManager commandManager) {
-        // Register commands to the specific guild for immediate availability
+    private static void registerCommandsWithDiscord(List<CommandData> commandData) {
         // Guild commands are available immediately (no 1-hour wait like global commands)
-        var guildIds = List.of(Config.MAIN_GUILD_ID, Config.DEV_GUILD_ID);
-        for (String guildId : guildIds) {
-            var guild = jda.getGuildById(guildId);
+        for (GuildSettings settings : GuildConfig.all()) {
+            registerCommandsWithDiscord(settings.guildId(), commandData);
+        }
+    }
 
-            if (guild == null) {
-                logger.error("Guild with ID {} not found. Bot may not be a member of this guild.", guildId);
-                return;
-            }
+    private static void registerCommandsWithDiscord(long guildId, List<CommandData> commandData) {
+        var guild = shardManager.getGuildById(guildId);
 
-            guild.updateCommands()
-                    .addCommands(
-                            commandManager.getCommands().values().stream()
-                                    .map(CommandInterface::getCommandData)
-                                    .toList()
-                    )
-                    .queue(
-                            success -> logger.info("Commands registered with guild {}", guildId),
-                            error -> logger.error("Failed to register commands with guild", error)
-                    );
+        if (guild == null) {
+            logger.error("Guild with ID {} not found. Bot may not be a member of this guild.", guildId);
+            return;
         }
+
+        CommandRegistrar.register(guild, commandData);
     }
 
     /**
-     * Get the JDA instance.
-     * Useful for accessing the JDA API from other classes.
+     * Get the shard manager.
+     * Useful for accessing the JDA API from other classes; guild-scoped lookups
+     * resolve through the shard that owns the guild.
      *
-     * @return The JDA instance
+     * @return The shard manager
      */
-    public static JDA getJDA() {
-        return jda;
+    public static ShardManager getShardManager() {
+        return shardManager;
     }
 }
@@ -0,0 +1,226 @@
+package dev.wand.stacker.cluster;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Elects one active instance when several bot processes share a database.
+ * <p>
+ * The leader runs the shared live stats poll, background jobs and event listeners that cause side
+ * effects; followers only answer interactions. Leadership is a session-level PostgreSQL advisory
+ * lock held on a dedicated connection (not a pooled one, which would hand the lock to whoever borrows
+ * the connection next):
+ * <ul>
+ *   <li>Every {@code LEADER_CHECK_INTERVAL_MS}, followers try {@code pg_try_advisory_lock}; it never
+ *       blocks, so a follower takes over within one interval of the lock being freed</li>
+ *   <li>The leader renews its lease by probing its session on the same schedule. If the probe fails,
+ *       the server may already have released the lock, so the leader steps down immediately</li>
+ *   <li>Server-side TCP keepalives on the session make PostgreSQL drop the lock within seconds when
+ *       a leader's host disappears without closing its connection</li>
+ *   <li>A graceful shutdown unlocks explicitly, so planned handovers take one interval</li>
+ * </ul>
+ * With the embedded backend there is only ever one process, so it is always the leader.
+ * <p>
+ * Listeners registered with {@link #onChange} are called in order on a dedicated thread.
+ */
+public final class LeaderElection {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderElection.class);
+
+    /**
+     * Advisory lock key shared by every instance ("Stacker" in ASCII).
+     */
+    private static final long LOCK_KEY = 0x537461636B6572L;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "leader-election");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService EVENTS = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "leader-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final List<Consumer<Boolean>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean leader;
+    private static volatile boolean started;
+    private static Connection connection;
+
+    private LeaderElection() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * @return whether this instance is currently the leader
+     */
+    public static boolean isLeader() {
+        return leader;
+    }
+
+    /**
+     * Register a listener for leadership changes: {@code true} when elected, {@code false} when revoked.
+     * Register before {@link #start()} to observe the first election.
+     *
+     * @param listener The listener
+     */
+    public static void onChange(Consumer<Boolean> listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Start campaigning for leadership.
+     */
+    public static synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        Metrics.gauge("cluster.leader", () -> leader ? 1 : 0);
+        if (!Repositories.isPostgres()) {
+            logger.info("Embedded storage: this instance is the leader");
+            setLeader(true);
+            return;
+        }
+        long intervalMs = Math.max(250, Config.getLeaderCheckIntervalMs());
+        SCHEDULER.scheduleWithFixedDelay(LeaderElection::tick, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Give up leadership and stop campaigning. Called on graceful shutdown so a follower can take
+     * over without waiting for the session to time out.
+     */
+    public static synchronized void stop() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        SCHEDULER.shutdownNow();
+        try {
+            SCHEDULER.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (connection != null) {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                ps.setLong(1, LOCK_KEY);
+                ps.execute();
+            } catch (SQLException e) {
+                logger.warn("Failed to release leader lock; it is freed when the session closes", e);
+            }
+            closeConnection();
+        }
+        if (leader) {
+            logger.info("Released leadership");
+        }
+        setLeader(false);
+    }
+
+    // -------------------------------------------------------------------------
+    // Campaign
+    // -------------------------------------------------------------------------
+
+    private static void tick() {
+        try {
+            if (leader) {
+                renew();
+            } else {
+                tryAcquire();
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (leader) {
+                // The session may be gone, and with it the lock: another instance may already lead
+                logger.error("Leader lease renewal failed; stepping down", e);
+                Metrics.increment("cluster.lease_lost");
+                setLeader(false);
+            } else {
+                logger.debug("Leader election attempt failed: {}", e.getMessage());
+            }
+            closeConnection();
+        }
+    }
+
+    private static void tryAcquire() throws SQLException {
+        if (connection == null) {
+            connection = Database.openDedicatedConnection("stacker-leader-election");
+            try (Statement st = connection.createStatement()) {
+                // Let the server notice a vanished leader within ~10 seconds instead of hours
+                st.execute("SET tcp_keepalives_idle = 4");
+                st.execute("SET tcp_keepalives_interval = 2");
+                st.execute("SET tcp_keepalives_count = 3");
+            }
+        }
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getBoolean(1)) {
+                    logger.info("Acquired leader lock; this instance is now the leader");
+                    Metrics.increment("cluster.elections_won");
+                    setLeader(true);
+                }
+            }
+        }
+    }
+
+    private static void renew() throws SQLException {
+        // Confirms the session, and therefore the lock, is still alive
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT 1 FROM pg_locks WHERE locktype = 'advisory' AND pid = pg_backend_pid() " +
+                        "AND classid::bigint = ? AND objid::bigint = ? AND objsubid = 1 AND granted")) {
+            // A bigint advisory key is split into its high and low 32 bits in pg_locks
+            ps.setLong(1, LOCK_KEY >>> 32);
+            ps.setLong(2, LOCK_KEY & 0xFFFFFFFFL);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Leader lock is no longer held by this session");
+                }
+            }
+        }
+    }
+
+    private static void setLeader(boolean value) {
+        if (leader == value) {
+            return;
+        }
+        leader = value;
+        for (Consumer<Boolean> listener : LISTENERS) {
+            EVENTS.execute(() -> {
+                try {
+                    listener.accept(value);
+                } catch (RuntimeException e) {
+                    logger.error("Leadership listener failed", e);
+                }
+            });
+        }
+    }
+
+    private static void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close leader election connection", e);
+        }
+        connection = null;
+    }
+}
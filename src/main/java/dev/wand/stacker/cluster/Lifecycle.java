@@ -0,0 +1,243 @@
+package dev.wand.stacker.cluster;
+
+import dev.wand.stacker.commands.StatsCommand;
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.ConfigWatcher;
+import dev.wand.stacker.db.ChangeFeed;
+import dev.wand.stacker.embeds.EmbedManager;
+import dev.wand.stacker.index.ThreadIndex;
+import dev.wand.stacker.jobs.Outbox;
+import dev.wand.stacker.jobs.StaleThreadSweeper;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the bot on shutdown so a rolling deploy drops no interaction and skips no live stats poll.
+ * <p>
+ * Every interaction is admitted with {@link #tryAccept} and released once its handler returns; work a
+ * command hands to another thread keeps the interaction open through {@link #hold}. All waiting shares
+ * one deadline, {@code SHUTDOWN_DRAIN_MS} from the start of the shutdown, plus a short fixed allowance for
+ * the shards to send what is queued, so the whole sequence fits in a typical termination grace period:
+ * <ol>
+ *   <li>New interactions are refused with an ephemeral "restarting" reply, so they are acknowledged
+ *       rather than left to time out; config watching and the stale thread sweeper stop</li>
+ *   <li>Open interactions get until the deadline to finish; any still open are answered with an error
+ *       so nobody is left looking at "thinking..."</li>
+ *   <li>The live stats poll finishes its current run, the stats snapshot is saved and leadership is
+ *       released right away, so a follower takes over the poll within one check interval and catches up
+ *       at once if a poll came due in between (see {@link StatsCommand})</li>
+ *   <li>The outbox finishes its running jobs within what is left of the deadline and the thread index is
+ *       flushed</li>
+ *   <li>Shards shut down once their queued REST requests are sent, then the change feed and storage close</li>
+ * </ol>
+ */
+public final class Lifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(Lifecycle.class);
+
+    /**
+     * The poll and the outbox always get at least this long, even if interactions used up the deadline.
+     */
+    private static final long MIN_STEP_TIMEOUT_MS = 1_000L;
+    private static final long SHARD_SHUTDOWN_TIMEOUT_MS = 5_000L;
+
+    private static final Object LOCK = new Object();
+    /**
+     * Open interactions by interaction ID, with the number of holds on each. Guarded by {@link #LOCK}.
+     */
+    private static final Map<Long, Hold> IN_FLIGHT = new HashMap<>();
+
+    private static volatile boolean accepting = true;
+
+    private Lifecycle() {
+        // Utility class, prevent instantiation
+    }
+
+    private static final class Hold {
+        final IReplyCallback interaction;
+        int count;
+
+        Hold(IReplyCallback interaction) {
+            this.interaction = interaction;
+        }
+    }
+
+    /**
+     * Run {@link #shutdown} when the JVM is asked to stop (e.g. SIGTERM from the deployment).
+     *
+     * @param shardManager The shard manager to close last
+     */
+    public static void installShutdownHook(ShardManager shardManager) {
+        Metrics.gauge("lifecycle.in_flight", () -> {
+            synchronized (LOCK) {
+                return IN_FLIGHT.size();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(shardManager), "shutdown"));
+    }
+
+    /**
+     * @return whether new interactions are being accepted, i.e. no shutdown has started
+     */
+    public static boolean isAccepting() {
+        return accepting;
+    }
+
+    /**
+     * Admit an interaction. Must be balanced by {@link #release} if admitted.
+     *
+     * @param interaction The incoming interaction
+     * @return {@code false} if the bot is shutting down and the interaction should be refused
+     */
+    public static boolean tryAccept(IReplyCallback interaction) {
+        synchronized (LOCK) {
+            if (!accepting) {
+                return false;
+            }
+            retainLocked(interaction);
+            return true;
+        }
+    }
+
+    /**
+     * Keep an admitted interaction open until asynchronous work for it completes.
+     *
+     * @param interaction The interaction the work answers
+     * @param work        The work; the interaction is released when it completes either way
+     * @return {@code work}, for chaining
+     */
+    public static <T> CompletableFuture<T> hold(IReplyCallback interaction, CompletableFuture<T> work) {
+        synchronized (LOCK) {
+            retainLocked(interaction);
+        }
+        work.whenComplete((result, error) -> release(interaction));
+        return work;
+    }
+
+    /**
+     * Release one hold on an interaction.
+     *
+     * @param interaction The interaction
+     */
+    public static void release(IReplyCallback interaction) {
+        synchronized (LOCK) {
+            Hold hold = IN_FLIGHT.get(interaction.getIdLong());
+            if (hold != null && --hold.count == 0) {
+                IN_FLIGHT.remove(interaction.getIdLong());
+                if (IN_FLIGHT.isEmpty()) {
+                    LOCK.notifyAll();
+                }
+            }
+        }
+    }
+
+    private static void retainLocked(IReplyCallback interaction) {
+        IN_FLIGHT.computeIfAbsent(interaction.getIdLong(), id -> new Hold(interaction)).count++;
+    }
+
+    /**
+     * Drain and stop everything, in dependency order. Safe to call once; later calls do nothing.
+     *
+     * @param shardManager The shard manager to close last
+     */
+    public static void shutdown(ShardManager shardManager) {
+        synchronized (LOCK) {
+            if (!accepting) {
+                return;
+            }
+            accepting = false;
+        }
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(Config.getShutdownDrainMs());
+        logger.info("Shutting down: refusing new interactions and draining in-flight work");
+
+        ConfigWatcher.stop();
+        StaleThreadSweeper.stop();
+        drainInteractions(deadlineNanos);
+
+        // The poll is stopped and its cursor stored, so a follower can take over without a gap
+        StatsCommand.stopForShutdown(remainingMs(deadlineNanos));
+        StatsCommand.saveSnapshot();
+        LeaderElection.stop();
+
+        Outbox.stop(remainingMs(deadlineNanos));
+        ThreadIndex.flush();
+
+        closeShards(shardManager);
+        ChangeFeed.stop();
+        Repositories.close();
+        logger.info("Shutdown complete in {} ms", (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static long remainingMs(long deadlineNanos) {
+        return Math.max(MIN_STEP_TIMEOUT_MS, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Wait for open interactions until the deadline, then answer the rest with an error.
+     */
+    private static void drainInteractions(long deadlineNanos) {
+        List<IReplyCallback> abandoned;
+        synchronized (LOCK) {
+            try {
+                long left;
+                while (!IN_FLIGHT.isEmpty() && (left = deadlineNanos - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(LOCK, left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            abandoned = IN_FLIGHT.values().stream().map(hold -> hold.interaction).toList();
+            IN_FLIGHT.clear();
+        }
+        if (abandoned.isEmpty()) {
+            logger.info("All interactions drained");
+            return;
+        }
+
+        logger.warn("{} interaction(s) did not finish before shutdown; answering them with an error",
+                abandoned.size());
+        Metrics.add("lifecycle.interactions_abandoned", abandoned.size());
+        MessageEmbed error = EmbedManager.createError("Restarting",
+                "The bot restarted before this finished. Please try again.");
+        for (IReplyCallback interaction : abandoned) {
+            // Queued replies are still sent: shards only close once their request queues are empty
+            if (interaction.isAcknowledged()) {
+                interaction.getHook().editOriginalEmbeds(error).queue(null, e -> { });
+            } else {
+                interaction.replyEmbeds(error).setEphemeral(true).queue(null, e -> { });
+            }
+        }
+    }
+
+    private static void closeShards(ShardManager shardManager) {
+        List<JDA> shards = List.copyOf(shardManager.getShards());
+        shardManager.shutdown();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHARD_SHUTDOWN_TIMEOUT_MS);
+        for (JDA shard : shards) {
+            try {
+                long left = Math.max(0, deadlineNanos - System.nanoTime());
+                if (!shard.awaitShutdown(left, TimeUnit.NANOSECONDS)) {
+                    logger.warn("Shard {} did not shut down in time; dropping its request queue",
+                            shard.getShardInfo().getShardId());
+                    shard.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shard.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package dev.wand.stacker.cluster;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.metrics.Metrics;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Helpers for working with the gateway shards of a {@link ShardManager}.
+ * <p>
+ * Each guild lives on exactly one shard, {@code (guildId >> 22) % shardsTotal}. Work addressed to a guild
+ * (editing a message, resolving a channel) only has to consult that shard, and only while it is connected:
+ * a reconnecting shard has an empty cache, which must not be mistaken for a deleted channel.
+ */
+public final class Shards {
+
+    private static final Logger logger = LoggerFactory.getLogger(Shards.class);
+
+    private static final long READY_POLL_MS = 100L;
+
+    private Shards() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Block until every shard has been created and has finished loading its guilds, for at most
+     * {@code SHARD_READY_TIMEOUT_MS}.
+     *
+     * @param shardManager The shard manager, already logged in
+     * @throws InterruptedException  If interrupted while waiting
+     * @throws IllegalStateException If a shard shut down, or not every shard was ready in time
+     */
+    public static void awaitReady(ShardManager shardManager) throws InterruptedException {
+        long timeoutMs = Config.getShardReadyTimeoutMs();
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000;
+        // Shards are created one after another from the manager's queue, so poll until all exist and are connected
+        while (!allConnected(shardManager)) {
+            failIfStopped(shardManager);
+            if (System.nanoTime() - deadline >= 0) {
+                throw new IllegalStateException("Shards did not become ready within " + timeoutMs + " ms: "
+                        + describe(shardManager));
+            }
+            Thread.sleep(READY_POLL_MS);
+        }
+    }
+
+    private static void failIfStopped(ShardManager shardManager) {
+        for (JDA shard : shardManager.getShards()) {
+            JDA.Status status = shard.getStatus();
+            if (status == JDA.Status.SHUTDOWN || status == JDA.Status.FAILED_TO_LOGIN) {
+                throw new IllegalStateException("Shard " + shard.getShardInfo().getShardId() + " stopped during "
+                        + "startup (" + status + ")");
+            }
+        }
+    }
+
+    /**
+     * @return e.g. {@code 3 of 4 shard(s) created, waiting on [2: LOADING_SUBSYSTEMS, 3: AWAITING_LOGIN_CONFIRMATION]}
+     */
+    private static String describe(ShardManager shardManager) {
+        List<String> waiting = new ArrayList<>();
+        for (JDA shard : shardManager.getShards()) {
+            if (shard.getStatus() != JDA.Status.CONNECTED) {
+                waiting.add(shard.getShardInfo().getShardId() + ": " + shard.getStatus());
+            }
+        }
+        return shardManager.getShardCache().size() + " of " + shardManager.getShardsTotal()
+                + " shard(s) created, waiting on " + waiting;
+    }
+
+    /**
+     * @param guildId     The guild ID
+     * @param shardsTotal The total number of shards
+     * @return the ID of the shard that receives the guild's events
+     */
+    public static int shardIdFor(long guildId, int shardsTotal) {
+        return (int) ((guildId >>> 22) % shardsTotal);
+    }
+
+    /**
+     * Find the shard that owns a guild channel.
+     *
+     * @param shardManager The shard manager
+     * @param channelId    The channel ID
+     * @return the owning shard's ID, or empty if no connected shard has the channel cached
+     */
+    public static OptionalInt shardIdOfChannel(ShardManager shardManager, String channelId) {
+        GuildChannel channel = shardManager.getChannelById(GuildChannel.class, channelId);
+        if (channel == null) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(shardIdFor(channel.getGuild().getIdLong(), shardManager.getShardsTotal()));
+    }
+
+    /**
+     * @param shardManager The shard manager
+     * @param shardId      The shard ID
+     * @return the shard if it exists and is connected, otherwise {@code null}
+     */
+    public static JDA connected(ShardManager shardManager, int shardId) {
+        JDA shard = shardManager.getShardById(shardId);
+        return shard != null && shard.getStatus() == JDA.Status.CONNECTED ? shard : null;
+    }
+
+    /**
+     * @param shardManager The shard manager
+     * @return whether every shard exists and is connected, i.e. the guild cache is complete
+     */
+    public static boolean allConnected(ShardManager shardManager) {
+        int total = shardManager.getShardsTotal();
+        for (int shardId = 0; shardId < total; shardId++) {
+            if (connected(shardManager, shardId) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Register per-shard gauges: {@code shard.<id>.connected}, {@code shard.<id>.ping_ms} and
+     * {@code shard.<id>.guilds}.
+     *
+     * @param shardManager The shard manager, already logged in
+     */
+    public static void registerMetrics(ShardManager shardManager) {
+        int total = shardManager.getShardsTotal();
+        for (int i = 0; i < total; i++) {
+            int shardId = i;
+            Metrics.gauge("shard." + shardId + ".connected",
+                    () -> connected(shardManager, shardId) != null ? 1 : 0);
+            Metrics.gauge("shard." + shardId + ".ping_ms", () -> {
+                JDA shard = shardManager.getShardById(shardId);
+                return shard != null ? shard.getGatewayPing() : -1;
+            });
+            Metrics.gauge("shard." + shardId + ".guilds", () -> {
+                JDA shard = shardManager.getShardById(shardId);
+                return shard != null ? shard.getGuildCache().size() : 0;
+            });
+        }
+        logger.info("Registered metrics for {} shard(s)", total);
+    }
+}
@@ -1,8 +1,11 @@
 package dev.wand.stacker.commands;
 
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 
+import java.util.List;
+
 /**
  * Base interface for all bot commands.
  * <p>
@@ -52,4 +55,15 @@ public interface CommandInterface {
      * @param event The slash command interaction event
      */
     void execute(SlashCommandInteractionEvent event);
+
+    /**
+     * Suggest values for an autocomplete option of this command.
+     * Commands with autocomplete options override this; the default suggests nothing.
+     * Discord expects a reply within 3 seconds, so implementations must not make REST calls.
+     *
+     * @param event The autocomplete interaction event
+     */
+    default void onAutoComplete(CommandAutoCompleteInteractionEvent event) {
+        event.replyChoices(List.of()).queue();
+    }
 }
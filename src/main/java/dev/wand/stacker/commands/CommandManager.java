@@ -1,15 +1,23 @@
 package dev.wand.stacker.commands;
 
+import dev.wand.stacker.cluster.Lifecycle;
 import dev.wand.stacker.embeds.EmbedManager;
+import dev.wand.stacker.metrics.Metrics;
 import dev.wand.stacker.utils.PermissionUtils;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Central command manager that handles command registration and routing.
@@ -17,8 +25,10 @@ import java.util.Map;
  * This class:
  * - Registers all commands with the bot
  * - Routes incoming slash command events to the appropriate command handler
+ * - Routes autocomplete requests to the command that owns the option
  * - Performs permission checks before executing commands
  * - Provides centralized error handling
+ * - Tracks in-flight commands so a shutdown can drain them (see {@link Lifecycle})
  * <p>
  * To add a new command:
  * 1. Create a class that implements CommandInterface
@@ -29,6 +39,7 @@ public class CommandManager extends ListenerAdapter {
 
     private static final Logger logger = LoggerFactory.getLogger(CommandManager.class);
     private final Map<String, CommandInterface> commands = new HashMap<>();
+    private final AtomicBoolean firstInteractionHandled = new AtomicBoolean(false);
 
     /**
      * Register a command with the manager.
@@ -51,6 +62,18 @@ public class CommandManager extends ListenerAdapter {
         return commands;
     }
 
+    /**
+     * Build the Discord registration payload for every registered command, sorted by name.
+     *
+     * @return The command data of all registered commands
+     */
+    public List<CommandData> buildCommandData() {
+        return commands.values().stream()
+                .map(CommandInterface::getCommandData)
+                .sorted(Comparator.comparing(CommandData::getName))
+                .toList();
+    }
+
     /**
      * Handle incoming slash command events.
      * This method:
@@ -62,6 +85,11 @@ public class CommandManager extends ListenerAdapter {
      */
     @Override
     public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
+        if (firstInteractionHandled.compareAndSet(false, true)) {
+            long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            logger.info("First interaction received {} ms after process start", sinceStart);
+        }
+
         String commandName = event.getName().toLowerCase();
         CommandInterface command = commands.get(commandName);
 
@@ -82,6 +110,16 @@ public class CommandManager extends ListenerAdapter {
             return;
         }
 
+        // Acknowledge instead of dropping interactions that arrive while shutting down
+        if (!Lifecycle.tryAccept(event)) {
+            event.replyEmbeds(EmbedManager.createError(
+                    "Restarting",
+                    "The bot is restarting. Please try again in a few seconds."
+            )).setEphemeral(true).queue();
+            Metrics.increment("lifecycle.interactions_refused");
+            return;
+        }
+
         // Execute the command
         try {
             logger.info("Executing command: {} by user: {}",
@@ -102,6 +140,36 @@ public class CommandManager extends ListenerAdapter {
                         "An error occurred while executing the command."
                 )).setEphemeral(true).queue();
             }
+        } finally {
+            Lifecycle.release(event);
+        }
+    }
+
+    /**
+     * Handle autocomplete requests by delegating to the owning command.
+     * Users without the required role get no suggestions, matching the slash command check.
+     *
+     * @param event The autocomplete interaction event
+     */
+    @Override
+    public void onCommandAutoCompleteInteraction(CommandAutoCompleteInteractionEvent event) {
+        long startNanos = System.nanoTime();
+        CommandInterface command = commands.get(event.getName().toLowerCase());
+
+        if (command == null || !Lifecycle.isAccepting()
+                || (command.requiresPermission() && !PermissionUtils.hasRequiredRole(event.getMember()))) {
+            event.replyChoices(List.of()).queue();
+            return;
+        }
+
+        try {
+            command.onAutoComplete(event);
+        } catch (Exception e) {
+            logger.error("Error during autocomplete for command: {}", event.getName(), e);
+            if (!event.isAcknowledged()) {
+                event.replyChoices(List.of()).queue();
+            }
         }
+        Metrics.recordNanos("autocomplete." + command.getName(), System.nanoTime() - startNanos);
     }
 }
@@ -0,0 +1,158 @@
+package dev.wand.stacker.commands;
+
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Registers slash commands with a guild by sending only what changed.
+ * <p>
+ * Registration works in two stages:
+ * 1. A fingerprint of the desired command set is compared with the one stored in
+ * {@code bot_state} after the last successful registration. If they match, no REST call is made.
+ * 2. Otherwise the guild's current commands are retrieved and diffed structurally against
+ * {@link CommandInterface#getCommandData()}. Only new or changed commands are upserted and
+ * only commands that no longer exist are deleted, so unchanged commands are never disrupted.
+ */
+public final class CommandRegistrar {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandRegistrar.class);
+    private static final String FINGERPRINT_KEY_PREFIX = "commands_hash:";
+
+    private CommandRegistrar() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Bring a guild's registered commands in line with the desired command set.
+     *
+     * @param guild       The guild to register commands with
+     * @param commandData The command data of all registered commands
+     */
+    public static void register(Guild guild, List<CommandData> commandData) {
+        String fingerprint = fingerprint(commandData);
+        String stateKey = FINGERPRINT_KEY_PREFIX + guild.getId();
+
+        try {
+            if (fingerprint.equals(Repositories.botState().get(stateKey))) {
+                logger.info("Commands for guild {} unchanged; skipping registration", guild.getId());
+                return;
+            }
+        } catch (StorageException e) {
+            logger.warn("Could not read stored command fingerprint for guild {}; diffing anyway", guild.getId(), e);
+        }
+
+        guild.retrieveCommands().queue(
+                existing -> applyDiff(guild, commandData, existing, stateKey, fingerprint),
+                error -> logger.error("Failed to retrieve commands for guild {}", guild.getId(), error)
+        );
+    }
+
+    /**
+     * Upsert new or changed commands, delete removed ones and store the fingerprint on success.
+     */
+    private static void applyDiff(Guild guild, List<CommandData> desired, List<Command> existing,
+                                  String stateKey, String fingerprint) {
+        Map<String, Command> existingByKey = new HashMap<>();
+        for (Command command : existing) {
+            existingByKey.put(key(command.getType(), command.getName()), command);
+        }
+
+        List<RestAction<?>> actions = new ArrayList<>();
+        List<String> upserted = new ArrayList<>();
+        for (CommandData data : desired) {
+            Command current = existingByKey.remove(key(data.getType(), data.getName()));
+            if (current == null || !sameStructure(CommandData.fromCommand(current), data)) {
+                actions.add(guild.upsertCommand(data));
+                upserted.add(data.getName());
+            }
+        }
+
+        // Anything left over is registered in Discord but no longer exists in the bot
+        List<String> deleted = new ArrayList<>();
+        for (Command stale : existingByKey.values()) {
+            actions.add(guild.deleteCommandById(stale.getIdLong()));
+            deleted.add(stale.getName());
+        }
+
+        if (actions.isEmpty()) {
+            logger.info("Commands for guild {} already up to date", guild.getId());
+            storeFingerprint(stateKey, fingerprint);
+            return;
+        }
+
+        RestAction.allOf(actions).queue(
+                success -> {
+                    logger.info("Commands synced with guild {} (upserted: {}, deleted: {})",
+                            guild.getId(), upserted, deleted);
+                    storeFingerprint(stateKey, fingerprint);
+                },
+                error -> logger.error("Failed to sync commands with guild {}", guild.getId(), error)
+        );
+    }
+
+    private static void storeFingerprint(String stateKey, String fingerprint) {
+        try {
+            Repositories.botState().put(stateKey, fingerprint);
+        } catch (StorageException e) {
+            logger.error("Failed to store command fingerprint {}", stateKey, e);
+        }
+    }
+
+    private static String key(Command.Type type, String name) {
+        return type.name() + ":" + name;
+    }
+
+    /**
+     * Compare two commands by their serialized registration payload, ignoring key order.
+     */
+    private static boolean sameStructure(CommandData a, CommandData b) {
+        return canonicalize(a.toData().toMap()).equals(canonicalize(b.toData().toMap()));
+    }
+
+    /**
+     * Compute a stable SHA-256 fingerprint of a command set.
+     * Two command sets with the same structure always produce the same fingerprint,
+     * regardless of map iteration order inside JDA's serialized payload.
+     *
+     * @param commandData The command data to fingerprint
+     * @return A hex-encoded SHA-256 digest
+     */
+    public static String fingerprint(List<CommandData> commandData) {
+        StringBuilder canonical = new StringBuilder();
+        commandData.stream()
+                .sorted(Comparator.comparing(CommandData::getName))
+                .forEach(data -> canonical.append(canonicalize(data.toData().toMap())).append('\n'));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Recursively sort map keys so serialization order is deterministic.
+     */
+    private static Object canonicalize(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((k, v) -> sorted.put(String.valueOf(k), canonicalize(v)));
+            return sorted;
+        }
+        if (value instanceof Collection<?> list) {
+            return list.stream().map(CommandRegistrar::canonicalize).toList();
+        }
+        return value;
+    }
+}
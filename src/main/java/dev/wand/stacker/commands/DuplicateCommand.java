@@ -1,14 +1,21 @@
 package dev.wand.stacker.commands;
 
-import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.config.TagKind;
 import dev.wand.stacker.embeds.EmbedManager;
+import dev.wand.stacker.jobs.Outbox;
+import dev.wand.stacker.index.ThreadIndex;
+import dev.wand.stacker.index.ThreadRecord;
+import dev.wand.stacker.index.TitleIndex;
 import dev.wand.stacker.utils.ValidationUtils;
 import net.dv8tion.jda.api.entities.channel.Channel;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
-import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
@@ -16,9 +23,17 @@ import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Optional;
+
+/**
+ * Marks a Tester Log Forum thread as a duplicate of another one.
+ * <p>
+ * The original thread is picked through autocomplete, served from the in-memory {@link TitleIndex};
+ * the chosen thread's title and link come from the {@link ThreadIndex}, so no REST call is needed
+ * to resolve it. A pasted thread ID or link is accepted as well. Only threads of the guild's own
+ * forum can be suggested or picked, so one served guild never sees another's threads.
+ */
 public class DuplicateCommand implements CommandInterface {
 
     private static final Logger logger = LoggerFactory.getLogger(DuplicateCommand.class);
@@ -31,7 +46,26 @@ public class DuplicateCommand implements CommandInterface {
     @Override
     public CommandData getCommandData() {
         return Commands.slash("duplicate", "Mark this thread as a duplicate")
-                .addOptions(new OptionData(OptionType.CHANNEL, "thread", "The original thread this is a duplicate of", true));
+                .addOptions(new OptionData(OptionType.STRING, "thread", "The original thread this is a duplicate of", true)
+                        .setAutoComplete(true));
+    }
+
+    @Override
+    public void onAutoComplete(CommandAutoCompleteInteractionEvent event) {
+        GuildSettings settings = event.getGuild() != null ? GuildConfig.forGuild(event.getGuild().getIdLong()) : null;
+        if (settings == null) {
+            event.replyChoices(List.of()).queue();
+            return;
+        }
+        long currentThreadId = event.getChannelIdLong();
+        List<Command.Choice> choices = TitleIndex.search(event.getFocusedOption().getValue(),
+                        settings.forumChannelId(), OptionData.MAX_CHOICES + 1)
+                .stream()
+                .filter(thread -> thread.threadId() != currentThreadId)
+                .limit(OptionData.MAX_CHOICES)
+                .map(thread -> new Command.Choice(truncate(thread.title()), Long.toString(thread.threadId())))
+                .toList();
+        event.replyChoices(choices).queue();
     }
 
     @Override
@@ -46,14 +80,45 @@ public class DuplicateCommand implements CommandInterface {
         }
 
         ThreadChannel threadChannel = (ThreadChannel) channel;
+
+        long forumId = threadChannel.getParentChannel().getIdLong();
+        Optional<ThreadRecord> original = resolveThread(event.getOption("thread").getAsString(), forumId);
+        if (original.isEmpty() || original.get().threadId() == threadChannel.getIdLong()) {
+            event.replyEmbeds(EmbedManager.createError(
+                    "❌ Thread Not Found",
+                    "Pick the original thread from the suggestions, or paste a link to a thread in the Tester Log Forum."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
         event.deferReply(true).queue();
+        applyDuplicateTag(event, threadChannel, original.get());
+    }
 
-        Channel originalChannel = event.getOption("thread").getAsChannel();
-        applyDuplicateTag(event, threadChannel, originalChannel);
+    /**
+     * Resolve an option value (an autocomplete thread ID, a pasted ID or a thread link) to an indexed thread
+     * in the given forum.
+     */
+    static Optional<ThreadRecord> resolveThread(String value, long forumId) {
+        String id = value.strip();
+        int lastSlash = id.lastIndexOf('/');
+        if (lastSlash >= 0) {
+            id = id.substring(lastSlash + 1);
+        }
+        try {
+            return ThreadIndex.get(Long.parseLong(id)).filter(record -> record.forumId() == forumId);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
     }
 
-    private void applyDuplicateTag(SlashCommandInteractionEvent event, ThreadChannel threadChannel, Channel originalChannel) {
-        GuildChannel originalGuildChannel = (GuildChannel) originalChannel;
+    private static String truncate(String title) {
+        return title.length() <= Command.Choice.MAX_NAME_LENGTH
+                ? title
+                : title.substring(0, Command.Choice.MAX_NAME_LENGTH - 1) + "…";
+    }
+
+    private void applyDuplicateTag(SlashCommandInteractionEvent event, ThreadChannel threadChannel, ThreadRecord original) {
         if (!(threadChannel.getParentChannel() instanceof ForumChannel)) {
             logger.error("Parent channel is not a ForumChannel: {}", threadChannel.getParentChannel().getName());
             event.getHook().editOriginal("❌ This thread's parent channel is not a forum.").queue();
@@ -63,7 +128,7 @@ public class DuplicateCommand implements CommandInterface {
         ForumChannel parentChannel = (ForumChannel) threadChannel.getParentChannel();
 
         ForumTag duplicateTag = parentChannel.getAvailableTags().stream()
-                .filter(tag -> tag.getId().equals(Config.TAG_DUPLICATE))
+                .filter(tag -> ValidationUtils.isTag(tag, TagKind.DUPLICATE))
                 .findFirst()
                 .orElse(null);
 
@@ -73,38 +138,14 @@ public class DuplicateCommand implements CommandInterface {
             return;
         }
 
-        List<ForumTag> newTags = new ArrayList<>(threadChannel.getAppliedTags());
-        newTags.removeIf(ValidationUtils::isStatusTag);
-        newTags.add(duplicateTag);
-
-        threadChannel.getManager().setAppliedTags(newTags).queue(
-                success -> {
-                    logger.info("Applied Duplicate tag to thread: {}", threadChannel.getName());
-                    event.getHook().editOriginal("✅ Successfully marked this thread as a duplicate!").queue(
-                            message -> {
-                                String ownerId = threadChannel.getOwnerId();
-                                String mention = "<@" + ownerId + ">";
-                                threadChannel.sendMessage(mention)
-                                        .addEmbeds(EmbedManager.createBugDuplicateEmbed(originalGuildChannel.getName(), originalGuildChannel.getJumpUrl()))
-                                        .queue(
-                                                publicMessage -> closeThread(threadChannel),
-                                                error -> logger.error("Failed to send duplicate embed", error)
-                                        );
-                            },
-                            error -> logger.error("Failed to send ephemeral response", error)
-                    );
-                },
-                error -> {
-                    logger.error("Failed to apply Duplicate tag to thread", error);
-                    event.getHook().editOriginal("❌ Failed to apply the Duplicate tag. Please check bot permissions.").queue();
-                }
-        );
-    }
-
-    private void closeThread(ThreadChannel threadChannel) {
-        threadChannel.getManager().setArchived(true).queue(
-                success -> logger.info("Closed thread: {}", threadChannel.getName()),
-                error -> logger.error("Failed to close thread: {}", threadChannel.getName(), error)
-        );
+        // Through the outbox, so the tag change and the archive survive Discord errors and restarts
+        Outbox.closeThread(parentChannel.getIdLong(), threadChannel.getIdLong(), duplicateTag.getIdLong());
+        logger.info("Closing thread as a duplicate: {}", threadChannel.getName());
+        event.getHook().editOriginal("✅ Successfully marked this thread as a duplicate!").queue(
+                null, error -> logger.error("Failed to send ephemeral response", error));
+        String mention = "<@" + threadChannel.getOwnerId() + ">";
+        threadChannel.sendMessage(mention)
+                .addEmbeds(EmbedManager.createBugDuplicateEmbed(original.title(), original.jumpUrl()))
+                .queue(null, error -> logger.error("Failed to send duplicate embed", error));
     }
 }
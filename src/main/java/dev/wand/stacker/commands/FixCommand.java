@@ -1,7 +1,8 @@
 package dev.wand.stacker.commands;
 
-import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.TagKind;
 import dev.wand.stacker.embeds.EmbedManager;
+import dev.wand.stacker.jobs.Outbox;
 import dev.wand.stacker.utils.ValidationUtils;
 import net.dv8tion.jda.api.entities.channel.Channel;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
@@ -13,8 +14,6 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
 
 public class FixCommand implements CommandInterface {
 
@@ -56,7 +55,7 @@ public class FixCommand implements CommandInterface {
         ForumChannel parentChannel = (ForumChannel) threadChannel.getParentChannel();
 
         ForumTag fixedTag = parentChannel.getAvailableTags().stream()
-                .filter(tag -> tag.getId().equals(Config.TAG_FIXED))
+                .filter(tag -> ValidationUtils.isTag(tag, TagKind.FIXED))
                 .findFirst()
                 .orElse(null);
 
@@ -66,32 +65,12 @@ public class FixCommand implements CommandInterface {
             return;
         }
 
-        List<ForumTag> newTags = new ArrayList<>(threadChannel.getAppliedTags());
-        newTags.removeIf(ValidationUtils::isStatusTag);
-        newTags.add(fixedTag);
-
-        threadChannel.getManager().setAppliedTags(newTags).queue(
-                success -> {
-                    logger.info("Applied Fixed tag to thread: {}", threadChannel.getName());
-                    event.getHook().editOriginal("✅ Successfully marked this bug as fixed!").queue(
-                            message -> threadChannel.sendMessageEmbeds(EmbedManager.createBugFixedEmbed()).queue(
-                                    publicMessage -> closeThread(threadChannel),
-                                    error -> logger.error("Failed to send bug fixed embed", error)
-                            ),
-                            error -> logger.error("Failed to send ephemeral response", error)
-                    );
-                },
-                error -> {
-                    logger.error("Failed to apply Fixed tag to thread", error);
-                    event.getHook().editOriginal("❌ Failed to apply the Fixed tag. Please check bot permissions.").queue();
-                }
-        );
-    }
-
-    private void closeThread(ThreadChannel threadChannel) {
-        threadChannel.getManager().setArchived(true).queue(
-                success -> logger.info("Closed thread: {}", threadChannel.getName()),
-                error -> logger.error("Failed to close thread: {}", threadChannel.getName(), error)
-        );
+        // Through the outbox, so the tag change and the archive survive Discord errors and restarts
+        Outbox.closeThread(parentChannel.getIdLong(), threadChannel.getIdLong(), fixedTag.getIdLong());
+        logger.info("Closing thread as fixed: {}", threadChannel.getName());
+        event.getHook().editOriginal("✅ Successfully marked this bug as fixed!").queue(
+                null, error -> logger.error("Failed to send ephemeral response", error));
+        threadChannel.sendMessageEmbeds(EmbedManager.createBugFixedEmbed()).queue(
+                null, error -> logger.error("Failed to send bug fixed embed", error));
     }
 }
@@ -1,6 +1,6 @@
 package dev.wand.stacker.commands;
 
-import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.TagKind;
 import dev.wand.stacker.embeds.EmbedManager;
 import dev.wand.stacker.utils.ValidationUtils;
 import net.dv8tion.jda.api.entities.channel.Channel;
@@ -56,7 +56,7 @@ public class InProgressCommand implements CommandInterface {
         ForumChannel parentChannel = (ForumChannel) threadChannel.getParentChannel();
 
         ForumTag inProgressTag = parentChannel.getAvailableTags().stream()
-                .filter(tag -> tag.getId().equals(Config.TAG_IN_PROGRESS))
+                .filter(tag -> ValidationUtils.isTag(tag, TagKind.IN_PROGRESS))
                 .findFirst()
                 .orElse(null);
 
@@ -1,6 +1,6 @@
 package dev.wand.stacker.commands;
 
-import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.TagKind;
 import dev.wand.stacker.embeds.EmbedManager;
 import dev.wand.stacker.utils.ValidationUtils;
 import net.dv8tion.jda.api.entities.channel.Channel;
@@ -56,7 +56,7 @@ public class InvestigateCommand implements CommandInterface {
         ForumChannel parentChannel = (ForumChannel) threadChannel.getParentChannel();
 
         ForumTag investigatingTag = parentChannel.getAvailableTags().stream()
-                .filter(tag -> tag.getId().equals(Config.TAG_INVESTIGATING))
+                .filter(tag -> ValidationUtils.isTag(tag, TagKind.INVESTIGATING))
                 .findFirst()
                 .orElse(null);
 
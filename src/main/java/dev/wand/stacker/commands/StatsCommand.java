@@ -1,47 +1,136 @@
 package dev.wand.stacker.commands;
 
+import com.google.gson.JsonObject;
+import dev.wand.stacker.cluster.LeaderElection;
+import dev.wand.stacker.cluster.Lifecycle;
+import dev.wand.stacker.cluster.Shards;
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.db.ChangeFeed;
 import dev.wand.stacker.embeds.EmbedManager;
-import dev.wand.stacker.repository.LiveStatsRepository;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
 import dev.wand.stacker.services.GameStats;
 import dev.wand.stacker.services.RobloxApiService;
+import dev.wand.stacker.services.StatsSnapshot;
+import dev.wand.stacker.services.StatsWindow;
 import dev.wand.stacker.utils.PermissionUtils;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.sharding.ShardManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
 /**
  * /stats — Displays live Roblox game statistics.
  * <p>
  * Available to all users. The optional {@code admin:true} flag sends a non-ephemeral
- * embed that auto-refreshes every 2 minutes (staff only).
+ * embed that auto-refreshes every 2 minutes (staff only). Both show how the player count moved over the last
+ * 10 minutes, from a {@link StatsWindow} kept in memory per universe.
  * <p>
- * All live embeds share a single poll: one API fetch per cycle updates every tracked message.
+ * All live embeds share a single poll: one API fetch per universe per cycle updates every tracked
+ * message, each showing the universe of its guild (see {@link GuildConfig}).
+ * Only the cluster leader (see {@link LeaderElection}) polls. Polls run on wall-clock multiples of
+ * the interval, so every instance computes the same next-refresh countdown and a new leader picks
+ * up exactly where the previous one left off.
+ * <p>
+ * Each poll fans out per gateway shard: an embed is edited through the shard that owns its guild, and
+ * embeds on a shard that is reconnecting are left alone until the next cycle.
+ * <p>
+ * After every poll and on shutdown the last stats, the last render of each embed and the next poll time
+ * are saved to a {@link StatsSnapshot}. On the next start {@code /stats} answers from those stats while
+ * they are fresh, and the poll resumes on its cadence, or at once if a poll was missed or an embed was
+ * left in a loading or error state. The leader also stores when the next poll is due in {@code bot_state},
+ * so after a handover (e.g. a rolling deploy) the new leader runs a poll that came due in between at once.
  */
 public class StatsCommand implements CommandInterface {
 
     static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(2);
     /**
-     * All currently tracked live embeds: "channelId:messageId" → JDA instance.
+     * All currently tracked live embeds: "channelId:messageId" → ID of the shard that owns the channel's
+     * guild, or {@link #UNROUTED} until that shard has the channel cached.
      * A single shared poll task iterates this map each cycle.
      */
-    static final ConcurrentHashMap<String, JDA> TRACKED = new ConcurrentHashMap<>();
+    static final ConcurrentHashMap<String, Integer> TRACKED = new ConcurrentHashMap<>();
+    private static final int UNROUTED = -1;
     private static final Logger logger = LoggerFactory.getLogger(StatsCommand.class);
     private static final Object POLL_LOCK = new Object();
+    private static final long POLL_INTERVAL_MS = 120_000L;
+    /**
+     * A poll that fires up to this early still counts as the current slot, not the previous one.
+     */
+    private static final long POLL_SLACK_MS = 1_000L;
+    private static final String POLL_CURSOR_KEY = "stats_poll_next_at_ms";
     /**
-     * The single shared 2-minute poll task, started lazily when the first live embed is created.
+     * The next run of the shared 2-minute poll, started lazily when the first live embed is created.
+     * Each run schedules the next one.
      */
     private static volatile ScheduledFuture<?> pollTask = null;
+    private static volatile long nextPollAtMs;
+    /**
+     * Bumped when polling stops, so a run already in flight does not schedule a successor.
+     */
+    private static long pollGeneration;
+    /**
+     * Set on shutdown, before {@link #SCHEDULER} stops accepting tasks. Guarded by {@link #POLL_LOCK}.
+     */
+    private static boolean stopped;
+    private static volatile ShardManager shardManager;
+    /**
+     * Last successful stats per universe; {@code /stats} answers from them for one poll interval.
+     */
+    private static final Map<String, GameStats> LAST_STATS = new ConcurrentHashMap<>();
+    /**
+     * Recent player counts per universe, for the trend shown in stats embeds.
+     */
+    private static final Map<String, StatsWindow> TRENDS = new ConcurrentHashMap<>();
+    /**
+     * How far back the trend looks. Fetch times jitter by a few seconds, so the sample from one window ago
+     * is kept with some tolerance.
+     */
+    private static final long TREND_WINDOW_MS = 10 * 60_000L;
+    private static final long TREND_TOLERANCE_MS = 30_000L;
+    /**
+     * Enough for one window of polls plus {@code /stats} fetches in between.
+     */
+    private static final int TREND_CAPACITY = 16;
+    /**
+     * Last confirmed render of each tracked embed.
+     */
+    private static final Map<String, StatsSnapshot.EmbedState> RENDERED = new ConcurrentHashMap<>();
+    /**
+     * When the next poll was due according to the snapshot loaded at startup or the poll cursor read on
+     * election; consumed by the first schedule. Guarded by {@link #POLL_LOCK}.
+     */
+    private static long restoredNextPollAtMs;
+
+    /**
+     * An embed to show and the state it represents.
+     */
+    private record Frame(MessageEmbed embed, StatsSnapshot.RenderState state) {
+    }
 
     /**
      * Register an existing bot message as a live-updating embed.
@@ -49,18 +138,18 @@ public class StatsCommand implements CommandInterface {
      *
      * @param channelId The channel containing the message
      * @param messageId The message to track
-     * @param jda       The JDA instance used to reach Discord
+     * @param jda       The shard the message was seen on, i.e. the one that owns its guild
      */
     public static void addTracked(String channelId, String messageId, JDA jda) {
         String key = channelId + ":" + messageId;
 
         try {
-            LiveStatsRepository.add(channelId, messageId);
+            Repositories.liveStats().add(channelId, messageId);
         } catch (Exception e) {
             logger.error("Failed to persist live stats entry {}", key, e);
         }
 
-        TRACKED.put(key, jda);
+        TRACKED.put(key, jda.getShardInfo().getShardId());
         ensurePollRunning();
         logger.info("Tracking live stats embed {} ({} total)", key, TRACKED.size());
     }
@@ -77,166 +166,470 @@ public class StatsCommand implements CommandInterface {
     }
 
     /**
-     * Start the shared poll task if it isn't already running.
+     * Start the shared poll task if it isn't already running. Followers never poll, and nothing is
+     * scheduled once the scheduler is shutting down.
      */
     private static void ensurePollRunning() {
+        if (!LeaderElection.isLeader()) {
+            return;
+        }
         synchronized (POLL_LOCK) {
-            if (pollTask == null || pollTask.isCancelled() || pollTask.isDone()) {
-                pollTask = SCHEDULER.scheduleAtFixedRate(
-                        StatsCommand::runSharedPoll,
-                        2, 2, TimeUnit.MINUTES
-                );
+            if (stopped) {
+                return;
+            }
+            if (pollTask == null || pollTask.isDone()) {
+                schedulePoll(pollGeneration, firstPollAtMs(System.currentTimeMillis()));
                 logger.info("Started shared live stats poll task");
             }
         }
     }
 
     /**
-     * Fetch stats once, then push the update to every tracked live embed.
+     * Stop polling, e.g. because this instance lost leadership. Tracked embeds stay registered.
+     */
+    public static void stopLivePolls() {
+        synchronized (POLL_LOCK) {
+            pollGeneration++;
+            if (pollTask != null) {
+                pollTask.cancel(false);
+                pollTask = null;
+                logger.info("Stopped shared live stats poll task");
+            }
+        }
+    }
+
+    /**
+     * @return the epoch second of the next shared poll, for the countdown shown in live embeds
+     */
+    public static long nextPollEpochSecond() {
+        long now = System.currentTimeMillis();
+        long scheduled = nextPollAtMs;
+        ScheduledFuture<?> task = pollTask;
+        long at = task != null && !task.isDone() && scheduled > now ? scheduled : nextPollBoundaryMs(now);
+        return at / 1000;
+    }
+
+    private static long nextPollBoundaryMs(long afterMs) {
+        return (afterMs / POLL_INTERVAL_MS + 1) * POLL_INTERVAL_MS;
+    }
+
+    /**
+     * When a newly started poll should first run: the next boundary, or at once if the restored snapshot or
+     * poll cursor shows that a poll was missed while no instance was polling, or that an embed was last
+     * seen in a loading or error state. Must be called while holding {@link #POLL_LOCK}.
+     */
+    private static long firstPollAtMs(long now) {
+        long restored = restoredNextPollAtMs;
+        restoredNextPollAtMs = 0;
+        if (restored == 0) {
+            return nextPollBoundaryMs(now);
+        }
+        // Embeds another instance rendered are unknown here; the due time alone decides for them
+        boolean stale = restored <= now || TRACKED.keySet().stream().anyMatch(key -> {
+            StatsSnapshot.EmbedState rendered = RENDERED.get(key);
+            return rendered != null && rendered.state() != StatsSnapshot.RenderState.LIVE;
+        });
+        return stale ? now : nextPollBoundaryMs(now);
+    }
+
+    /**
+     * Schedule one poll at {@code atMs}; the run schedules its successor at the next boundary.
+     * Must be called while holding {@link #POLL_LOCK}.
+     */
+    private static void schedulePoll(long generation, long atMs) {
+        nextPollAtMs = atMs;
+        pollTask = SCHEDULER.schedule(() -> {
+            try {
+                runSharedPoll();
+            } catch (RuntimeException e) {
+                logger.error("Shared poll failed", e);
+            } finally {
+                long next = 0;
+                synchronized (POLL_LOCK) {
+                    if (generation == pollGeneration && LeaderElection.isLeader()) {
+                        schedulePoll(generation, nextPollBoundaryMs(System.currentTimeMillis() + POLL_SLACK_MS));
+                        next = nextPollAtMs;
+                    }
+                }
+                if (next != 0) {
+                    savePollCursor(next);
+                }
+                saveSnapshot();
+            }
+        }, Math.max(0, atMs - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fetch stats once per universe, then push the update to every tracked live embed.
      * Called every 2 minutes by the single shared poll task.
      * Before fetching, all tracked embeds are updated to a loading state so
      * users can see that a refresh is in progress.
      */
     private static void runSharedPoll() {
+        if (!LeaderElection.isLeader()) return;
         if (TRACKED.isEmpty()) return;
 
-        // Snapshot keys to avoid concurrent-modification issues during iteration
-        Set<String> snapshot = Set.copyOf(TRACKED.keySet());
-
-        // Show loading state on all tracked embeds while the API request is in-flight
-        for (String key : snapshot) {
-            String[] parts = key.split(":", 2);
-            String channelId = parts[0];
-            String messageId = parts[1];
-            JDA jda = TRACKED.get(key);
-            if (jda == null) continue;
-
-            MessageChannel channel = (MessageChannel) jda.getChannelById(MessageChannel.class, channelId);
-            if (channel == null) {
-                logger.info("Live stats message {} removed from poll list (channel no longer found)", key);
-                removeTracked(key, channelId, messageId);
-                continue;
-            }
+        // Show loading state on all tracked embeds while the API requests are in-flight
+        Frame loading = new Frame(EmbedManager.createLoadingStatsEmbed(), StatsSnapshot.RenderState.LOADING);
+        fanOut(universeId -> loading, false);
 
-            channel.editMessageEmbedsById(messageId, EmbedManager.createLoadingStatsEmbed())
-                    .queue(
-                            success -> logger.debug("Showed loading state for live stats embed {}", key),
-                            error -> logger.warn("Could not show loading state for embed {}: {}", key, error.getMessage())
-                    );
-        }
+        // Universes are fetched on first use, so one nobody displays is never fetched
+        long nextPoll = nextPollBoundaryMs(System.currentTimeMillis() + POLL_SLACK_MS) / 1000;
+        Map<String, Frame> frames = new HashMap<>();
+        fanOut(universeId -> frames.computeIfAbsent(universeId, id -> pollUniverse(id, nextPoll)), true);
+    }
 
+    /**
+     * Fetch and record one universe's stats.
+     *
+     * @return the live embed, or an error embed with a countdown to the next poll if the fetch failed
+     */
+    private static Frame pollUniverse(String universeId, long nextPoll) {
         GameStats stats;
         try {
-            stats = RobloxApiService.fetchStats();
+            stats = RobloxApiService.fetchStats(universeId);
         } catch (Exception e) {
-            logger.error("Shared poll: failed to fetch game stats", e);
-
-            // Show error embed with countdown to the next poll on all tracked embeds
-            long nextPoll = Instant.now().plusSeconds(120).getEpochSecond();
-            for (String key : Set.copyOf(TRACKED.keySet())) {
-                String[] errParts = key.split(":", 2);
-                String errChannelId = errParts[0];
-                String errMessageId = errParts[1];
-                JDA errJda = TRACKED.get(key);
-                if (errJda == null) continue;
-
-                MessageChannel errChannel = errJda.getChannelById(MessageChannel.class, errChannelId);
-                if (errChannel == null) {
-                    removeTracked(key, errChannelId, errMessageId);
+            logger.error("Shared poll: failed to fetch game stats for universe {}", universeId, e);
+            return new Frame(EmbedManager.createErrorStatsEmbed(nextPoll), StatsSnapshot.RenderState.ERROR);
+        }
+        remember(universeId, stats);
+        recordHistory(universeId, stats);
+        return new Frame(EmbedManager.createLiveStatsEmbed(stats, trendFor(universeId, stats), nextPoll),
+                StatsSnapshot.RenderState.LIVE);
+    }
+
+    /**
+     * Edit every tracked embed, grouped by the shard that owns it. Groups on shards that are not
+     * connected are skipped this cycle and stay tracked; a missing channel only untracks an embed
+     * once its shard is connected, since a reconnecting shard's cache is empty.
+     *
+     * @param frameForUniverse The embed to show, given the universe of the embed's guild
+     * @param untrackOnFailure Whether an embed whose edit fails is dropped (e.g. the message was deleted)
+     */
+    private static void fanOut(Function<String, Frame> frameForUniverse, boolean untrackOnFailure) {
+        ShardManager shards = shardManager;
+        boolean allConnected = Shards.allConnected(shards);
+
+        // Snapshot into per-shard groups to avoid concurrent-modification issues during iteration
+        Map<Integer, List<String>> byShard = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : Set.copyOf(TRACKED.entrySet())) {
+            String key = entry.getKey();
+            int shardId = entry.getValue();
+            if (shardId == UNROUTED) {
+                shardId = route(key.split(":", 2)[0]);
+                if (shardId == UNROUTED) {
+                    if (allConnected) {
+                        logger.info("Live stats message {} removed from poll list (channel no longer found)", key);
+                        removeTracked(key);
+                    }
                     continue;
                 }
-
-                errChannel.editMessageEmbedsById(errMessageId, EmbedManager.createErrorStatsEmbed(nextPoll))
-                        .queue(
-                                success -> logger.debug("Showed error state for live stats embed {}", key),
-                                err -> {
-                                    logger.info("Live stats message {} removed from poll list ({})", key, err.getMessage());
-                                    removeTracked(key, errChannelId, errMessageId);
-                                }
-                        );
+                TRACKED.replace(key, UNROUTED, shardId);
             }
-            return;
+            byShard.computeIfAbsent(shardId, id -> new ArrayList<>()).add(key);
         }
 
-        // Re-snapshot in case the map changed while the API call was in-flight
-        for (String key : Set.copyOf(TRACKED.keySet())) {
-            String[] parts = key.split(":", 2);
-            String channelId = parts[0];
-            String messageId = parts[1];
-            JDA jda = TRACKED.get(key);
-            if (jda == null) continue;
-
-            MessageChannel channel = (MessageChannel) jda.getChannelById(MessageChannel.class, channelId);
-            if (channel == null) {
-                logger.info("Live stats message {} removed from poll list (channel no longer found)", key);
-                removeTracked(key, channelId, messageId);
+        for (Map.Entry<Integer, List<String>> group : byShard.entrySet()) {
+            JDA shard = Shards.connected(shards, group.getKey());
+            if (shard == null) {
+                logger.debug("Shard {} is not connected; skipping {} live stats embed(s)",
+                        group.getKey(), group.getValue().size());
+                Metrics.add("stats.poll.deferred", group.getValue().size());
                 continue;
             }
-
-            channel.editMessageEmbedsById(messageId, EmbedManager.createLiveStatsEmbed(stats))
-                    .queue(
-                            success -> logger.debug("Updated live stats embed {}", key),
-                            error -> {
+            for (String key : group.getValue()) {
+                String[] parts = key.split(":", 2);
+                MessageChannel channel = shard.getChannelById(MessageChannel.class, parts[0]);
+                if (channel == null) {
+                    logger.info("Live stats message {} removed from poll list (channel no longer found)", key);
+                    removeTracked(key);
+                    continue;
+                }
+                long guildId = channel instanceof GuildChannel guildChannel ? guildChannel.getGuild().getIdLong() : 0L;
+                Frame frame = frameForUniverse.apply(GuildConfig.universeFor(guildId));
+                channel.editMessageEmbedsById(parts[1], frame.embed()).queue(
+                        success -> {
+                            RENDERED.put(key, new StatsSnapshot.EmbedState(frame.state(), System.currentTimeMillis()));
+                            logger.debug("Showed {} state for live stats embed {}", frame.state(), key);
+                        },
+                        error -> {
+                            if (untrackOnFailure) {
                                 logger.info("Live stats message {} removed from poll list ({})",
                                         key, error.getMessage());
-                                removeTracked(key, channelId, messageId);
+                                removeTracked(key);
+                            } else {
+                                logger.warn("Could not show {} state for embed {}: {}",
+                                        frame.state(), key, error.getMessage());
                             }
-                    );
+                        });
+            }
         }
     }
 
+    /**
+     * @return the shard that owns the channel's guild, or {@link #UNROUTED} if no connected shard has it
+     */
+    private static int route(String channelId) {
+        ShardManager shards = shardManager;
+        return shards == null ? UNROUTED : Shards.shardIdOfChannel(shards, channelId).orElse(UNROUTED);
+    }
+
     // -------------------------------------------------------------------------
     // Tracking & shared poll
     // -------------------------------------------------------------------------
 
-    private static void removeTracked(String key, String channelId, String messageId) {
+    /**
+     * Keep a universe's latest stats for {@link #freshStats} and add them to its trend window.
+     */
+    private static void remember(String universeId, GameStats stats) {
+        LAST_STATS.put(universeId, stats);
+        TRENDS.computeIfAbsent(universeId, id -> new StatsWindow(TREND_CAPACITY,
+                TREND_WINDOW_MS + TREND_TOLERANCE_MS)).add(stats);
+    }
+
+    /**
+     * @return the universe's player trend as of {@code stats}, or {@code null} if it has moved on since
+     */
+    private static StatsWindow.Trend trendFor(String universeId, GameStats stats) {
+        StatsWindow window = TRENDS.get(universeId);
+        StatsWindow.Trend trend = window != null ? window.trend() : null;
+        return trend != null && trend.atMs() == stats.retrievedAt.toEpochMilli() ? trend : null;
+    }
+
+    /**
+     * Append a sample to the stats history. Failures are logged and never affect the embeds.
+     */
+    private static void recordHistory(String universeId, GameStats stats) {
+        try {
+            Repositories.gameStatsHistory().add(universeId, stats);
+        } catch (Exception e) {
+            logger.warn("Failed to record game stats history: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Look up the 24-hour player peak from history, or empty if it cannot be read.
+     */
+    private static OptionalLong findPeakPlayers24h(String universeId, GameStats stats) {
+        try {
+            return Repositories.gameStatsHistory().findPeakPlayers(universeId,
+                    stats.retrievedAt.minus(Duration.ofHours(24)), stats.retrievedAt.plusSeconds(1));
+        } catch (Exception e) {
+            logger.warn("Failed to read game stats history: {}", e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Keep {@link #TRACKED} in step with {@code live_stats_embeds} as other instances (or manual edits)
+     * add and remove embeds. Changes arrive as deltas through the {@link ChangeFeed}; the table is only
+     * read in full when the feed (re)connects. Call once at startup on every instance.
+     *
+     * @param shardManager The shard manager used to reach Discord
+     */
+    public static void followStorageChanges(ShardManager shardManager) {
+        StatsCommand.shardManager = shardManager;
+        for (int i = 0; i < shardManager.getShardsTotal(); i++) {
+            int shardId = i;
+            Metrics.gauge("stats.tracked.shard." + shardId,
+                    () -> TRACKED.values().stream().filter(id -> id == shardId).count());
+        }
+        ChangeFeed.subscribe("live_stats_embeds", new ChangeFeed.Subscriber() {
+            @Override
+            public void resync() {
+                Set<String[]> entries;
+                try {
+                    entries = Repositories.liveStats().readAll();
+                } catch (Exception e) {
+                    logger.warn("Failed to reload live stats embeds from storage: {}", e.getMessage());
+                    return;
+                }
+                Set<String> stored = new HashSet<>();
+                for (String[] pair : entries) {
+                    stored.add(pair[0] + ":" + pair[1]);
+                }
+                TRACKED.keySet().retainAll(stored);
+                stored.forEach(StatsCommand::trackRemote);
+            }
+
+            @Override
+            public void apply(ChangeFeed.Change change) {
+                if (change.oldRow() != null) {
+                    untrackRemote(rowKey(change.oldRow()));
+                }
+                if (change.newRow() != null) {
+                    trackRemote(rowKey(change.newRow()));
+                }
+                if (change.op() == ChangeFeed.Op.TRUNCATE) {
+                    TRACKED.clear();
+                }
+            }
+        });
+    }
+
+    private static String rowKey(JsonObject row) {
+        return row.get("channel_id").getAsString() + ":" + row.get("message_id").getAsString();
+    }
+
+    private static void trackRemote(String key) {
+        if (TRACKED.putIfAbsent(key, route(key.split(":", 2)[0])) == null) {
+            logger.info("Tracking live stats embed {} added in storage", key);
+            ensurePollRunning();
+        }
+    }
+
+    private static void untrackRemote(String key) {
+        RENDERED.remove(key);
+        if (TRACKED.remove(key) != null) {
+            logger.info("Stopped tracking live stats embed {} removed from storage", key);
+        }
+    }
+
+    private static void removeTracked(String key) {
         TRACKED.remove(key);
+        RENDERED.remove(key);
+        String[] parts = key.split(":", 2);
         try {
-            LiveStatsRepository.remove(channelId, messageId);
+            Repositories.liveStats().remove(parts[0], parts[1]);
         } catch (Exception e) {
             logger.error("Failed to remove live stats entry {} from store", key, e);
         }
     }
 
+    /**
+     * Warm-start from the snapshot the previous run left behind. Call once at startup, before polls resume.
+     */
+    public static void loadSnapshot() {
+        Path path = Path.of(Config.getStatsSnapshotPath());
+        StatsSnapshot.read(path).ifPresent(contents -> {
+            contents.stats().forEach(StatsCommand::remember);
+            RENDERED.putAll(contents.embeds());
+            synchronized (POLL_LOCK) {
+                restoredNextPollAtMs = contents.nextPollAtMs();
+            }
+            logger.info("Loaded stats snapshot {}: {} universe(s), {} embed(s)",
+                    path, contents.stats().size(), contents.embeds().size());
+        });
+    }
+
+    /**
+     * Stop polling for shutdown and wait for a poll that is already running (and any {@code /stats} request
+     * still being answered) to finish. The poll cursor keeps the time of the poll that was cancelled, so the
+     * next leader runs it on time, or at once if it is already due.
+     *
+     * @param timeoutMs How long to wait for running work
+     */
+    public static void stopForShutdown(long timeoutMs) {
+        synchronized (POLL_LOCK) {
+            // Embeds added by other instances keep arriving until the change feed stops
+            stopped = true;
+            stopLivePolls();
+        }
+        SCHEDULER.shutdown();
+        try {
+            if (!SCHEDULER.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Live stats poll did not finish within {} ms", timeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Store when the next shared poll is due, so whichever instance leads next knows whether a poll was
+     * missed during the handover.
+     */
+    private static void savePollCursor(long nextPollAtMs) {
+        try {
+            Repositories.botState().put(POLL_CURSOR_KEY, Long.toString(nextPollAtMs));
+        } catch (Exception e) {
+            logger.warn("Failed to store live stats poll cursor: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return when the next shared poll was due according to the last leader, or {@code 0} if unknown
+     */
+    private static long readPollCursor() {
+        try {
+            String value = Repositories.botState().get(POLL_CURSOR_KEY);
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (Exception e) {
+            logger.warn("Failed to read live stats poll cursor: {}", e.getMessage());
+            return 0L;
+        }
+    }
+
+    /**
+     * Save the last stats, the last render of each tracked embed and the next poll time for a warm start.
+     * Called after every poll and on shutdown.
+     */
+    public static synchronized void saveSnapshot() {
+        Map<String, StatsSnapshot.EmbedState> embeds = new HashMap<>();
+        for (String key : TRACKED.keySet()) {
+            StatsSnapshot.EmbedState rendered = RENDERED.get(key);
+            if (rendered != null) {
+                embeds.put(key, rendered);
+            }
+        }
+        // If this process never scheduled a poll (e.g. stopped during startup), keep the restored due time
+        long nextPoll;
+        synchronized (POLL_LOCK) {
+            nextPoll = nextPollAtMs != 0 ? nextPollAtMs : restoredNextPollAtMs;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            StatsSnapshot.write(Path.of(Config.getStatsSnapshotPath()),
+                    new StatsSnapshot.Contents(nextPoll, Map.copyOf(LAST_STATS), embeds));
+            Metrics.recordNanos("stats.snapshot.write", System.nanoTime() - startNanos);
+        } catch (IOException e) {
+            logger.warn("Failed to write stats snapshot: {}", e.getMessage());
+        }
+    }
+
     /**
      * Resume any live polls persisted in {@code live_stats.txt}.
      * Call this once after the bot is ready.
+     *
+     * @param shardManager The shard manager used to reach Discord
      */
-    public static void resumeLivePolls(JDA jda) {
+    public static void resumeLivePolls(ShardManager shardManager) {
         Set<String[]> entries;
         try {
-            entries = LiveStatsRepository.readAll();
+            entries = Repositories.liveStats().readAll();
         } catch (Exception e) {
             logger.error("Failed to read live stats embeds from database on startup", e);
             return;
         }
 
+        // Only trust a missing channel once every shard's cache is loaded
+        boolean allConnected = Shards.allConnected(shardManager);
         for (String[] pair : entries) {
             String channelId = pair[0];
             String messageId = pair[1];
             String key = channelId + ":" + messageId;
 
-            MessageChannel channel;
-            try {
-                channel = (MessageChannel) jda.getChannelById(MessageChannel.class, channelId);
-            } catch (Exception e) {
-                channel = null;
-            }
-
-            if (channel == null) {
+            int shardId = Shards.shardIdOfChannel(shardManager, channelId).orElse(UNROUTED);
+            if (shardId == UNROUTED && allConnected) {
                 logger.warn("Live stats channel {} not found on resume; removing entry", channelId);
                 try {
-                    LiveStatsRepository.remove(channelId, messageId);
+                    Repositories.liveStats().remove(channelId, messageId);
                 } catch (Exception ex) {
                     logger.error("Failed to remove stale entry {}", key, ex);
                 }
                 continue;
             }
 
-            TRACKED.put(key, jda);
+            TRACKED.put(key, shardId);
             logger.info("Resumed tracking live stats embed {}", key);
         }
 
+        // A poll the previous leader had scheduled may have come due during the handover
+        long cursor = readPollCursor();
+        synchronized (POLL_LOCK) {
+            restoredNextPollAtMs = Math.max(restoredNextPollAtMs, cursor);
+        }
+
         if (!TRACKED.isEmpty()) {
             ensurePollRunning();
             logger.info("Resumed shared poll for {} live embed(s)", TRACKED.size());
@@ -274,14 +667,23 @@ public class StatsCommand implements CommandInterface {
 
         event.deferReply(!admin).queue();
 
-        SCHEDULER.submit(() -> {
+        String universeId = GuildConfig.universeFor(event.getGuild() != null ? event.getGuild().getIdLong() : 0L);
+        Lifecycle.hold(event, CompletableFuture.runAsync(() -> {
             try {
-                GameStats stats = RobloxApiService.fetchStats();
+                GameStats stats = freshStats(universeId);
+                if (stats == null) {
+                    stats = RobloxApiService.fetchStats(universeId);
+                    remember(universeId, stats);
+                    recordHistory(universeId, stats);
+                }
+                StatsWindow.Trend trend = trendFor(universeId, stats);
                 if (admin) {
-                    event.getHook().editOriginalEmbeds(EmbedManager.createLiveStatsEmbed(stats))
+                    event.getHook().editOriginalEmbeds(
+                                    EmbedManager.createLiveStatsEmbed(stats, trend, nextPollEpochSecond()))
                             .queue(this::trackLiveMessage);
                 } else {
-                    event.getHook().editOriginalEmbeds(EmbedManager.createStatsEmbed(stats)).queue();
+                    event.getHook().editOriginalEmbeds(EmbedManager.createStatsEmbed(stats, trend,
+                            findPeakPlayers24h(universeId, stats))).queue();
                 }
             } catch (Exception e) {
                 logger.error("Failed to fetch game stats", e);
@@ -290,7 +692,15 @@ public class StatsCommand implements CommandInterface {
                                 "Could not retrieve game stats. Please try again later.")
                 ).queue();
             }
-        });
+        }, SCHEDULER));
+    }
+
+    /**
+     * @return the universe's last stats if they are at most one poll interval old, otherwise {@code null}
+     */
+    private static GameStats freshStats(String universeId) {
+        GameStats stats = LAST_STATS.get(universeId);
+        return stats != null && stats.retrievedAt.isAfter(Instant.now().minusMillis(POLL_INTERVAL_MS)) ? stats : null;
     }
 
     private void trackLiveMessage(Message message) {
@@ -0,0 +1,57 @@
+package dev.wand.stacker.commands.tester;
+
+import dev.wand.stacker.cluster.Lifecycle;
+import dev.wand.stacker.commands.CommandInterface;
+import dev.wand.stacker.embeds.EmbedManager;
+import dev.wand.stacker.jobs.PendingTesterReconciliationJob;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Command to grant tester roles to every pending tester who is already in the server.
+ * <p>
+ * Usage: /reconcile-testers
+ * <p>
+ * Runs {@link PendingTesterReconciliationJob} (or joins the run already in progress) and replies with
+ * how many pending users were reconciled and how long it took.
+ * <p>
+ * Requirements:
+ * - User must have the required role (checked by CommandManager)
+ * - Bot must have permission to manage roles
+ */
+public class ReconcileTestersCommand implements CommandInterface {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconcileTestersCommand.class);
+
+    @Override
+    public String getName() {
+        return "reconcile-testers";
+    }
+
+    @Override
+    public CommandData getCommandData() {
+        return Commands.slash("reconcile-testers", "Grant tester roles to pending testers who are already in the server");
+    }
+
+    @Override
+    public void execute(SlashCommandInteractionEvent event) {
+        // Defer the reply since reconciliation can take a while on a long pending list
+        event.deferReply().queue();
+
+        Lifecycle.hold(event, PendingTesterReconciliationJob.runAsync(event.getJDA().getShardManager())
+                .thenAccept(result -> event.getHook().editOriginalEmbeds(
+                        EmbedManager.createTesterReconcileEmbed(result)
+                ).queue())
+                .exceptionally(error -> {
+                    logger.error("Pending tester reconciliation failed", error);
+                    event.getHook().editOriginalEmbeds(EmbedManager.createError(
+                            "Error",
+                            "Failed to reconcile pending testers. Please check the logs."
+                    )).queue();
+                    return null;
+                }));
+    }
+}
@@ -1,37 +1,66 @@
 package dev.wand.stacker.commands.tester;
 
+import dev.wand.stacker.cluster.Lifecycle;
 import dev.wand.stacker.commands.CommandInterface;
-import dev.wand.stacker.config.Config;
 import dev.wand.stacker.embeds.EmbedManager;
-import dev.wand.stacker.repository.PendingTesterRepository;
+import dev.wand.stacker.services.TesterRoleService;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
- * Command to assign tester roles to a user.
+ * Command to assign tester roles to one user or a whole wave of users.
+ * <p>
+ * Usage: /tester [user] [users] [role] [csv]
  * <p>
- * Usage: /tester <user>
+ * This command assigns both tester roles (ROLE_TESTER_1 and ROLE_TESTER_2) to:
+ * - user: a single user
+ * - users: any number of mentions or user IDs, separated by spaces or commas
+ * - role: every member who has the given role
+ * - csv: every user ID found in an attached CSV or text file
  * <p>
- * This command assigns both tester roles (ROLE_TESTER_1 and ROLE_TESTER_2)
- * to the specified user.
+ * Options can be combined. Members are resolved in bulk and receive both roles in one update each;
+ * users not in the server are added to the pending list and receive the roles when they join
+ * (see {@link TesterRoleService}). Bulk progress is shown in a single, periodically edited embed.
  * <p>
  * Requirements:
  * - User must have the required role (checked by CommandManager)
- * - Target user must be a member of the guild
  * - Bot must have permission to manage roles
  */
 public class TesterCommand implements CommandInterface {
 
     private static final Logger logger = LoggerFactory.getLogger(TesterCommand.class);
 
+    /**
+     * Whole digit runs of snowflake length; runs that do not fit in a {@code long} are reported as invalid.
+     */
+    private static final Pattern SNOWFLAKE = Pattern.compile("(?<!\\d)\\d{17,20}(?!\\d)");
+    private static final int MAX_CSV_BYTES = 1024 * 1024;
+    private static final long PROGRESS_EDIT_INTERVAL_MS = 2000;
+
     @Override
     public String getName() {
         return "tester";
@@ -39,8 +68,11 @@ public class TesterCommand implements CommandInterface {
 
     @Override
     public CommandData getCommandData() {
-        return Commands.slash("tester", "Assign tester roles to a user")
-                .addOption(OptionType.USER, "user", "The user to assign tester roles to", true);
+        return Commands.slash("tester", "Assign tester roles to one or more users")
+                .addOption(OptionType.USER, "user", "The user to assign tester roles to", false)
+                .addOption(OptionType.STRING, "users", "Mentions or user IDs, separated by spaces or commas", false)
+                .addOption(OptionType.ROLE, "role", "Assign tester roles to every member with this role", false)
+                .addOption(OptionType.ATTACHMENT, "csv", "A CSV or text file containing user IDs", false);
     }
 
     @Override
@@ -48,7 +80,6 @@ public class TesterCommand implements CommandInterface {
         // Defer the reply since role assignment might take a moment
         event.deferReply().queue();
 
-        User targetUser = event.getOption("user").getAsUser();
         Guild guild = event.getGuild();
 
         if (guild == null) {
@@ -59,67 +90,161 @@ public class TesterCommand implements CommandInterface {
             return;
         }
 
-        // Get the member object for the target user
-        guild.retrieveMember(targetUser).queue(
-                targetMember -> assignTesterRoles(event, guild, targetMember),
-                error -> {
-                    logger.info("User {} not in server; adding to pending tester list", targetUser.getName());
-                    try {
-                        PendingTesterRepository.add(targetUser.getId());
-                    } catch (java.sql.SQLException e) {
-                        logger.error("Failed to add {} to pending tester list", targetUser.getId(), e);
-                    }
-                    event.getHook().editOriginalEmbeds(
-                            EmbedManager.createTesterPendingEmbed(targetUser.getName())
-                    ).queue();
-                }
-        );
-    }
+        if (TesterRoleService.testerRoles(guild).isEmpty()) {
+            event.getHook().editOriginalEmbeds(EmbedManager.createError(
+                    "Error",
+                    "Tester roles are not configured properly in this server."
+            )).queue();
+            return;
+        }
 
-    /**
-     * Assign both tester roles to the target member.
-     *
-     * @param event        The command event
-     * @param guild        The guild where the command was executed
-     * @param targetMember The member to assign roles to
-     */
-    private void assignTesterRoles(SlashCommandInteractionEvent event, Guild guild, Member targetMember) {
-        Role role1 = guild.getRoleById(Config.ROLE_TESTER_1);
-        Role role2 = guild.getRoleById(Config.ROLE_TESTER_2);
+        OptionMapping userOption = event.getOption("user");
+        OptionMapping usersOption = event.getOption("users");
+        OptionMapping roleOption = event.getOption("role");
+        OptionMapping csvOption = event.getOption("csv");
 
-        if (role1 == null || role2 == null) {
-            logger.error("Tester roles not found in guild: {}", guild.getName());
+        if (userOption == null && usersOption == null && roleOption == null && csvOption == null) {
             event.getHook().editOriginalEmbeds(EmbedManager.createError(
                     "Error",
-                    "Tester roles are not configured properly in this server."
+                    "Provide a user, a list of users, a role or a CSV file."
             )).queue();
             return;
         }
 
-        // Add both roles
-        guild.addRoleToMember(targetMember, role1).queue(
-                success1 -> guild.addRoleToMember(targetMember, role2).queue(
-                        success2 -> {
-                            logger.info("Successfully assigned tester roles to: {}", targetMember.getUser().getName());
-                            event.getHook().editOriginalEmbeds(
-                                    EmbedManager.createTesterRolesAssignedEmbed(targetMember.getUser().getName())
-                            ).queue();
-                        },
-                        error2 -> {
-                            logger.error("Failed to assign second tester role", error2);
-                            event.getHook().editOriginalEmbeds(EmbedManager.createError(
-                                    "Error",
-                                    "Failed to assign all tester roles. Please check bot permissions."
-                            )).queue();
-                        }
-                ),
-                error1 -> {
-                    logger.error("Failed to assign first tester role", error1);
+        if (userOption != null && usersOption == null && roleOption == null && csvOption == null) {
+            assignSingle(event, guild, userOption.getAsUser());
+            return;
+        }
+
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<String> invalidIds = ConcurrentHashMap.newKeySet();
+        if (userOption != null) {
+            userIds.add(userOption.getAsUser().getIdLong());
+        }
+        if (usersOption != null) {
+            userIds.addAll(extractIds(usersOption.getAsString(), invalidIds));
+        }
+
+        CompletableFuture<Set<Long>> csvIds = csvOption == null
+                ? CompletableFuture.completedFuture(Set.of())
+                : readCsv(csvOption.getAsAttachment(), invalidIds);
+        CompletableFuture<List<Member>> roleMembers = roleOption == null
+                ? CompletableFuture.completedFuture(List.of())
+                : findMembersWithRole(guild, roleOption.getAsRole());
+
+        Lifecycle.hold(event, csvIds.thenCombine(roleMembers, (fromCsv, withRole) -> {
+                    userIds.addAll(fromCsv);
+                    withRole.forEach(member -> userIds.remove(member.getIdLong()));
+                    return withRole;
+                })
+                .thenCompose(withRole -> assignBulk(event, guild, withRole, userIds, invalidIds.size()))
+                .exceptionally(error -> {
+                    logger.error("Bulk tester assignment failed", error);
+                    event.getHook().editOriginalEmbeds(EmbedManager.createError(
+                            "Error",
+                            "Failed to assign tester roles. Please check the input and bot permissions."
+                    )).queue();
+                    return null;
+                }));
+    }
+
+    /**
+     * Assign both tester roles to a single user, or queue them if they are not in the server.
+     */
+    private void assignSingle(SlashCommandInteractionEvent event, Guild guild, User targetUser) {
+        Lifecycle.hold(event, TesterRoleService.grantAll(guild, List.of(targetUser.getIdLong()), progress -> { })
+                .thenAccept(result -> {
+                    if (result.failed() > 0) {
+                        event.getHook().editOriginalEmbeds(EmbedManager.createError(
+                                "Error",
+                                "Failed to assign tester roles. Please check bot permissions."
+                        )).queue();
+                    } else if (result.pending() > 0) {
+                        logger.info("User {} not in server; added to pending tester list", targetUser.getName());
+                        event.getHook().editOriginalEmbeds(
+                                EmbedManager.createTesterPendingEmbed(targetUser.getName())
+                        ).queue();
+                    } else {
+                        logger.info("Successfully assigned tester roles to: {}", targetUser.getName());
+                        event.getHook().editOriginalEmbeds(
+                                EmbedManager.createTesterRolesAssignedEmbed(targetUser.getName())
+                        ).queue();
+                    }
+                })
+                .exceptionally(error -> {
+                    logger.error("Failed to assign tester roles to {}", targetUser.getId(), error);
                     event.getHook().editOriginalEmbeds(EmbedManager.createError(
                             "Error",
                             "Failed to assign tester roles. Please check bot permissions."
                     )).queue();
-                }
-        );
+                    return null;
+                }));
+    }
+
+    /**
+     * Assign tester roles to resolved role members plus any number of user IDs, editing one progress embed.
+     */
+    private CompletableFuture<Void> assignBulk(SlashCommandInteractionEvent event, Guild guild,
+                                               List<Member> roleMembers, Set<Long> userIds, int invalidIds) {
+        AtomicLong lastEditMs = new AtomicLong();
+        return TesterRoleService.retrieveMembers(guild, userIds)
+                .thenCompose(resolved -> {
+                    List<Member> members = new ArrayList<>(roleMembers);
+                    members.addAll(resolved);
+                    Set<Long> absent = new LinkedHashSet<>(userIds);
+                    resolved.forEach(member -> absent.remove(member.getIdLong()));
+
+                    return TesterRoleService.grantAllMembers(guild, members, absent, progress -> {
+                        long now = System.currentTimeMillis();
+                        long last = lastEditMs.get();
+                        // Throttle edits; the final result is always shown below
+                        if (now - last >= PROGRESS_EDIT_INTERVAL_MS && lastEditMs.compareAndSet(last, now)) {
+                            event.getHook().editOriginalEmbeds(
+                                    EmbedManager.createTesterBulkEmbed(progress, invalidIds)).queue();
+                        }
+                    });
+                })
+                .thenAccept(result -> event.getHook().editOriginalEmbeds(
+                        EmbedManager.createTesterBulkEmbed(result, invalidIds)).queue());
+    }
+
+    private CompletableFuture<List<Member>> findMembersWithRole(Guild guild, Role role) {
+        CompletableFuture<List<Member>> future = new CompletableFuture<>();
+        guild.findMembersWithRoles(role)
+                .onSuccess(future::complete)
+                .onError(future::completeExceptionally);
+        return future;
+    }
+
+    private CompletableFuture<Set<Long>> readCsv(Message.Attachment attachment, Set<String> invalidIds) {
+        if (attachment.getSize() > MAX_CSV_BYTES) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "CSV attachment is larger than " + MAX_CSV_BYTES + " bytes"));
+        }
+        return attachment.getProxy().download().thenApply(stream -> {
+            try (InputStream in = stream) {
+                return extractIds(new String(in.readNBytes(MAX_CSV_BYTES), StandardCharsets.UTF_8), invalidIds);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Pull every snowflake out of free text; handles plain IDs, mentions and CSV cells alike.
+     *
+     * @param invalidIds Collects ID-like values that do not fit in a {@code long}, so they can be reported
+     */
+    static Set<Long> extractIds(String text, Set<String> invalidIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Matcher matcher = SNOWFLAKE.matcher(text);
+        while (matcher.find()) {
+            try {
+                ids.add(Long.parseLong(matcher.group()));
+            } catch (NumberFormatException e) {
+                invalidIds.add(matcher.group());
+            }
+        }
+        return ids;
     }
 }
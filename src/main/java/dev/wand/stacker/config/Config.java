@@ -1,40 +1,103 @@
 package dev.wand.stacker.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 /**
  * Central configuration class containing all Discord IDs used by the bot.
- * This class stores tag IDs, channel IDs, and role IDs as constants.
+ * <p>
+ * Tag, channel, guild, role and universe IDs ({@link ConfigKey}) live in an immutable
+ * {@link ConfigSnapshot} that {@link ConfigWatcher} replaces whenever the config file changes;
+ * {@link #get(ConfigKey)} is a single volatile read. Components that cache anything derived from a key
+ * {@link #subscribe} to it. Everything else is read from environment variables at startup.
  */
 public class Config {
 
-    // Tag IDs for forum posts
-    public static final String TAG_FIXED = "1473409315749498960";
-    public static final String TAG_IN_PROGRESS = "1473409358732722459";
-    public static final String TAG_PENDING = "1473409882085396622";
-    public static final String TAG_BUG = "1473409378974564535";
-    public static final String TAG_RESOLVED = "1473827786471768307";
-    public static final String TAG_FEATURE = "1473409710819639297";
-    public static final String TAG_FEEDBACK = "1473409393151180901";
-    public static final String TAG_DUPLICATE = "1474731042610090074";
-    public static final String TAG_INVESTIGATING = "1474727573991981219";
-
-    // Channel IDs
-    public static final String CHANNEL_TESTER_LOG_FORUM = "1473013973334102251";
+    private static final Logger logger = LoggerFactory.getLogger(Config.class);
 
-    // Guild ID
-    public static final String DEV_GUILD_ID = "1473013379902996542";
-    public static final String MAIN_GUILD_ID = "1481061623568273622";
+    private static final List<Subscription> SUBSCRIPTIONS = new CopyOnWriteArrayList<>();
 
-    // Role IDs
-    public static final String ROLE_TESTER_1 = "1473013562371997879";
-    public static final String ROLE_TESTER_2 = "1473013593405653115";
+    private static volatile ConfigSnapshot snapshot = ConfigSnapshot.defaults();
 
-    // Roblox game universe ID
-    public static final String ROBLOX_UNIVERSE_ID = "9460688566";
+    private record Subscription(Set<ConfigKey> keys, Consumer<ConfigSnapshot> listener) {
+    }
 
     private Config() {
         // Utility class, prevent instantiation
     }
 
+    // -------------------------------------------------------------------------
+    // Reloadable IDs
+    // -------------------------------------------------------------------------
+
+    /**
+     * Read a reloadable setting from the current snapshot.
+     *
+     * @param key The key
+     * @return The current value
+     */
+    public static String get(ConfigKey key) {
+        return snapshot.get(key);
+    }
+
+    /**
+     * @return the current snapshot, for reading several keys consistently
+     */
+    public static ConfigSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Call a listener with the new snapshot whenever one of the given keys changes.
+     * Listeners run on the config watcher thread, after the new snapshot is visible to {@link #get}.
+     *
+     * @param keys     The keys the listener depends on
+     * @param listener The listener
+     */
+    public static void subscribe(Set<ConfigKey> keys, Consumer<ConfigSnapshot> listener) {
+        SUBSCRIPTIONS.add(new Subscription(Set.copyOf(keys), listener));
+    }
+
+    /**
+     * Swap in a new snapshot and notify the subscribers of the keys that changed.
+     *
+     * @param next The new snapshot
+     * @return the keys that changed
+     */
+    static Set<ConfigKey> publish(ConfigSnapshot next) {
+        ConfigSnapshot previous = snapshot;
+        Set<ConfigKey> changed = next.changedFrom(previous);
+        snapshot = next;
+        if (changed.isEmpty()) {
+            return changed;
+        }
+        for (Subscription subscription : SUBSCRIPTIONS) {
+            if (subscription.keys().stream().noneMatch(changed::contains)) {
+                continue;
+            }
+            try {
+                subscription.listener().accept(next);
+            } catch (RuntimeException e) {
+                logger.error("Config subscriber for {} failed", subscription.keys(), e);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Properties file holding reloadable IDs. Read from {@code CONFIG_FILE}
+     * (default: {@code config/stacker.properties}). A missing file means every key keeps its default.
+     */
+    public static String getConfigFile() {
+        return getEnvOrDefault("CONFIG_FILE", "config/stacker.properties");
+    }
+
     // -------------------------------------------------------------------------
     // Database configuration (set via environment variables)
     // -------------------------------------------------------------------------
@@ -48,6 +111,29 @@ public class Config {
         return token;
     }
 
+    /**
+     * Storage backend for repositories: {@code postgres} or {@code embedded}.
+     * Read from {@code STORAGE_BACKEND} (default: {@code postgres}).
+     */
+    public static String getStorageBackend() {
+        return getEnvOrDefault("STORAGE_BACKEND", "postgres").toLowerCase();
+    }
+
+    /**
+     * Log file used by the embedded storage backend. Read from {@code STORAGE_PATH} (default: {@code data/stacker.log}).
+     */
+    public static String getStoragePath() {
+        return getEnvOrDefault("STORAGE_PATH", "data/stacker.log");
+    }
+
+    /**
+     * Warm-start snapshot of the live stats poll. Read from {@code STATS_SNAPSHOT_PATH}
+     * (default: {@code data/stats.snapshot}).
+     */
+    public static String getStatsSnapshotPath() {
+        return getEnvOrDefault("STATS_SNAPSHOT_PATH", "data/stats.snapshot");
+    }
+
     /**
      * JDBC connection URL for the PostgreSQL database.
      * Constructed from DB_HOST (default: localhost), DB_PORT (default: 5432),
@@ -67,6 +153,241 @@ public class Config {
         return getRequiredEnv("DB_USER");
     }
 
+    /**
+     * Maximum number of pooled connections. Read from {@code DB_POOL_MAX_SIZE} (default: 5).
+     */
+    public static int getDbPoolMaxSize() {
+        return getIntEnvOrDefault("DB_POOL_MAX_SIZE", 5);
+    }
+
+    /**
+     * Minimum number of idle pooled connections. Read from {@code DB_POOL_MIN_IDLE} (default: 1).
+     */
+    public static int getDbPoolMinIdle() {
+        return getIntEnvOrDefault("DB_POOL_MIN_IDLE", 1);
+    }
+
+    /**
+     * Maximum wait for a pooled connection, in ms. Read from {@code DB_CONNECTION_TIMEOUT_MS} (default: 10000).
+     */
+    public static long getDbConnectionTimeoutMs() {
+        return getIntEnvOrDefault("DB_CONNECTION_TIMEOUT_MS", 10_000);
+    }
+
+    /**
+     * Idle time before a surplus connection is retired, in ms. Read from {@code DB_IDLE_TIMEOUT_MS} (default: 300000).
+     */
+    public static long getDbIdleTimeoutMs() {
+        return getIntEnvOrDefault("DB_IDLE_TIMEOUT_MS", 300_000);
+    }
+
+    /**
+     * Maximum lifetime of a pooled connection, in ms. Read from {@code DB_MAX_LIFETIME_MS} (default: 600000).
+     */
+    public static long getDbMaxLifetimeMs() {
+        return getIntEnvOrDefault("DB_MAX_LIFETIME_MS", 600_000);
+    }
+
+    /**
+     * Number of executions before pgjdbc switches a statement to a server-side prepared statement.
+     * Read from {@code DB_PREPARE_THRESHOLD} (default: 1, i.e. prepare on first use).
+     */
+    public static int getDbPrepareThreshold() {
+        return getIntEnvOrDefault("DB_PREPARE_THRESHOLD", 1);
+    }
+
+    /**
+     * Number of prepared statements pgjdbc caches per connection.
+     * Read from {@code DB_PREPARED_STATEMENT_CACHE_QUERIES} (default: 256).
+     */
+    public static int getDbPreparedStatementCacheQueries() {
+        return getIntEnvOrDefault("DB_PREPARED_STATEMENT_CACHE_QUERIES", 256);
+    }
+
+    /**
+     * Whole months of game stats history to keep. Read from {@code STATS_HISTORY_RETENTION_MONTHS} (default: 6).
+     */
+    public static int getStatsHistoryRetentionMonths() {
+        return getIntEnvOrDefault("STATS_HISTORY_RETENTION_MONTHS", 6);
+    }
+
+    /**
+     * Monthly history partitions to create ahead of the current month.
+     * Read from {@code STATS_HISTORY_PARTITIONS_AHEAD} (default: 2).
+     */
+    public static int getStatsHistoryPartitionsAhead() {
+        return getIntEnvOrDefault("STATS_HISTORY_PARTITIONS_AHEAD", 2);
+    }
+
+    /**
+     * Whether expired history partitions are only detached (kept as standalone tables) instead of dropped.
+     * Read from {@code STATS_HISTORY_DETACH_ONLY} (default: false).
+     */
+    public static boolean isStatsHistoryDetachOnly() {
+        return Boolean.parseBoolean(getEnvOrDefault("STATS_HISTORY_DETACH_ONLY", "false"));
+    }
+
+    /**
+     * Minutes between metrics summaries in the log. Read from {@code METRICS_LOG_INTERVAL_MINUTES}
+     * (default: 15, {@code 0} disables the summary).
+     */
+    public static int getMetricsLogIntervalMinutes() {
+        return getIntEnvOrDefault("METRICS_LOG_INTERVAL_MINUTES", 15);
+    }
+
+    /**
+     * Minimum estimated similarity, in percent, for a thread to be suggested as a possible duplicate.
+     * Read from {@code DUPLICATE_MIN_SIMILARITY_PERCENT} (default: 40).
+     */
+    public static int getDuplicateMinSimilarityPercent() {
+        return getIntEnvOrDefault("DUPLICATE_MIN_SIMILARITY_PERCENT", 40);
+    }
+
+    /**
+     * How far back the first forum reconciliation looks for untagged threads, in hours.
+     * Later runs continue from the stored high-water mark.
+     * Read from {@code FORUM_RECONCILE_INITIAL_LOOKBACK_HOURS} (default: 24).
+     */
+    public static int getForumReconcileInitialLookbackHours() {
+        return getIntEnvOrDefault("FORUM_RECONCILE_INITIAL_LOOKBACK_HOURS", 24);
+    }
+
+    /**
+     * Hours between stale-thread sweeps. Read from {@code SWEEP_INTERVAL_HOURS} (default: 24, {@code 0} disables).
+     */
+    public static int getSweepIntervalHours() {
+        return getIntEnvOrDefault("SWEEP_INTERVAL_HOURS", 24);
+    }
+
+    /**
+     * Days without a status change or new message after which an open Pending thread is archived.
+     * Read from {@code SWEEP_PENDING_DAYS} (default: 60, {@code 0} never archives).
+     */
+    public static int getSweepPendingDays() {
+        return getIntEnvOrDefault("SWEEP_PENDING_DAYS", 60);
+    }
+
+    /**
+     * Days without a status change or new message after which an open Investigating thread is archived.
+     * Read from {@code SWEEP_INVESTIGATING_DAYS} (default: 90, {@code 0} never archives).
+     */
+    public static int getSweepInvestigatingDays() {
+        return getIntEnvOrDefault("SWEEP_INVESTIGATING_DAYS", 90);
+    }
+
+    /**
+     * Days without a status change or new message after which an open In Progress thread is archived.
+     * Read from {@code SWEEP_IN_PROGRESS_DAYS} (default: 0, i.e. never).
+     */
+    public static int getSweepInProgressDays() {
+        return getIntEnvOrDefault("SWEEP_IN_PROGRESS_DAYS", 0);
+    }
+
+    /**
+     * Days without a status change or new message after which a Fixed, Resolved or Duplicate thread that is
+     * still open is archived.
+     * Read from {@code SWEEP_CLOSED_STATUS_DAYS} (default: 2, {@code 0} never archives).
+     */
+    public static int getSweepClosedStatusDays() {
+        return getIntEnvOrDefault("SWEEP_CLOSED_STATUS_DAYS", 2);
+    }
+
+    /**
+     * Maximum number of threads archived per sweep. Read from {@code SWEEP_MAX_PER_RUN} (default: 200).
+     */
+    public static int getSweepMaxPerRun() {
+        return getIntEnvOrDefault("SWEEP_MAX_PER_RUN", 200);
+    }
+
+    /**
+     * Channel that receives the summary of each sweep. Read from {@code SWEEP_SUMMARY_CHANNEL_ID}
+     * (optional; when unset the summary is only logged).
+     */
+    public static String getSweepSummaryChannelId() {
+        return getEnvOrDefault("SWEEP_SUMMARY_CHANNEL_ID", "");
+    }
+
+    /**
+     * Number of outbox worker threads in this process. Read from {@code OUTBOX_WORKERS} (default: 2).
+     * Workers in every running instance share the queue, so throughput also scales with instances.
+     */
+    public static int getOutboxWorkers() {
+        return getIntEnvOrDefault("OUTBOX_WORKERS", 2);
+    }
+
+    /**
+     * Attempts after which an outbox job is marked failed. Read from {@code OUTBOX_MAX_ATTEMPTS} (default: 10).
+     */
+    public static int getOutboxMaxAttempts() {
+        return getIntEnvOrDefault("OUTBOX_MAX_ATTEMPTS", 10);
+    }
+
+    /**
+     * How often the leader renews its lease and followers try to take over, in milliseconds.
+     * Read from {@code LEADER_CHECK_INTERVAL_MS} (default: 2000). Failover takes at most about two intervals
+     * after the leader's database session ends.
+     */
+    public static int getLeaderCheckIntervalMs() {
+        return getIntEnvOrDefault("LEADER_CHECK_INTERVAL_MS", 2000);
+    }
+
+    /**
+     * How long a shutdown may wait in total for in-flight interactions, the live stats poll and outbox jobs,
+     * in milliseconds. Read from {@code SHUTDOWN_DRAIN_MS} (default: 15000). Shards then get up to 5 more
+     * seconds to send queued replies, so keep it at least 10 seconds below the termination grace period.
+     */
+    public static int getShutdownDrainMs() {
+        return getIntEnvOrDefault("SHUTDOWN_DRAIN_MS", 15_000);
+    }
+
+    /**
+     * Number of gateway shards. Read from {@code SHARDS_TOTAL} (default: -1, the count Discord recommends).
+     * Changing it redistributes guilds across shards on the next start.
+     */
+    public static int getShardsTotal() {
+        return getIntEnvOrDefault("SHARDS_TOTAL", -1);
+    }
+
+    /**
+     * How long startup waits for every shard to connect and load its guilds, in ms. Read from
+     * {@code SHARD_READY_TIMEOUT_MS} (default: 300000). Shards identify one after another about 5 seconds
+     * apart, so raise it for large shard counts.
+     */
+    public static int getShardReadyTimeoutMs() {
+        return getIntEnvOrDefault("SHARD_READY_TIMEOUT_MS", 300_000);
+    }
+
+    /**
+     * Keywords that classify a new thread as a bug report.
+     * Read from {@code CLASSIFIER_BUG_KEYWORDS} as a comma-separated list.
+     */
+    public static List<String> getClassifierBugKeywords() {
+        return getListEnvOrDefault("CLASSIFIER_BUG_KEYWORDS", List.of(
+                "bug", "bugged", "crash", "crashes", "crashed", "crashing", "error", "broken", "glitch",
+                "glitched", "stuck", "freeze", "freezes", "frozen", "not working", "doesn't work",
+                "does not work", "fell through", "disconnect", "disconnected", "exploit"));
+    }
+
+    /**
+     * Keywords that classify a new thread as a feature request.
+     * Read from {@code CLASSIFIER_FEATURE_KEYWORDS} as a comma-separated list.
+     */
+    public static List<String> getClassifierFeatureKeywords() {
+        return getListEnvOrDefault("CLASSIFIER_FEATURE_KEYWORDS", List.of(
+                "feature", "suggestion", "suggest", "request", "idea", "please add", "could you add",
+                "you should add", "would be nice", "would be cool", "new mode", "new map"));
+    }
+
+    /**
+     * Keywords that classify a new thread as general feedback.
+     * Read from {@code CLASSIFIER_FEEDBACK_KEYWORDS} as a comma-separated list.
+     */
+    public static List<String> getClassifierFeedbackKeywords() {
+        return getListEnvOrDefault("CLASSIFIER_FEEDBACK_KEYWORDS", List.of(
+                "feedback", "opinion", "thoughts", "balance", "unbalanced", "too hard", "too easy",
+                "too slow", "too fast", "review", "experience", "confusing"));
+    }
+
     // -------------------------------------------------------------------------
     // Helpers
     // -------------------------------------------------------------------------
@@ -90,4 +411,27 @@ public class Config {
         String value = System.getenv(name);
         return (value != null && !value.isEmpty()) ? value : defaultValue;
     }
+
+    private static List<String> getListEnvOrDefault(String name, List<String> defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::strip)
+                .filter(entry -> !entry.isEmpty())
+                .toList();
+    }
+
+    private static int getIntEnvOrDefault(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(name + " must be an integer, got: " + value);
+        }
+    }
 }
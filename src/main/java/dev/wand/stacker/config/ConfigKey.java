@@ -0,0 +1,57 @@
+package dev.wand.stacker.config;
+
+/**
+ * Reloadable settings: the Discord and Roblox IDs the bot is wired to.
+ * <p>
+ * Each key is read from the {@code CONFIG_FILE} properties file under its {@link #property() property}
+ * name and falls back to its built-in default. All values are numeric IDs.
+ */
+public enum ConfigKey {
+
+    // Tag IDs for forum posts
+    TAG_FIXED("tag.fixed", "1473409315749498960"),
+    TAG_IN_PROGRESS("tag.in_progress", "1473409358732722459"),
+    TAG_PENDING("tag.pending", "1473409882085396622"),
+    TAG_BUG("tag.bug", "1473409378974564535"),
+    TAG_RESOLVED("tag.resolved", "1473827786471768307"),
+    TAG_FEATURE("tag.feature", "1473409710819639297"),
+    TAG_FEEDBACK("tag.feedback", "1473409393151180901"),
+    TAG_DUPLICATE("tag.duplicate", "1474731042610090074"),
+    TAG_INVESTIGATING("tag.investigating", "1474727573991981219"),
+
+    // Channel IDs
+    CHANNEL_TESTER_LOG_FORUM("channel.tester_log_forum", "1473013973334102251"),
+
+    // Guild IDs
+    DEV_GUILD_ID("guild.dev", "1473013379902996542"),
+    MAIN_GUILD_ID("guild.main", "1481061623568273622"),
+
+    // Role IDs
+    ROLE_TESTER_1("role.tester_1", "1473013562371997879"),
+    ROLE_TESTER_2("role.tester_2", "1473013593405653115"),
+
+    // Roblox game universe ID
+    ROBLOX_UNIVERSE_ID("roblox.universe_id", "9460688566");
+
+    private final String property;
+    private final String defaultValue;
+
+    ConfigKey(String property, String defaultValue) {
+        this.property = property;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * @return the property name in the config file
+     */
+    public String property() {
+        return property;
+    }
+
+    /**
+     * @return the value used when the config file does not set this key
+     */
+    public String defaultValue() {
+        return defaultValue;
+    }
+}
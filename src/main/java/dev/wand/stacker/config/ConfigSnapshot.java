@@ -0,0 +1,84 @@
+package dev.wand.stacker.config;
+
+import java.util.EnumSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * An immutable set of values for every {@link ConfigKey}.
+ * <p>
+ * Snapshots are never modified; a reload builds a new one and {@link Config} swaps it in, so a reader that
+ * holds on to a snapshot sees a consistent set of values even while the file changes.
+ */
+public final class ConfigSnapshot {
+
+    private static final ConfigKey[] KEYS = ConfigKey.values();
+
+    private final String[] values;
+    private final long version;
+
+    private ConfigSnapshot(String[] values, long version) {
+        this.values = values;
+        this.version = version;
+    }
+
+    /**
+     * @return a snapshot holding every key's default value, with version 0
+     */
+    static ConfigSnapshot defaults() {
+        String[] values = new String[KEYS.length];
+        for (ConfigKey key : KEYS) {
+            values[key.ordinal()] = key.defaultValue();
+        }
+        return new ConfigSnapshot(values, 0);
+    }
+
+    /**
+     * Build a snapshot from properties. Keys the properties do not set keep their default.
+     *
+     * @param properties The loaded properties
+     * @param version    The version to assign
+     * @return The snapshot
+     * @throws IllegalArgumentException If a value is not a numeric ID
+     */
+    static ConfigSnapshot from(Properties properties, long version) {
+        String[] values = new String[KEYS.length];
+        for (ConfigKey key : KEYS) {
+            String value = properties.getProperty(key.property(), key.defaultValue()).strip();
+            if (value.isEmpty() || !value.chars().allMatch(Character::isDigit)) {
+                throw new IllegalArgumentException(key.property() + " must be a numeric ID, got: " + value);
+            }
+            values[key.ordinal()] = value;
+        }
+        return new ConfigSnapshot(values, version);
+    }
+
+    /**
+     * @param key The key
+     * @return the key's value in this snapshot
+     */
+    public String get(ConfigKey key) {
+        return values[key.ordinal()];
+    }
+
+    /**
+     * @return the number of reloads that produced this snapshot; 0 for the built-in defaults
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @param previous The snapshot this one replaces
+     * @return the keys whose value differs from {@code previous}
+     */
+    Set<ConfigKey> changedFrom(ConfigSnapshot previous) {
+        Set<ConfigKey> changed = EnumSet.noneOf(ConfigKey.class);
+        for (ConfigKey key : KEYS) {
+            if (!values[key.ordinal()].equals(previous.values[key.ordinal()])) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+}
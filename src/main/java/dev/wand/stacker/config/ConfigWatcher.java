@@ -0,0 +1,160 @@
+package dev.wand.stacker.config;
+
+import dev.wand.stacker.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the {@code CONFIG_FILE} properties file into {@link Config} and reloads it when it changes.
+ * <p>
+ * A daemon thread watches the file's directory (so editors that replace the file instead of writing it
+ * in place are seen too) and reloads once writes have settled. A file that fails to parse or holds an
+ * invalid value is rejected as a whole and the current snapshot stays in effect.
+ */
+public final class ConfigWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigWatcher.class);
+
+    private static final long SETTLE_MS = 250L;
+    private static final Set<String> KNOWN_PROPERTIES = Arrays.stream(ConfigKey.values())
+            .map(ConfigKey::property)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private static volatile boolean running;
+    private static Thread thread;
+
+    private ConfigWatcher() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Load the config file, then keep watching it. Call before anything reads a {@link ConfigKey}.
+     */
+    public static synchronized void start() {
+        if (running) {
+            return;
+        }
+        Path file = Path.of(Config.getConfigFile()).toAbsolutePath();
+        reload(file);
+        Metrics.gauge("config.version", () -> Config.snapshot().version());
+
+        Path directory = file.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            logger.info("Config directory {} does not exist; using defaults without watching", directory);
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> watch(file), "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop watching the config file.
+     */
+    public static synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+    }
+
+    /**
+     * Reload the config file now.
+     *
+     * @return whether the file was loaded (an unchanged file also counts)
+     */
+    public static boolean reload() {
+        return reload(Path.of(Config.getConfigFile()).toAbsolutePath());
+    }
+
+    private static synchronized boolean reload(Path file) {
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                logger.error("Failed to read config file {}; keeping version {}", file, Config.snapshot().version(), e);
+                Metrics.increment("config.reload_failures");
+                return false;
+            }
+        }
+
+        ConfigSnapshot next;
+        try {
+            next = ConfigSnapshot.from(properties, Config.snapshot().version() + 1);
+        } catch (IllegalArgumentException e) {
+            logger.error("Rejected config file {}: {}; keeping version {}",
+                    file, e.getMessage(), Config.snapshot().version());
+            Metrics.increment("config.reload_failures");
+            return false;
+        }
+        for (String name : properties.stringPropertyNames()) {
+            if (!KNOWN_PROPERTIES.contains(name)) {
+                logger.warn("Ignoring unknown config property {} in {}", name, file);
+            }
+        }
+
+        Set<ConfigKey> changed = Config.publish(next);
+        Metrics.increment("config.reloads");
+        if (!changed.isEmpty()) {
+            logger.info("Loaded config version {} from {}; changed: {}", next.version(), file, changed);
+        }
+        return true;
+    }
+
+    private static void watch(Path file) {
+        try (WatchService watcher = file.getFileSystem().newWatchService()) {
+            file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            logger.info("Watching {} for config changes", file);
+            while (running) {
+                WatchKey key = watcher.take();
+                boolean relevant = isRelevant(key, file);
+                if (!key.reset()) {
+                    logger.warn("Config directory {} is gone; no longer watching for changes", file.getParent());
+                    return;
+                }
+                if (!relevant) {
+                    continue;
+                }
+                // Files are often written in several steps; wait for them to settle, then reload once
+                Thread.sleep(SETTLE_MS);
+                for (WatchKey pending = watcher.poll(); pending != null; pending = watcher.poll()) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reload(file);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        } catch (IOException e) {
+            logger.error("Config watcher failed; config changes now need a restart", e);
+        }
+    }
+
+    private static boolean isRelevant(WatchKey key, Path file) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+}
@@ -0,0 +1,78 @@
+package dev.wand.stacker.config;
+
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.ConcurrentSessionController;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+
+import java.util.EnumSet;
+
+/**
+ * Gateway and cache profile used when building the shard manager.
+ * <p>
+ * The bot only reacts to slash commands, forum thread creation and member joins,
+ * so everything else the default profile subscribes to or caches is dropped here:
+ * <ul>
+ *   <li>Intents: only {@code GUILD_MEMBERS} (join events) and {@code MESSAGE_CONTENT} (forum starter
+ *       messages for duplicate detection); channel and thread events are always sent</li>
+ *   <li>Members: never cached — interactions and join events carry their own member,
+ *       and {@code /tester} resolves members over REST</li>
+ *   <li>Chunking: disabled, so no member lists are downloaded on connect</li>
+ *   <li>Cache flags: only forum tags, role tags and member overrides are kept</li>
+ *   <li>Shards: {@code SHARDS_TOTAL}, or Discord's recommendation. Shards identify in parallel up to the
+ *       {@code max_concurrency} Discord grants the bot, instead of one every 5 seconds</li>
+ * </ul>
+ */
+public final class GatewayProfile {
+
+    /**
+     * Gateway intents the bot actually consumes.
+     */
+    public static final EnumSet<GatewayIntent> INTENTS = EnumSet.of(
+            GatewayIntent.GUILD_MEMBERS,
+            GatewayIntent.MESSAGE_CONTENT
+    );
+
+    /**
+     * Cache flags that no command or listener reads.
+     */
+    public static final EnumSet<CacheFlag> DISABLED_CACHE = EnumSet.of(
+            CacheFlag.ACTIVITY,
+            CacheFlag.VOICE_STATE,
+            CacheFlag.EMOJI,
+            CacheFlag.STICKER,
+            CacheFlag.CLIENT_STATUS,
+            CacheFlag.ONLINE_STATUS,
+            CacheFlag.SCHEDULED_EVENTS
+    );
+
+    /**
+     * Guilds above this member count are treated as "large" and only send online members on connect.
+     */
+    public static final int LARGE_THRESHOLD = 50;
+
+    private GatewayProfile() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Create a shard manager builder configured with this profile.
+     *
+     * @param token The bot token
+     * @return A builder with intents, caches, member loading and sharding configured
+     */
+    public static DefaultShardManagerBuilder createBuilder(String token) {
+        // The shard manager hands the gateway's max_concurrency to this controller on login
+        return DefaultShardManagerBuilder.create(token, INTENTS)
+                .setShardsTotal(Config.getShardsTotal())
+                .setSessionController(new ConcurrentSessionController())
+                .disableCache(DISABLED_CACHE)
+                .setMemberCachePolicy(MemberCachePolicy.NONE)
+                .setChunkingFilter(ChunkingFilter.NONE)
+                .setLargeThreshold(LARGE_THRESHOLD)
+                // Lifecycle owns shutdown: JDA's own hook would close the shards while interactions drain
+                .setEnableShutdownHook(false);
+    }
+}
@@ -0,0 +1,234 @@
+package dev.wand.stacker.config;
+
+import dev.wand.stacker.db.ChangeFeed;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import dev.wand.stacker.utils.LongObjectMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Per-guild settings of every guild the bot serves, resolved by guild, forum or tag ID.
+ * <p>
+ * Guilds come from the {@code guild_settings} table; the home guilds ({@code MAIN_GUILD_ID} and
+ * {@code DEV_GUILD_ID}) are always served with the reloadable {@link Config} IDs unless the table has a
+ * row for them. All lookups read one immutable {@link State} through a volatile field and one primitive
+ * hash probe, so they cost the same however many guilds there are. A change (a row written by another
+ * instance or by hand and delivered by the {@link ChangeFeed}, or a config reload) builds a new state
+ * off the hot path and swaps it in; adding a guild needs no restart.
+ */
+public final class GuildConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuildConfig.class);
+
+    private static final String TABLE = "guild_settings";
+    private static final Set<ConfigKey> HOME_KEYS = EnumSet.of(ConfigKey.MAIN_GUILD_ID, ConfigKey.DEV_GUILD_ID,
+            ConfigKey.CHANNEL_TESTER_LOG_FORUM, ConfigKey.ROLE_TESTER_1, ConfigKey.ROLE_TESTER_2,
+            ConfigKey.ROBLOX_UNIVERSE_ID);
+
+    private static final Object LOCK = new Object();
+    private static final Map<Long, GuildSettings> ROWS = new HashMap<>();
+    private static final List<Consumer<GuildSettings>> GUILD_ADDED = new CopyOnWriteArrayList<>();
+
+    private static volatile State state = build(List.of());
+
+    private GuildConfig() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * An immutable view of all guild settings, indexed for O(1) lookups.
+     */
+    private record State(LongObjectMap<GuildSettings> byGuild, LongObjectMap<GuildSettings> byForum,
+                         LongObjectMap<TagKind> tagKinds, List<GuildSettings> all) {
+    }
+
+    /**
+     * Load the table and keep following it. Call once after storage is initialized and before the
+     * {@link ChangeFeed} starts.
+     */
+    public static void initialize() {
+        Set<ConfigKey> keys = EnumSet.copyOf(HOME_KEYS);
+        for (TagKind kind : TagKind.values()) {
+            keys.add(kind.defaultKey());
+        }
+        Config.subscribe(keys, config -> {
+            List<GuildSettings> added;
+            synchronized (LOCK) {
+                added = rebuild();
+            }
+            notifyAdded(added);
+        });
+
+        if (Repositories.isPostgres()) {
+            ChangeFeed.subscribe(TABLE, new ChangeFeed.Subscriber() {
+                @Override
+                public void resync() {
+                    reload();
+                }
+
+                @Override
+                public void apply(ChangeFeed.Change change) {
+                    applyChange(change);
+                }
+            });
+        }
+        reload();
+        Metrics.gauge("guild_settings.guilds", () -> state.all().size());
+    }
+
+    /**
+     * Re-read every row from storage and rebuild.
+     */
+    public static void reload() {
+        List<GuildSettings> rows;
+        try {
+            rows = Repositories.guildSettings().readAll();
+        } catch (StorageException e) {
+            logger.error("Failed to load guild settings; keeping {} guild(s)", state.all().size(), e);
+            return;
+        }
+        List<GuildSettings> added;
+        synchronized (LOCK) {
+            ROWS.clear();
+            rows.forEach(row -> ROWS.put(row.guildId(), row));
+            added = rebuild();
+        }
+        notifyAdded(added);
+    }
+
+    /**
+     * Call a listener with the settings of each guild that becomes configured after startup, e.g. to
+     * register its slash commands. Runs on the thread that applied the change.
+     *
+     * @param listener The listener
+     */
+    public static void onGuildAdded(Consumer<GuildSettings> listener) {
+        GUILD_ADDED.add(listener);
+    }
+
+    /**
+     * @param guildId The guild ID
+     * @return the guild's settings, or {@code null} if the bot does not serve it
+     */
+    public static GuildSettings forGuild(long guildId) {
+        return state.byGuild().get(guildId);
+    }
+
+    /**
+     * @param forumChannelId A channel ID
+     * @return the settings of the guild whose Tester Log Forum this is, or {@code null} if it is none
+     */
+    public static GuildSettings forForum(long forumChannelId) {
+        return state.byForum().get(forumChannelId);
+    }
+
+    /**
+     * @param tagId A forum tag ID
+     * @return what the tag means in its guild, or {@code null} if it is not one the bot applies
+     */
+    public static TagKind tagKind(long tagId) {
+        return state.tagKinds().get(tagId);
+    }
+
+    /**
+     * @return the settings of every served guild
+     */
+    public static List<GuildSettings> all() {
+        return state.all();
+    }
+
+    /**
+     * @param guildId The guild ID
+     * @return the Roblox universe the guild reports on, falling back to the configured default
+     */
+    public static String universeFor(long guildId) {
+        GuildSettings settings = forGuild(guildId);
+        return settings != null ? Long.toString(settings.universeId()) : Config.get(ConfigKey.ROBLOX_UNIVERSE_ID);
+    }
+
+    private static void applyChange(ChangeFeed.Change change) {
+        List<GuildSettings> added;
+        synchronized (LOCK) {
+            switch (change.op()) {
+                case INSERT, UPDATE -> {
+                    if (change.oldRow() != null) {
+                        ROWS.remove(change.oldRow().get("guild_id").getAsLong());
+                    }
+                    GuildSettings row = GuildSettings.fromRow(change.newRow());
+                    ROWS.put(row.guildId(), row);
+                }
+                case DELETE -> ROWS.remove(change.oldRow().get("guild_id").getAsLong());
+                case TRUNCATE -> ROWS.clear();
+            }
+            added = rebuild();
+        }
+        notifyAdded(added);
+    }
+
+    /**
+     * Swap in a state built from the current rows. Must hold {@link #LOCK}.
+     *
+     * @return the guilds that were not served before
+     */
+    private static List<GuildSettings> rebuild() {
+        State previous = state;
+        State next = build(ROWS.values());
+        state = next;
+        List<GuildSettings> added = new ArrayList<>();
+        for (GuildSettings settings : next.all()) {
+            if (!previous.byGuild().containsKey(settings.guildId())) {
+                added.add(settings);
+            }
+        }
+        logger.info("Serving {} guild(s)", next.all().size());
+        return added;
+    }
+
+    private static void notifyAdded(List<GuildSettings> added) {
+        for (GuildSettings settings : added) {
+            for (Consumer<GuildSettings> listener : GUILD_ADDED) {
+                try {
+                    listener.accept(settings);
+                } catch (RuntimeException e) {
+                    logger.error("Guild-added listener failed for guild {}", settings.guildId(), e);
+                }
+            }
+        }
+    }
+
+    private static State build(Iterable<GuildSettings> rows) {
+        ConfigSnapshot config = Config.snapshot();
+        Map<Long, GuildSettings> guilds = new LinkedHashMap<>();
+        for (ConfigKey home : List.of(ConfigKey.MAIN_GUILD_ID, ConfigKey.DEV_GUILD_ID)) {
+            long guildId = Long.parseLong(config.get(home));
+            guilds.put(guildId, GuildSettings.fromConfig(guildId, config));
+        }
+        rows.forEach(row -> guilds.put(row.guildId(), row));
+
+        LongObjectMap<GuildSettings> byGuild = new LongObjectMap<>(guilds.size());
+        LongObjectMap<GuildSettings> byForum = new LongObjectMap<>(guilds.size());
+        LongObjectMap<TagKind> tagKinds = new LongObjectMap<>(guilds.size() * TagKind.values().length);
+        for (GuildSettings settings : guilds.values()) {
+            byGuild.put(settings.guildId(), settings);
+            byForum.put(settings.forumChannelId(), settings);
+            settings.tagIds().forEach((kind, tagId) -> {
+                if (tagId != 0) {
+                    tagKinds.put(tagId, kind);
+                }
+            });
+        }
+        return new State(byGuild, byForum, tagKinds, List.copyOf(guilds.values()));
+    }
+}
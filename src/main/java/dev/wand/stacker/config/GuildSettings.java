@@ -0,0 +1,126 @@
+package dev.wand.stacker.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of one guild the bot serves, as stored in the {@code guild_settings} table.
+ *
+ * @param guildId        The guild
+ * @param forumChannelId The guild's Tester Log Forum
+ * @param tagIds         The forum's tag ID for each kind of tag the bot applies; kinds may be missing
+ * @param testerRoleIds  The roles {@code /tester} grants
+ * @param universeId     The Roblox universe {@code /stats} reports on
+ */
+public record GuildSettings(long guildId, long forumChannelId, Map<TagKind, Long> tagIds,
+                            List<Long> testerRoleIds, long universeId) {
+
+    public GuildSettings {
+        EnumMap<TagKind, Long> tags = new EnumMap<>(TagKind.class);
+        tags.putAll(tagIds);
+        tagIds = Collections.unmodifiableMap(tags);
+        testerRoleIds = List.copyOf(testerRoleIds);
+    }
+
+    /**
+     * Settings for a home guild, taken from the reloadable {@link Config} IDs. Used for
+     * {@code MAIN_GUILD_ID} and {@code DEV_GUILD_ID} unless the table has a row for them.
+     *
+     * @param guildId The guild
+     * @param config  The config snapshot
+     * @return The settings
+     */
+    static GuildSettings fromConfig(long guildId, ConfigSnapshot config) {
+        Map<TagKind, Long> tags = new EnumMap<>(TagKind.class);
+        for (TagKind kind : TagKind.values()) {
+            tags.put(kind, Long.parseLong(config.get(kind.defaultKey())));
+        }
+        return new GuildSettings(guildId,
+                Long.parseLong(config.get(ConfigKey.CHANNEL_TESTER_LOG_FORUM)),
+                tags,
+                List.of(Long.parseLong(config.get(ConfigKey.ROLE_TESTER_1)),
+                        Long.parseLong(config.get(ConfigKey.ROLE_TESTER_2))),
+                Long.parseLong(config.get(ConfigKey.ROBLOX_UNIVERSE_ID)));
+    }
+
+    /**
+     * Decode a {@code guild_settings} row as delivered by the change feed.
+     *
+     * @param row The row as JSON
+     * @return The settings
+     */
+    public static GuildSettings fromRow(JsonObject row) {
+        List<Long> roles = new ArrayList<>();
+        JsonElement roleIds = row.get("tester_role_ids");
+        if (roleIds != null && roleIds.isJsonArray()) {
+            for (JsonElement role : roleIds.getAsJsonArray()) {
+                roles.add(role.getAsLong());
+            }
+        }
+        return new GuildSettings(
+                row.get("guild_id").getAsLong(),
+                row.get("forum_channel_id").getAsLong(),
+                parseTagIds(row.getAsJsonObject("tag_ids")),
+                roles,
+                row.get("universe_id").getAsLong());
+    }
+
+    /**
+     * Decode a {@code tag_ids} map. Unknown tag names are ignored; IDs may be numbers or strings.
+     *
+     * @param json The map, e.g. {@code {"fixed": "1473409315749498960"}}
+     * @return The tag IDs by kind
+     */
+    public static Map<TagKind, Long> parseTagIds(JsonObject json) {
+        Map<TagKind, Long> tags = new EnumMap<>(TagKind.class);
+        if (json == null) {
+            return tags;
+        }
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            TagKind kind = TagKind.fromKey(entry.getKey());
+            if (kind != null) {
+                tags.put(kind, entry.getValue().getAsLong());
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * @return the {@code tag_ids} map as JSON, with IDs as strings
+     */
+    public JsonObject tagIdsJson() {
+        JsonObject json = new JsonObject();
+        tagIds.forEach((kind, id) -> json.addProperty(kind.key(), Long.toString(id)));
+        return json;
+    }
+
+    /**
+     * @return the row as JSON, in the shape {@link #fromRow} reads
+     */
+    public JsonObject toRow() {
+        JsonObject row = new JsonObject();
+        row.addProperty("guild_id", guildId);
+        row.addProperty("forum_channel_id", forumChannelId);
+        row.add("tag_ids", tagIdsJson());
+        JsonArray roles = new JsonArray();
+        testerRoleIds.forEach(roles::add);
+        row.add("tester_role_ids", roles);
+        row.addProperty("universe_id", universeId);
+        return row;
+    }
+
+    /**
+     * @param kind The kind of tag
+     * @return the forum's tag ID for that kind, or {@code 0} if the guild has none
+     */
+    public long tagId(TagKind kind) {
+        return tagIds.getOrDefault(kind, 0L);
+    }
+}
@@ -0,0 +1,65 @@
+package dev.wand.stacker.config;
+
+/**
+ * The forum tags the bot knows how to apply. Each guild maps these to its own tag IDs
+ * (see {@link GuildSettings}); the home guilds fall back to the {@link ConfigKey} tag IDs.
+ */
+public enum TagKind {
+
+    // Status tags: a thread carries at most one
+    FIXED("fixed", ConfigKey.TAG_FIXED, true),
+    IN_PROGRESS("in_progress", ConfigKey.TAG_IN_PROGRESS, true),
+    PENDING("pending", ConfigKey.TAG_PENDING, true),
+    RESOLVED("resolved", ConfigKey.TAG_RESOLVED, true),
+    DUPLICATE("duplicate", ConfigKey.TAG_DUPLICATE, true),
+    INVESTIGATING("investigating", ConfigKey.TAG_INVESTIGATING, true),
+
+    // Category tags
+    BUG("bug", ConfigKey.TAG_BUG, false),
+    FEATURE("feature", ConfigKey.TAG_FEATURE, false),
+    FEEDBACK("feedback", ConfigKey.TAG_FEEDBACK, false);
+
+    private final String key;
+    private final ConfigKey defaultKey;
+    private final boolean status;
+
+    TagKind(String key, ConfigKey defaultKey, boolean status) {
+        this.key = key;
+        this.defaultKey = defaultKey;
+        this.status = status;
+    }
+
+    /**
+     * @return the name of this tag in a guild's {@code tag_ids} map
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * @return the config key holding the home guilds' ID for this tag
+     */
+    public ConfigKey defaultKey() {
+        return defaultKey;
+    }
+
+    /**
+     * @return whether this is a status tag (as opposed to a category tag)
+     */
+    public boolean isStatus() {
+        return status;
+    }
+
+    /**
+     * @param key A tag name from a {@code tag_ids} map
+     * @return the matching kind, or {@code null} if the name is unknown
+     */
+    public static TagKind fromKey(String key) {
+        for (TagKind kind : values()) {
+            if (kind.key.equals(key)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,226 @@
+package dev.wand.stacker.db;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import dev.wand.stacker.metrics.Metrics;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Streams row changes of cached tables to in-process caches, so every instance (and manual SQL edits)
+ * stays coherent without re-reading whole tables.
+ * <p>
+ * Triggers on the cached tables (migration 7) publish each inserted, updated or deleted row as JSON on
+ * the {@code stacker_changes} channel. A single daemon thread holds a dedicated connection outside the
+ * Hikari pool (a pooled connection would lose its {@code LISTEN} when returned), receives the
+ * notifications and hands each change to the subscribers of its table, in commit order.
+ * <p>
+ * After every (re)connect the thread calls {@link Subscriber#resync()} once the {@code LISTEN} is
+ * active and before delivering any change. A subscriber that reloads its table there cannot miss an
+ * update: changes committed during the reload are queued on the connection and delivered afterwards.
+ * While disconnected, subscribers are told to {@link Subscriber#invalidate() stop trusting} their cache.
+ * <p>
+ * Only used with the PostgreSQL backend; the embedded store has no other writers.
+ */
+public final class ChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private static final String CHANNEL = "stacker_changes";
+    private static final int POLL_TIMEOUT_MS = 5_000;
+    private static final long HEALTH_CHECK_INTERVAL_MS = 30_000L;
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000L;
+
+    private static final Map<String, List<Subscriber>> SUBSCRIBERS = new ConcurrentHashMap<>();
+
+    private static volatile boolean running;
+    private static Thread thread;
+
+    private ChangeFeed() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * The kind of row change.
+     */
+    public enum Op {
+        INSERT,
+        UPDATE,
+        DELETE,
+        /** The whole table was emptied; no rows are attached. */
+        TRUNCATE
+    }
+
+    /**
+     * One row change.
+     *
+     * @param table  The table name
+     * @param op     What happened
+     * @param oldRow The row before the change, for updates and deletes; otherwise {@code null}
+     * @param newRow The row after the change, for inserts and updates; otherwise {@code null}
+     */
+    public record Change(String table, Op op, JsonObject oldRow, JsonObject newRow) {
+    }
+
+    /**
+     * Receives the changes of one table. All callbacks run on the feed thread, one at a time.
+     */
+    public interface Subscriber {
+
+        /**
+         * Rebuild the cache from the table. Called after every (re)connect, before any {@link #apply}.
+         */
+        void resync();
+
+        /**
+         * Apply one change to the cache. A {@link Op#TRUNCATE} should clear it.
+         *
+         * @param change The change
+         */
+        void apply(Change change);
+
+        /**
+         * The feed lost its connection, so changes may be missed until the next {@link #resync()}.
+         */
+        default void invalidate() {
+        }
+    }
+
+    /**
+     * Register a subscriber for a table. Subscribers added after {@link #start()} are resynced on the
+     * next reconnect only, so subscribe during startup.
+     *
+     * @param table      The table name
+     * @param subscriber The subscriber
+     */
+    public static void subscribe(String table, Subscriber subscriber) {
+        SUBSCRIBERS.computeIfAbsent(table, k -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    /**
+     * Start the listener thread.
+     */
+    public static synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(ChangeFeed::run, "change-feed");
+        thread.setDaemon(true);
+        thread.start();
+        Metrics.gauge("change_feed.subscribers", () -> SUBSCRIBERS.values().stream().mapToLong(List::size).sum());
+    }
+
+    /**
+     * Stop the listener thread and close its connection.
+     */
+    public static synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+    }
+
+    // -------------------------------------------------------------------------
+    // Listener thread
+    // -------------------------------------------------------------------------
+
+    private static void run() {
+        long reconnectDelayMs = 1_000L;
+        while (running) {
+            try (Connection conn = Database.openDedicatedConnection("stacker-change-feed")) {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for table changes on {}", CHANNEL);
+                SUBSCRIBERS.values().forEach(subscribers -> subscribers.forEach(ChangeFeed::resync));
+                reconnectDelayMs = 1_000L;
+                listen(conn);
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Change feed connection lost; reconnecting in {} ms", reconnectDelayMs, e);
+                Metrics.increment("change_feed.reconnects");
+            }
+            SUBSCRIBERS.values().forEach(subscribers -> subscribers.forEach(Subscriber::invalidate));
+            try {
+                Thread.sleep(reconnectDelayMs);
+            } catch (InterruptedException e) {
+                break;
+            }
+            reconnectDelayMs = Math.min(MAX_RECONNECT_DELAY_MS, reconnectDelayMs * 2);
+        }
+        logger.info("Change feed stopped");
+    }
+
+    private static void listen(Connection conn) throws SQLException {
+        PGConnection pg = conn.unwrap(PGConnection.class);
+        long lastCheckMs = System.currentTimeMillis();
+        while (running) {
+            PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    dispatch(notification.getParameter());
+                }
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastCheckMs >= HEALTH_CHECK_INTERVAL_MS) {
+                // A silent channel is indistinguishable from a dead connection without a round trip
+                try (Statement st = conn.createStatement()) {
+                    st.execute("SELECT 1");
+                }
+                lastCheckMs = now;
+            }
+        }
+    }
+
+    private static void dispatch(String payload) {
+        Change change;
+        try {
+            JsonObject json = JsonParser.parseString(payload).getAsJsonObject();
+            change = new Change(
+                    json.get("table").getAsString(),
+                    Op.valueOf(json.get("op").getAsString()),
+                    rowOrNull(json.get("old")),
+                    rowOrNull(json.get("new")));
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring malformed change notification: {}", payload, e);
+            return;
+        }
+        Metrics.increment("change_feed.notifications");
+        for (Subscriber subscriber : SUBSCRIBERS.getOrDefault(change.table(), List.of())) {
+            try {
+                subscriber.apply(change);
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply {} on {}; resyncing", change.op(), change.table(), e);
+                resync(subscriber);
+            }
+        }
+    }
+
+    private static void resync(Subscriber subscriber) {
+        try {
+            subscriber.resync();
+        } catch (RuntimeException e) {
+            logger.error("Change feed subscriber failed to resync", e);
+            subscriber.invalidate();
+        }
+    }
+
+    private static JsonObject rowOrNull(JsonElement element) {
+        return element == null || element.isJsonNull() ? null : element.getAsJsonObject();
+    }
+}
@@ -7,13 +7,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Manages the PostgreSQL connection pool and schema initialization.
  *
- * <p>Call {@link #initialize()} once at bot startup (before any repositories are used).
+ * <p>Call {@link #initialize()} once at bot startup. It may run on a background thread while
+ * the gateway connects: {@link #getConnection()} waits for an in-progress initialization
+ * instead of failing, so early events are not lost.
  * Each repository obtains a connection via {@link #getConnection()} and closes it after use.
  * Call {@link #close()} on graceful shutdown to release all pooled connections.</p>
  *
@@ -27,13 +34,26 @@ import java.sql.Statement;
  * <ul>
  *   <li>{@code DB_HOST} — hostname (default: {@code localhost})</li>
  *   <li>{@code DB_PORT} — port (default: {@code 5432})</li>
+ *   <li>{@code DB_POOL_MAX_SIZE}, {@code DB_POOL_MIN_IDLE} — pool sizing (default: 5 / 1)</li>
+ *   <li>{@code DB_CONNECTION_TIMEOUT_MS}, {@code DB_IDLE_TIMEOUT_MS}, {@code DB_MAX_LIFETIME_MS} — pool timeouts</li>
+ *   <li>{@code DB_PREPARE_THRESHOLD}, {@code DB_PREPARED_STATEMENT_CACHE_QUERIES} — pgjdbc statement caching</li>
  * </ul>
  */
 public final class Database {
 
     private static final Logger logger = LoggerFactory.getLogger(Database.class);
 
-    private static HikariDataSource dataSource;
+    /**
+     * How long {@link #getConnection()} waits for a concurrent {@link #initialize()} to finish.
+     */
+    private static final long INIT_WAIT_MS = 30_000;
+
+    /**
+     * Completed once the pool exists and the schema has been verified.
+     */
+    private static final CompletableFuture<Void> READY = new CompletableFuture<>();
+
+    private static volatile HikariDataSource dataSource;
 
     // -------------------------------------------------------------------------
     // Lifecycle
@@ -43,7 +63,7 @@ public final class Database {
     }
 
     /**
-     * Initialize the connection pool and create any missing tables.
+     * Initialize the connection pool and apply any pending schema migrations.
      * Must be called once before any repository is used.
      */
     public static void initialize() {
@@ -58,18 +78,33 @@ public final class Database {
         config.setPassword(Config.getDbPassword());
         config.setDriverClassName("org.postgresql.Driver");
 
-        // Pool sizing — a small Discord bot doesn't need many connections
-        config.setMaximumPoolSize(5);
-        config.setMinimumIdle(1);
-        config.setConnectionTimeout(10_000);
-        config.setIdleTimeout(300_000);
-        config.setMaxLifetime(600_000);
+        // Pool sizing and timeouts — defaults suit a small Discord bot, override via environment
+        config.setMaximumPoolSize(Config.getDbPoolMaxSize());
+        config.setMinimumIdle(Config.getDbPoolMinIdle());
+        config.setConnectionTimeout(Config.getDbConnectionTimeoutMs());
+        config.setIdleTimeout(Config.getDbIdleTimeoutMs());
+        config.setMaxLifetime(Config.getDbMaxLifetimeMs());
+
+        // pgjdbc: server-side prepare on (re)use and cache plans per physical connection,
+        // so repository calls on a pooled connection skip parse/plan after the first time
+        config.addDataSourceProperty("prepareThreshold", Config.getDbPrepareThreshold());
+        config.addDataSourceProperty("preparedStatementCacheQueries", Config.getDbPreparedStatementCacheQueries());
+        config.addDataSourceProperty("reWriteBatchedInserts", true);
+        config.setMetricsTrackerFactory(PoolMetricsTracker.FACTORY);
         config.setPoolName("StackerPool");
 
-        dataSource = new HikariDataSource(config);
-        logger.info("Database connection pool created ({})", Config.getDbUrl());
-
-        createTables();
+        try {
+            HikariDataSource created = new HikariDataSource(config);
+            logger.info("Database connection pool created ({}, max {} connections)",
+                Config.getDbUrl(), config.getMaximumPoolSize());
+
+            migrate(created);
+            dataSource = created;
+            READY.complete(null);
+        } catch (RuntimeException e) {
+            READY.completeExceptionally(e);
+            throw e;
+        }
     }
 
     /**
@@ -80,15 +115,56 @@ public final class Database {
      * @throws SQLException if a connection cannot be obtained
      */
     public static Connection getConnection() throws SQLException {
-        if (dataSource == null || dataSource.isClosed()) {
+        awaitReady();
+        HikariDataSource ds = dataSource;
+        if (ds == null || ds.isClosed()) {
             throw new IllegalStateException("Database has not been initialized. Call Database.initialize() first.");
         }
-        return dataSource.getConnection();
+        return ds.getConnection();
     }
 
-    // -------------------------------------------------------------------------
-    // Schema
-    // -------------------------------------------------------------------------
+    /**
+     * Open a connection outside the pool, for session-scoped state such as advisory locks or
+     * {@code LISTEN}, which must stay on one physical connection for its whole lifetime.
+     * The caller owns the connection and must close it.
+     *
+     * @param applicationName Shown in {@code pg_stat_activity} to identify the connection's purpose
+     * @return a new {@link Connection}
+     * @throws SQLException if the connection cannot be opened
+     */
+    public static Connection openDedicatedConnection(String applicationName) throws SQLException {
+        awaitReady();
+        Properties props = new Properties();
+        props.setProperty("user", Config.getDbUser());
+        props.setProperty("password", Config.getDbPassword());
+        props.setProperty("ApplicationName", applicationName);
+        props.setProperty("tcpKeepAlive", "true");
+        props.setProperty("connectTimeout", "5");
+        // Bounds every statement, so a dead server is noticed instead of blocking forever
+        props.setProperty("socketTimeout", "10");
+        return DriverManager.getConnection(Config.getDbUrl(), props);
+    }
+
+    /**
+     * Block until {@link #initialize()} has finished, if it is currently running on another thread.
+     *
+     * @throws SQLException if initialization failed or did not finish in time
+     */
+    private static void awaitReady() throws SQLException {
+        if (READY.isDone() && !READY.isCompletedExceptionally()) {
+            return;
+        }
+        try {
+            READY.get(INIT_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for database initialization", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Database initialization failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new SQLException("Database initialization did not finish within " + INIT_WAIT_MS + " ms", e);
+        }
+    }
 
     /**
      * Close the connection pool on graceful shutdown.
@@ -100,34 +176,20 @@ public final class Database {
         }
     }
 
+    // -------------------------------------------------------------------------
+    // Schema
+    // -------------------------------------------------------------------------
+
     /**
-     * Create all required tables if they do not already exist.
-     * Add new {@code CREATE TABLE IF NOT EXISTS} statements here when new tables are needed.
+     * Apply any pending schema migrations.
+     * To change the schema, add a new migration to {@link Migrations} rather than editing DDL here.
      */
-    private static void createTables() {
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            // Live stats embed locations
-            stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS live_stats_embeds (
-                        channel_id  VARCHAR(32) NOT NULL,
-                        message_id  VARCHAR(32) NOT NULL,
-                        PRIMARY KEY (channel_id, message_id)
-                    )
-                    """);
-
-            // Pending tester user IDs
-            stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS pending_testers (
-                        user_id VARCHAR(32) PRIMARY KEY
-                    )
-                    """);
-
-            logger.info("Database tables verified / created");
-
+    private static void migrate(HikariDataSource ds) {
+        try {
+            MigrationRunner.migrate(ds);
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to create database tables", e);
+            ds.close();
+            throw new RuntimeException("Failed to migrate database schema", e);
         }
     }
 }
@@ -0,0 +1,482 @@
+package dev.wand.stacker.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded key / value store backed by an append-only, memory-mapped log file.
+ *
+ * <p>Data is grouped into namespaces (one per repository). Every mutation is appended to the
+ * log as a checksummed record and applied to an in-memory index, which serves all reads.
+ * On {@link #open(Path)} the log is replayed into the index; a torn or corrupt tail record
+ * (e.g. after a crash mid-write) ends the replay and is overwritten by the next append.</p>
+ *
+ * <p>Durability uses group commit: writers append under a short lock and then wait for the
+ * background flusher, which forces all records appended since the previous flush with a single
+ * {@code msync}. Writers arriving while a flush is in progress are batched into the next one. Once the log holds mostly superseded records it is compacted into a fresh file
+ * containing only live entries and atomically swapped in.</p>
+ *
+ * <p>Record layout: {@code int payloadLength, int crc32, payload} where the payload is
+ * {@code byte op, short nsLength, ns, short keyLength, key[, int valueLength, value]}.</p>
+ */
+public final class EmbeddedLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedLog.class);
+
+    private static final byte[] MAGIC = "STKLOG01".getBytes(StandardCharsets.US_ASCII);
+    private static final int RECORD_HEADER = 8;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final long COMPACT_CHECK_SECONDS = 60;
+    private static final int COMPACT_MIN_BYTES = 1 << 20;
+    private static final long FLUSH_TIMEOUT_MS = 30_000;
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
+
+    private final Path path;
+    private final Map<String, ConcurrentHashMap<String, String>> index = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService maintenance;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    // Guarded by writeLock
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePos;
+    private int flushedPos;
+    private CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+    private boolean closed;
+
+    private EmbeddedLog(Path path) {
+        this.path = path;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "embedded-log-" + path.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open (or create) a log file and replay it into memory.
+     *
+     * @param path the log file location; parent directories are created if needed
+     * @return the opened log
+     * @throws IOException if the file cannot be opened or is not a log file
+     */
+    public static EmbeddedLog open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        EmbeddedLog log = new EmbeddedLog(path);
+        long start = System.nanoTime();
+        log.replay();
+        logger.info("Embedded log {} opened ({} bytes, {} namespace(s)) in {} ms", path, log.writePos,
+                log.index.size(), (System.nanoTime() - start) / 1_000_000);
+
+        log.maintenance.scheduleWithFixedDelay(log::compactSafely, COMPACT_CHECK_SECONDS, COMPACT_CHECK_SECONDS,
+                TimeUnit.SECONDS);
+        return log;
+    }
+
+    // -------------------------------------------------------------------------
+    // Reads (served from memory)
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return the value stored under {@code key}, or {@code null} if absent
+     */
+    public String get(String namespace, String key) {
+        Map<String, String> entries = index.get(namespace);
+        return entries == null ? null : entries.get(key);
+    }
+
+    /**
+     * @return whether {@code key} is present in the namespace
+     */
+    public boolean contains(String namespace, String key) {
+        Map<String, String> entries = index.get(namespace);
+        return entries != null && entries.containsKey(key);
+    }
+
+    /**
+     * @return a read-only live view of every entry in the namespace
+     */
+    public Map<String, String> entries(String namespace) {
+        return Collections.unmodifiableMap(namespace(namespace));
+    }
+
+    // -------------------------------------------------------------------------
+    // Writes (durable on return)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Store a value and wait until it is durable.
+     *
+     * @throws IOException if the record could not be written or flushed
+     */
+    public void put(String namespace, String key, String value) throws IOException {
+        write(namespace, Map.of(key, value), List.of());
+    }
+
+    /**
+     * Remove a key and wait until the removal is durable.
+     *
+     * @throws IOException if the record could not be written or flushed
+     */
+    public void delete(String namespace, String key) throws IOException {
+        write(namespace, Map.of(), List.of(key));
+    }
+
+    /**
+     * Apply a batch of puts and deletes to one namespace and wait once for all of them to be durable.
+     *
+     * @param namespace the namespace to modify
+     * @param puts      entries to store
+     * @param deletes   keys to remove
+     * @throws IOException if the records could not be written or flushed
+     */
+    public void write(String namespace, Map<String, String> puts, Collection<String> deletes) throws IOException {
+        if (puts.isEmpty() && deletes.isEmpty()) {
+            return;
+        }
+        CompletableFuture<Void> durable;
+        synchronized (writeLock) {
+            ensureOpen();
+            int start = writePos;
+            ConcurrentHashMap<String, String> entries = namespace(namespace);
+            for (Map.Entry<String, String> e : puts.entrySet()) {
+                append(encode(OP_PUT, namespace, e.getKey(), e.getValue()));
+                entries.put(e.getKey(), e.getValue());
+            }
+            for (String key : deletes) {
+                if (entries.remove(key) != null) {
+                    append(encode(OP_DELETE, namespace, key, null));
+                }
+            }
+            if (writePos == start) {
+                return;
+            }
+            durable = nextFlush;
+        }
+        requestFlush();
+        awaitDurable(durable);
+    }
+
+    /**
+     * Refuse further writes, wait for background work to stop, flush outstanding records and close the file.
+     * Writers that appended before the close are released once the final flush completes (or fails).
+     */
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        maintenance.shutdown();
+        try {
+            if (!maintenance.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warn("Embedded log {}: background work did not stop within {} ms", path, CLOSE_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (writeLock) {
+            CompletableFuture<Void> pending = nextFlush;
+            try {
+                if (writePos > flushedPos) {
+                    buffer.force(flushedPos, writePos - flushedPos);
+                    flushedPos = writePos;
+                }
+                pending.complete(null);
+            } catch (UncheckedIOException e) {
+                logger.error("Embedded log {}: final flush failed", path, e);
+                pending.completeExceptionally(e);
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close embedded log {}", path, e);
+            }
+        }
+        logger.info("Embedded log {} closed", path);
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    private ConcurrentHashMap<String, String> namespace(String namespace) {
+        return index.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Embedded log " + path + " is closed");
+        }
+    }
+
+    private void replay() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Embedded log " + path + " is too large (" + size + " bytes)");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_CAPACITY, size));
+
+        if (size == 0) {
+            buffer.put(0, MAGIC);
+            writePos = MAGIC.length;
+        } else {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(0, magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(path + " is not an embedded log file");
+            }
+            writePos = replayRecords();
+        }
+        // Terminate the log so a stale tail is never mistaken for a record
+        buffer.putInt(writePos, 0);
+        buffer.force();
+        flushedPos = writePos;
+    }
+
+    private int replayRecords() {
+        int pos = MAGIC.length;
+        CRC32 crc = new CRC32();
+        while (pos + RECORD_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(pos);
+            // Compared this way round so a garbage length cannot overflow past the check
+            if (length <= 0 || length > buffer.capacity() - pos - RECORD_HEADER) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(pos + RECORD_HEADER, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+                logger.warn("Embedded log {}: checksum mismatch at offset {}; truncating tail", path, pos);
+                break;
+            }
+            applyRecord(ByteBuffer.wrap(payload));
+            pos += RECORD_HEADER + length;
+        }
+        return pos;
+    }
+
+    private void applyRecord(ByteBuffer payload) {
+        byte op = payload.get();
+        String ns = readString(payload, payload.getShort());
+        String key = readString(payload, payload.getShort());
+        if (op == OP_PUT) {
+            namespace(ns).put(key, readString(payload, payload.getInt()));
+        } else {
+            namespace(ns).remove(key);
+        }
+    }
+
+    private static String readString(ByteBuffer buf, int length) {
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(byte op, String namespace, String key, String value) {
+        byte[] ns = namespace.getBytes(StandardCharsets.UTF_8);
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] v = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocate(1 + 2 + ns.length + 2 + k.length + (v == null ? 0 : 4 + v.length));
+        buf.put(op).putShort((short) ns.length).put(ns).putShort((short) k.length).put(k);
+        if (v != null) {
+            buf.putInt(v.length).put(v);
+        }
+        return buf.array();
+    }
+
+    /**
+     * Append one encoded record. Caller must hold {@code writeLock}.
+     */
+    private void append(byte[] payload) throws IOException {
+        ensureCapacity(RECORD_HEADER + payload.length + 4);
+        writePos = writeRecord(buffer, writePos, payload);
+    }
+
+    /**
+     * Write a record followed by an end-of-log marker.
+     * The length is written last so a torn write is never replayed.
+     *
+     * @return the offset just past the record
+     */
+    private static int writeRecord(MappedByteBuffer target, int pos, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        target.putInt(pos + 4, (int) crc.getValue());
+        target.put(pos + RECORD_HEADER, payload);
+        target.putInt(pos + RECORD_HEADER + payload.length, 0);
+        target.putInt(pos, payload.length);
+        return pos + RECORD_HEADER + payload.length;
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        if ((long) writePos + needed <= buffer.capacity()) {
+            return;
+        }
+        long capacity = buffer.capacity();
+        while (capacity < (long) writePos + needed) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Embedded log " + path + " is full");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void awaitDurable(CompletableFuture<Void> durable) throws IOException {
+        try {
+            durable.get(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Embedded log flush did not finish within " + FLUSH_TIMEOUT_MS + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for embedded log flush", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Embedded log flush failed", e.getCause());
+        }
+    }
+
+    /**
+     * Schedule a flush on the maintenance thread unless one is already queued.
+     */
+    private void requestFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                maintenance.execute(() -> {
+                    flushScheduled.set(false);
+                    flushSafely();
+                });
+            } catch (RejectedExecutionException e) {
+                // Closing: flush on this thread; close() also flushes whatever is left once maintenance stops
+                flushScheduled.set(false);
+                flushSafely();
+            }
+        }
+    }
+
+    /**
+     * Force every record appended since the last flush and release the writers waiting on it.
+     * Still runs after {@link #close()} has refused new writes, so records appended just before it are flushed.
+     */
+    private void flushSafely() {
+        CompletableFuture<Void> completing;
+        MappedByteBuffer target;
+        int from;
+        int to;
+        synchronized (writeLock) {
+            if (writePos == flushedPos) {
+                return;
+            }
+            completing = nextFlush;
+            nextFlush = new CompletableFuture<>();
+            target = buffer;
+            from = flushedPos;
+            to = writePos;
+        }
+        try {
+            target.force(from, to - from);
+            synchronized (writeLock) {
+                flushedPos = Math.max(flushedPos, to);
+            }
+            completing.complete(null);
+        } catch (UncheckedIOException e) {
+            logger.error("Embedded log {}: flush failed", path, e);
+            completing.completeExceptionally(e);
+        }
+    }
+
+    private void compactSafely() {
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.error("Embedded log {}: compaction failed", path, e);
+        }
+    }
+
+    /**
+     * Rewrite the log with only live entries once superseded records make up more than half of it.
+     * Package-private so tests can compact without waiting for the maintenance schedule.
+     */
+    void compact() throws IOException {
+        synchronized (writeLock) {
+            if (closed || writePos < COMPACT_MIN_BYTES) {
+                return;
+            }
+            List<byte[]> records = new ArrayList<>();
+            long liveBytes = MAGIC.length;
+            for (Map.Entry<String, ConcurrentHashMap<String, String>> ns : index.entrySet()) {
+                for (Map.Entry<String, String> e : ns.getValue().entrySet()) {
+                    byte[] record = encode(OP_PUT, ns.getKey(), e.getKey(), e.getValue());
+                    records.add(record);
+                    liveBytes += RECORD_HEADER + record.length;
+                }
+            }
+            if (liveBytes * 2 > writePos) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            int before = writePos;
+            long capacity = INITIAL_CAPACITY;
+            while (capacity < liveBytes * 2 + 4) {
+                capacity *= 2;
+            }
+
+            // Write the compacted file completely before touching the live one
+            Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+            int compactedPos = MAGIC.length;
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                target.put(0, MAGIC);
+                target.putInt(compactedPos, 0);
+                for (byte[] record : records) {
+                    compactedPos = writeRecord(target, compactedPos, record);
+                }
+                target.force();
+            }
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            channel.close();
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            writePos = compactedPos;
+
+            // Everything pending is now part of the forced, compacted file
+            flushedPos = writePos;
+            nextFlush.complete(null);
+            nextFlush = new CompletableFuture<>();
+            logger.info("Embedded log {} compacted from {} to {} bytes in {} ms", path, before, writePos,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
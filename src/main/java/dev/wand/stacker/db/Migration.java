@@ -0,0 +1,20 @@
+package dev.wand.stacker.db;
+
+import java.util.List;
+
+/**
+ * A single versioned schema change.
+ * <p>
+ * Migrations are applied in ascending {@code version} order, each exactly once.
+ * Never edit a migration that has shipped — add a new one instead.
+ *
+ * @param version     Strictly increasing schema version this migration produces
+ * @param description Short human-readable summary, stored in {@code schema_version}
+ * @param statements  SQL statements executed in order inside the migration transaction
+ */
+public record Migration(int version, String description, List<String> statements) {
+
+    public Migration(int version, String description, String... statements) {
+        this(version, description, List.of(statements));
+    }
+}
@@ -0,0 +1,118 @@
+package dev.wand.stacker.db;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.ConfigKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.*;
+
+/**
+ * Applies pending {@link Migrations} to the database.
+ *
+ * <p>On an up-to-date database startup costs a single {@code SELECT} against
+ * {@code schema_version}. When migrations are pending they all run in one transaction
+ * under a transaction-scoped advisory lock, so concurrently starting instances never
+ * apply the same migration twice and a failed migration leaves the schema untouched.</p>
+ *
+ * <p>Migrations that backfill from configuration read it with {@code current_setting}: the
+ * transaction sets {@code stacker.main_guild_id} before applying anything.</p>
+ */
+final class MigrationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+
+    /**
+     * Arbitrary application-wide key for {@code pg_advisory_xact_lock}.
+     */
+    private static final long MIGRATION_LOCK_KEY = 0x5374_6163_6B65_7201L;
+
+    private static final String UNDEFINED_TABLE = "42P01";
+
+    private MigrationRunner() {
+    }
+
+    /**
+     * Bring the schema up to {@link Migrations#latestVersion()}.
+     *
+     * @param dataSource the pool to borrow a connection from
+     * @throws SQLException if reading the version or applying a migration fails
+     */
+    static void migrate(DataSource dataSource) throws SQLException {
+        int latest = Migrations.latestVersion();
+
+        try (Connection conn = dataSource.getConnection()) {
+            int current = readVersion(conn);
+            if (current >= latest) {
+                logger.info("Database schema up to date (version {})", current);
+                return;
+            }
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT pg_advisory_xact_lock(" + MIGRATION_LOCK_KEY + ")");
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "SELECT set_config('stacker.main_guild_id', ?, true)")) {
+                    ps.setString(1, Config.get(ConfigKey.MAIN_GUILD_ID));
+                    ps.execute();
+                }
+                stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS schema_version (
+                            version     INT PRIMARY KEY,
+                            description TEXT NOT NULL,
+                            applied_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+                        )
+                        """);
+
+                // Another instance may have migrated while we waited for the lock
+                current = readVersion(conn);
+                for (Migration migration : Migrations.ALL) {
+                    if (migration.version() <= current) {
+                        continue;
+                    }
+                    apply(conn, stmt, migration);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            logger.info("Database schema migrated from version {} to {}", current, latest);
+        }
+    }
+
+    private static void apply(Connection conn, Statement stmt, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        for (String sql : migration.statements()) {
+            stmt.execute(sql);
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            ps.setInt(1, migration.version());
+            ps.setString(2, migration.description());
+            ps.executeUpdate();
+        }
+        logger.info("Applied migration {} ({}) in {} ms", migration.version(), migration.description(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return the highest applied version, or 0 if the schema has never been versioned
+     */
+    private static int readVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            if (!UNDEFINED_TABLE.equals(e.getSQLState())) {
+                throw e;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package dev.wand.stacker.db;
+
+import java.util.List;
+
+/**
+ * Ordered list of every schema migration.
+ * <p>
+ * To change the schema, append a new {@link Migration} with the next version number.
+ * {@link MigrationRunner} applies anything newer than the version recorded in the database.
+ */
+final class Migrations {
+
+    static final List<Migration> ALL = List.of(
+            new Migration(1, "baseline tables",
+                    // Matches the tables created before versioning existed, so old databases adopt it as-is
+                    """
+                    CREATE TABLE IF NOT EXISTS live_stats_embeds (
+                        channel_id  VARCHAR(32) NOT NULL,
+                        message_id  VARCHAR(32) NOT NULL,
+                        PRIMARY KEY (channel_id, message_id)
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS pending_testers (
+                        user_id VARCHAR(32) PRIMARY KEY
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS bot_state (
+                        key   VARCHAR(64) PRIMARY KEY,
+                        value TEXT NOT NULL
+                    )
+                    """),
+
+            new Migration(2, "bigint snowflake keys and indexes",
+                    """
+                    ALTER TABLE live_stats_embeds
+                        ALTER COLUMN channel_id TYPE BIGINT USING channel_id::BIGINT,
+                        ALTER COLUMN message_id TYPE BIGINT USING message_id::BIGINT
+                    """,
+                    """
+                    ALTER TABLE pending_testers
+                        ALTER COLUMN user_id TYPE BIGINT USING user_id::BIGINT,
+                        ADD COLUMN added_at TIMESTAMPTZ NOT NULL DEFAULT now()
+                    """,
+                    "CREATE INDEX pending_testers_added_at_idx ON pending_testers (added_at)"),
+
+            new Migration(3, "monthly partitioned game stats history",
+                    // Partitions are created ahead of time and retired by PartitionMaintenance
+                    """
+                    CREATE TABLE game_stats_history (
+                        universe_id     BIGINT      NOT NULL,
+                        sampled_at      TIMESTAMPTZ NOT NULL,
+                        players_online  BIGINT      NOT NULL,
+                        server_count    INT         NOT NULL,
+                        visits          BIGINT      NOT NULL,
+                        up_votes        BIGINT      NOT NULL,
+                        favourites      BIGINT      NOT NULL,
+                        PRIMARY KEY (universe_id, sampled_at)
+                    ) PARTITION BY RANGE (sampled_at)
+                    """),
+
+            new Migration(4, "forum thread index",
+                    // Only read in full on startup; all queries run against the in-memory ThreadIndex
+                    """
+                    CREATE TABLE forum_threads (
+                        thread_id      BIGINT      PRIMARY KEY,
+                        guild_id       BIGINT      NOT NULL,
+                        forum_id       BIGINT      NOT NULL,
+                        owner_id       BIGINT      NOT NULL,
+                        status_tag_id  BIGINT      NOT NULL DEFAULT 0,
+                        title          TEXT        NOT NULL,
+                        created_at     TIMESTAMPTZ NOT NULL,
+                        closed_at      TIMESTAMPTZ
+                    )
+                    """),
+
+            new Migration(5, "thread MinHash signatures",
+                    """
+                    CREATE TABLE thread_signatures (
+                        thread_id  BIGINT PRIMARY KEY,
+                        signature  BYTEA  NOT NULL
+                    )
+                    """),
+
+            new Migration(6, "outbox jobs",
+                    // run_at doubles as the lease expiry while a job is running, so one index covers both
+                    """
+                    CREATE TABLE outbox_jobs (
+                        id            BIGSERIAL   PRIMARY KEY,
+                        kind          VARCHAR(32) NOT NULL,
+                        payload       TEXT        NOT NULL,
+                        status        VARCHAR(16) NOT NULL DEFAULT 'pending',
+                        attempts      INT         NOT NULL DEFAULT 0,
+                        run_at        TIMESTAMPTZ NOT NULL DEFAULT now(),
+                        last_error    TEXT,
+                        created_at    TIMESTAMPTZ NOT NULL DEFAULT now(),
+                        completed_at  TIMESTAMPTZ
+                    )
+                    """,
+                    "CREATE INDEX outbox_jobs_due_idx ON outbox_jobs (run_at) WHERE status IN ('pending', 'running')",
+                    "CREATE INDEX outbox_jobs_completed_idx ON outbox_jobs (completed_at) WHERE status = 'done'"),
+
+            new Migration(7, "change notifications for cached tables",
+                    // Consumed by ChangeFeed; TRUNCATE sends neither row, which tells listeners to reload
+                    """
+                    CREATE FUNCTION stacker_notify_change() RETURNS trigger AS $$
+                    BEGIN
+                        PERFORM pg_notify('stacker_changes', json_build_object(
+                            'table', TG_TABLE_NAME,
+                            'op', TG_OP,
+                            'old', CASE WHEN TG_OP IN ('UPDATE', 'DELETE') THEN row_to_json(OLD) END,
+                            'new', CASE WHEN TG_OP IN ('INSERT', 'UPDATE') THEN row_to_json(NEW) END
+                        )::text);
+                        RETURN NULL;
+                    END;
+                    $$ LANGUAGE plpgsql
+                    """,
+                    """
+                    CREATE TRIGGER live_stats_embeds_notify
+                        AFTER INSERT OR UPDATE OR DELETE ON live_stats_embeds
+                        FOR EACH ROW EXECUTE FUNCTION stacker_notify_change()
+                    """,
+                    """
+                    CREATE TRIGGER live_stats_embeds_notify_truncate
+                        AFTER TRUNCATE ON live_stats_embeds
+                        FOR EACH STATEMENT EXECUTE FUNCTION stacker_notify_change()
+                    """,
+                    """
+                    CREATE TRIGGER pending_testers_notify
+                        AFTER INSERT OR UPDATE OR DELETE ON pending_testers
+                        FOR EACH ROW EXECUTE FUNCTION stacker_notify_change()
+                    """,
+                    """
+                    CREATE TRIGGER pending_testers_notify_truncate
+                        AFTER TRUNCATE ON pending_testers
+                        FOR EACH STATEMENT EXECUTE FUNCTION stacker_notify_change()
+                    """),
+
+            new Migration(8, "per-guild settings",
+                    // Cached by GuildConfig and kept current through the ChangeFeed, so rows apply without a restart
+                    """
+                    CREATE TABLE guild_settings (
+                        guild_id          BIGINT      PRIMARY KEY,
+                        forum_channel_id  BIGINT      NOT NULL UNIQUE,
+                        tag_ids           JSONB       NOT NULL DEFAULT '{}',
+                        tester_role_ids   BIGINT[]    NOT NULL DEFAULT '{}',
+                        universe_id       BIGINT      NOT NULL,
+                        updated_at        TIMESTAMPTZ NOT NULL DEFAULT now()
+                    )
+                    """,
+                    """
+                    CREATE TRIGGER guild_settings_notify
+                        AFTER INSERT OR UPDATE OR DELETE ON guild_settings
+                        FOR EACH ROW EXECUTE FUNCTION stacker_notify_change()
+                    """,
+                    """
+                    CREATE TRIGGER guild_settings_notify_truncate
+                        AFTER TRUNCATE ON guild_settings
+                        FOR EACH STATEMENT EXECUTE FUNCTION stacker_notify_change()
+                    """),
+
+            new Migration(9, "per-guild pending testers",
+                    // Rows from before this version were all recorded in the main guild
+                    """
+                    ALTER TABLE pending_testers
+                        ADD COLUMN guild_id BIGINT NOT NULL
+                            DEFAULT current_setting('stacker.main_guild_id')::BIGINT
+                    """,
+                    "ALTER TABLE pending_testers ALTER COLUMN guild_id DROP DEFAULT",
+                    "ALTER TABLE pending_testers DROP CONSTRAINT pending_testers_pkey",
+                    "ALTER TABLE pending_testers ADD PRIMARY KEY (guild_id, user_id)"),
+
+            new Migration(10, "purge failed outbox jobs",
+                    // Failed jobs are purged after the same retention as done ones
+                    "DROP INDEX outbox_jobs_completed_idx",
+                    "CREATE INDEX outbox_jobs_completed_idx ON outbox_jobs (completed_at) " +
+                            "WHERE status IN ('done', 'failed')"),
+
+            new Migration(11, "forum thread status change time",
+                    // Unknown for existing rows; creation time is what staleness was measured from before
+                    "ALTER TABLE forum_threads ADD COLUMN status_changed_at TIMESTAMPTZ",
+                    "UPDATE forum_threads SET status_changed_at = created_at",
+                    "ALTER TABLE forum_threads ALTER COLUMN status_changed_at SET NOT NULL")
+    );
+
+    private Migrations() {
+    }
+
+    /**
+     * @return the schema version produced by the newest migration
+     */
+    static int latestVersion() {
+        return ALL.get(ALL.size() - 1).version();
+    }
+}
@@ -0,0 +1,156 @@
+package dev.wand.stacker.db;
+
+import dev.wand.stacker.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code game_stats_history} in shape.
+ *
+ * <p>Each run (at startup, then daily):</p>
+ * <ul>
+ *   <li>creates partitions for the current month and {@code STATS_HISTORY_PARTITIONS_AHEAD} months ahead</li>
+ *   <li>detaches partitions whose whole month is older than {@code STATS_HISTORY_RETENTION_MONTHS},
+ *       then drops them unless {@code STATS_HISTORY_DETACH_ONLY} is set</li>
+ * </ul>
+ * Retention is therefore a catalog operation per month instead of a large {@code DELETE}.
+ * Runs take a transaction-scoped advisory lock so concurrent instances do not race.
+ */
+public final class PartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenance.class);
+
+    private static final String PARENT_TABLE = "game_stats_history";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARENT_TABLE + "_y(\\d{4})m(\\d{2})");
+    private static final long MAINTENANCE_LOCK_KEY = 0x5374_6163_6B65_7202L;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "partition-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PartitionMaintenance() {
+    }
+
+    /**
+     * Run maintenance now and then once a day.
+     */
+    public static void start() {
+        SCHEDULER.scheduleAtFixedRate(PartitionMaintenance::runSafely, 0, 1, TimeUnit.DAYS);
+    }
+
+    private static void runSafely() {
+        try {
+            run();
+        } catch (Exception e) {
+            logger.error("Partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Create upcoming partitions and retire expired ones.
+     *
+     * @throws SQLException if any catalog operation fails
+     */
+    public static void run() throws SQLException {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        YearMonth oldestKept = current.minusMonths(Config.getStatsHistoryRetentionMonths());
+
+        try (Connection conn = Database.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT pg_try_advisory_xact_lock(" + MAINTENANCE_LOCK_KEY + ")")) {
+                    rs.next();
+                    if (!rs.getBoolean(1)) {
+                        logger.info("Partition maintenance already running elsewhere; skipping");
+                        conn.rollback();
+                        return;
+                    }
+                }
+
+                int created = 0;
+                for (int i = 0; i <= Config.getStatsHistoryPartitionsAhead(); i++) {
+                    if (createPartition(stmt, current.plusMonths(i))) {
+                        created++;
+                    }
+                }
+
+                int retired = 0;
+                for (String partition : listPartitions(conn)) {
+                    Matcher m = PARTITION_NAME.matcher(partition);
+                    if (!m.matches()) {
+                        continue;
+                    }
+                    YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+                    if (month.isBefore(oldestKept)) {
+                        stmt.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition);
+                        if (!Config.isStatsHistoryDetachOnly()) {
+                            stmt.execute("DROP TABLE " + partition);
+                        }
+                        retired++;
+                    }
+                }
+
+                conn.commit();
+                logger.info("Partition maintenance: {} partition(s) created, {} retired", created, retired);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the partition did not exist and was created
+     */
+    private static boolean createPartition(Statement stmt, YearMonth month) throws SQLException {
+        String name = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        try (ResultSet rs = stmt.executeQuery("SELECT to_regclass('" + name + "') IS NULL")) {
+            rs.next();
+            if (!rs.getBoolean(1)) {
+                return false;
+            }
+        }
+        stmt.execute("CREATE TABLE " + name + " PARTITION OF " + PARENT_TABLE
+                + " FOR VALUES FROM ('" + from + " 00:00:00+00') TO ('" + to + " 00:00:00+00')");
+        return true;
+    }
+
+    private static List<String> listPartitions(Connection conn) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("""
+                SELECT child.relname
+                FROM pg_inherits i
+                JOIN pg_class child  ON child.oid = i.inhrelid
+                JOIN pg_class parent ON parent.oid = i.inhparent
+                WHERE parent.relname = ?
+                """)) {
+            ps.setString(1, PARENT_TABLE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s_y%04dm%02d", PARENT_TABLE, month.getYear(), month.getMonthValue());
+    }
+}
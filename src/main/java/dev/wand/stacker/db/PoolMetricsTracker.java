@@ -0,0 +1,56 @@
+package dev.wand.stacker.db;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import dev.wand.stacker.metrics.Metrics;
+
+/**
+ * Reports HikariCP pool activity into {@link Metrics}.
+ * <p>
+ * Timers: {@code db.pool.acquire}, {@code db.pool.usage}, {@code db.pool.create}.
+ * Counter: {@code db.pool.timeouts}.
+ * Gauges: {@code db.pool.active}, {@code db.pool.idle}, {@code db.pool.total}, {@code db.pool.pending}.
+ */
+final class PoolMetricsTracker implements IMetricsTracker {
+
+    /**
+     * Factory handed to {@link com.zaxxer.hikari.HikariConfig#setMetricsTrackerFactory}.
+     */
+    static final MetricsTrackerFactory FACTORY = PoolMetricsTracker::new;
+
+    private PoolMetricsTracker(String poolName, PoolStats stats) {
+        Metrics.gauge("db.pool.active", stats::getActiveConnections);
+        Metrics.gauge("db.pool.idle", stats::getIdleConnections);
+        Metrics.gauge("db.pool.total", stats::getTotalConnections);
+        Metrics.gauge("db.pool.pending", stats::getPendingThreads);
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        Metrics.recordMillis("db.pool.create", connectionCreatedMillis);
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        Metrics.recordNanos("db.pool.acquire", elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        Metrics.recordMillis("db.pool.usage", elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        Metrics.increment("db.pool.timeouts");
+    }
+
+    @Override
+    public void close() {
+        Metrics.removeGauge("db.pool.active");
+        Metrics.removeGauge("db.pool.idle");
+        Metrics.removeGauge("db.pool.total");
+        Metrics.removeGauge("db.pool.pending");
+    }
+}
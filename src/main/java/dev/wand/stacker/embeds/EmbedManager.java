@@ -1,6 +1,10 @@
 package dev.wand.stacker.embeds;
 
+import dev.wand.stacker.index.DuplicateDetector;
+import dev.wand.stacker.jobs.PendingTesterReconciliationJob;
 import dev.wand.stacker.services.GameStats;
+import dev.wand.stacker.services.StatsWindow;
+import dev.wand.stacker.services.TesterRoleService;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 
@@ -9,7 +13,10 @@ import java.text.NumberFormat;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
 
 /**
  * Centralized manager for all bot embeds.
@@ -26,6 +33,7 @@ public class EmbedManager {
     private static final Color COLOR_ERROR = new Color(237, 66, 69); // Red
     private static final Color COLOR_INFO = new Color(88, 101, 242); // Discord Blurple
     private static final Color COLOR_WARNING = new Color(254, 231, 92); // Yellow
+    private static final long TREND_MIN_SPAN_MS = 60_000L;
     private static final DateTimeFormatter TIME_FMT =
             DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneOffset.UTC);
 
@@ -168,6 +176,56 @@ public class EmbedManager {
                 .build();
     }
 
+    /**
+     * Create the embed listing existing threads that look like a new report.
+     * This is posted in a new Tester Log Forum thread when duplicate detection finds matches.
+     *
+     * @param matches The similar threads, most similar first
+     * @return The possible duplicates embed
+     */
+    public static MessageEmbed createPossibleDuplicatesEmbed(List<DuplicateDetector.Match> matches) {
+        StringBuilder description = new StringBuilder("This report looks similar to:\n");
+        for (DuplicateDetector.Match match : matches) {
+            description.append("\n• [").append(match.thread().title()).append("](")
+                    .append(match.thread().jumpUrl()).append(") — ")
+                    .append(Math.round(match.similarity() * 100)).append("% similar");
+        }
+        description.append("\n\nIf one of these is the same issue, staff can use `/duplicate`.");
+        return new EmbedBuilder()
+                .setTitle("🔎 Possible Duplicates")
+                .setDescription(description.toString())
+                .setColor(COLOR_INFO)
+                .setTimestamp(Instant.now())
+                .setFooter("Stacker Bot", null)
+                .build();
+    }
+
+    /**
+     * Create the summary embed posted after a stale-thread sweep.
+     *
+     * @param archivedByStatus The number of archived threads per status name
+     * @param failed           The number of threads that could not be archived
+     * @param deferred         The number of eligible threads left for the next run
+     * @return The sweep summary embed
+     */
+    public static MessageEmbed createSweepSummaryEmbed(Map<String, Integer> archivedByStatus, int failed, int deferred) {
+        int archived = archivedByStatus.values().stream().mapToInt(Integer::intValue).sum();
+        EmbedBuilder builder = new EmbedBuilder()
+                .setTitle("🧹 Stale Thread Sweep")
+                .setDescription("Archived **" + archived + "** stale thread" + (archived == 1 ? "" : "s") + ".")
+                .setColor(failed > 0 ? COLOR_WARNING : COLOR_SUCCESS)
+                .setTimestamp(Instant.now())
+                .setFooter("Stacker Bot", null);
+        archivedByStatus.forEach((status, count) -> builder.addField(status, "`" + fmt(count) + "`", true));
+        if (failed > 0) {
+            builder.addField("Failed", "`" + fmt(failed) + "`", true);
+        }
+        if (deferred > 0) {
+            builder.addField("Left for next run", "`" + fmt(deferred) + "`", true);
+        }
+        return builder.build();
+    }
+
     /**
      * Create the embed for permission denied errors.
      *
@@ -228,49 +286,131 @@ public class EmbedManager {
                 .build();
     }
 
+    /**
+     * Create the progress / result embed for a bulk /tester run.
+     * The same message is edited with this embed while the run progresses.
+     *
+     * @param progress   The running or final totals
+     * @param invalidIds How many ID-like values in the input were skipped because they are not valid user IDs
+     * @return The bulk tester embed
+     */
+    public static MessageEmbed createTesterBulkEmbed(TesterRoleService.Progress progress, int invalidIds) {
+        int handled = progress.granted() + progress.alreadyTester() + progress.pending() + progress.failed();
+        boolean done = progress.isDone();
+        EmbedBuilder embed = new EmbedBuilder()
+                .setTitle(done ? "✅ Tester Roles Assigned" : "⏳ Assigning Tester Roles")
+                .setDescription("Processed **" + fmt(handled) + "** of **" + fmt(progress.total()) + "** user(s).")
+                .setColor(!done ? COLOR_INFO : progress.failed() > 0 ? COLOR_WARNING : COLOR_SUCCESS)
+                .addField("Assigned", "`" + fmt(progress.granted()) + "`", true)
+                .addField("Already testers", "`" + fmt(progress.alreadyTester()) + "`", true)
+                .addField("Pending (not in server)", "`" + fmt(progress.pending()) + "`", true)
+                .addField("Failed", "`" + fmt(progress.failed()) + "`", true)
+                .setTimestamp(Instant.now());
+        if (invalidIds > 0) {
+            embed.addField("Skipped (invalid IDs)", "`" + fmt(invalidIds) + "`", true);
+        }
+        return embed.build();
+    }
+
+    /**
+     * Create the result embed for a pending-tester reconciliation.
+     *
+     * @param result The reconciliation outcome
+     * @return The reconciliation embed
+     */
+    public static MessageEmbed createTesterReconcileEmbed(PendingTesterReconciliationJob.Result result) {
+        int stillPending = result.pending() - result.reconciled();
+        EmbedBuilder embed = new EmbedBuilder()
+                .setTitle("✅ Pending Testers Reconciled")
+                .setDescription("Checked **" + fmt(result.pending()) + "** pending user(s) in "
+                        + fmt(result.elapsedMs()) + " ms.")
+                .setColor(result.failed() > 0 || result.failedGuilds() > 0 ? COLOR_WARNING : COLOR_SUCCESS)
+                .addField("Reconciled", "`" + fmt(result.reconciled()) + "`", true)
+                .addField("Still pending", "`" + fmt(stillPending) + "`", true)
+                .addField("Failed", "`" + fmt(result.failed()) + "`", true)
+                .setTimestamp(Instant.now());
+        if (result.failedGuilds() > 0) {
+            embed.addField("Servers failed", "`" + fmt(result.failedGuilds()) + "`", true);
+        }
+        return embed.build();
+    }
+
     private static String fmt(long n) {
         return NumberFormat.getInstance(Locale.US).format(n);
     }
 
     /**
-     * Create a one-shot stats embed for the /stats command.
+     * Format a player count with its recent movement, e.g. {@code 1,234} over {@code +312 in 10m ↑}.
+     * The movement is left out until the trend spans at least a minute.
+     */
+    private static String playersValue(GameStats stats, StatsWindow.Trend trend) {
+        String value = "`" + fmt(stats.playersOnline) + "`";
+        if (trend == null || trend.spanMs() < TREND_MIN_SPAN_MS) {
+            return value;
+        }
+        long delta = trend.delta();
+        String change = delta > 0 ? "+" + fmt(delta) + " in " + trendMinutes(trend) + "m ↑"
+                : delta < 0 ? "-" + fmt(-delta) + " in " + trendMinutes(trend) + "m ↓"
+                : "±0 in " + trendMinutes(trend) + "m →";
+        return value + "\n" + change;
+    }
+
+    private static long trendMinutes(StatsWindow.Trend trend) {
+        return Math.round(trend.spanMs() / 60_000.0);
+    }
+
+    /**
+     * Create a one-shot stats embed for the /stats command, including the 24-hour player peak.
      *
-     * @param stats The fetched game stats
+     * @param stats          The fetched game stats
+     * @param trend          The recent player trend matching {@code stats}, or {@code null} if unknown
+     * @param peakPlayers24h The highest player count in the last 24 hours, if history is available
      * @return A blurple-styled MessageEmbed with game statistics
      */
-    public static MessageEmbed createStatsEmbed(GameStats stats) {
-        return new EmbedBuilder()
+    public static MessageEmbed createStatsEmbed(GameStats stats, StatsWindow.Trend trend,
+                                                OptionalLong peakPlayers24h) {
+        EmbedBuilder builder = new EmbedBuilder()
                 .setTitle("📊 Stacker — Game Stats")
                 .setColor(new Color(0x58, 0x65, 0xF2)) // Discord Blurple
-                .addField("Players", "`" + fmt(stats.playersOnline) + "`", true)
+                .addField("Players", playersValue(stats, trend), true)
                 .addField("Servers", "`" + fmt(stats.serverCount) + "`", true)
                 .addField("Visits", "`" + fmt(stats.visits) + "`", true)
                 .addField("👍", "`" + fmt(stats.upVotes) + "`", true)
-                .addField("⭐", "`" + fmt(stats.favourites) + "`", true)
+                .addField("⭐", "`" + fmt(stats.favourites) + "`", true);
+        peakPlayers24h.ifPresent(peak ->
+                builder.addField("Peak (24h)", "`" + fmt(Math.max(peak, stats.playersOnline)) + "`", true));
+        return builder
                 .setFooter("Last updated")
-                .setTimestamp(Instant.now())
+                .setTimestamp(stats.retrievedAt)
                 .build();
     }
 
     /**
      * Create a live-mode stats embed for the /stats admin:true command.
      *
-     * @param stats The fetched game stats
+     * @param stats                   The fetched game stats
+     * @param trend                   The recent player trend matching {@code stats}, or {@code null} if unknown
+     * @param nextRefreshEpochSeconds The epoch second of the next scheduled refresh
      * @return A red-orange-styled MessageEmbed with live game statistics
      */
-    public static MessageEmbed createLiveStatsEmbed(GameStats stats) {
-        long nextRefresh = Instant.now().plusSeconds(120).getEpochSecond();
-        return new EmbedBuilder()
+    public static MessageEmbed createLiveStatsEmbed(GameStats stats, StatsWindow.Trend trend,
+                                                    long nextRefreshEpochSeconds) {
+        EmbedBuilder builder = new EmbedBuilder()
                 .setTitle("<a:earth_spin:1479522132273660128> Live Stats")
-                .setDescription("Refreshing <t:" + nextRefresh + ":R>")
+                .setDescription("Refreshing <t:" + nextRefreshEpochSeconds + ":R>")
                 .setColor(COLOR_SUCCESS) // Red-orange
-                .addField("Players", "`" + fmt(stats.playersOnline) + "`", true)
+                .addField("Players", playersValue(stats, trend), true)
                 .addField("Servers", "`" + fmt(stats.serverCount) + "`", true)
                 .addField("Visits", "`" + fmt(stats.visits) + "`", true)
                 .addField("👍", "`" + fmt(stats.upVotes) + "`", true)
-                .addField("⭐", "`" + fmt(stats.favourites) + "`", true)
+                .addField("⭐", "`" + fmt(stats.favourites) + "`", true);
+        if (trend != null && trend.spanMs() >= TREND_MIN_SPAN_MS) {
+            builder.addField("Range (" + trendMinutes(trend) + "m)",
+                    "`" + fmt(trend.min()) + " – " + fmt(trend.max()) + "`", true);
+        }
+        return builder
                 .setFooter("Last updated")
-                .setTimestamp(Instant.now())
+                .setTimestamp(stats.retrievedAt)
                 .build();
     }
 
@@ -0,0 +1,259 @@
+package dev.wand.stacker.index;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.TagKind;
+import dev.wand.stacker.jobs.RestWorkQueue;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Near-duplicate detection for Tester Log Forum threads using MinHash and locality-sensitive hashing.
+ * <p>
+ * Each thread's title and starter message are reduced to a {@link MinHash} signature. The signature
+ * is cut into {@value #BANDS} bands of {@value #ROWS} values; threads sharing any band land in the
+ * same bucket. A lookup only compares against the threads in its own buckets, so its cost depends
+ * on how many similar threads exist, not on the size of the forum. Buckets are shared by all served
+ * guilds, but matches are only reported from the queried thread's own forum.
+ * <p>
+ * Signatures are persisted through {@link dev.wand.stacker.repository.ThreadSignatureRepository}.
+ * On restart only threads without a stored signature are signed again.
+ */
+public final class DuplicateDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateDetector.class);
+
+    private static final int BANDS = 32;
+    private static final int ROWS = MinHash.SIGNATURE_LENGTH / BANDS;
+    private static final int MAX_MATCHES = 3;
+
+    // Starter messages fetched while backfilling signatures share the REST budget with live traffic
+    private static final RestWorkQueue QUEUE = new RestWorkQueue("signatures", 4, 5.0, 5);
+
+    // Both maps are guarded by the class lock; updates are rare compared to the gateway event rate
+    private static final Map<Long, int[]> SIGNATURES = new HashMap<>();
+    private static final Map<Long, Set<Long>> BUCKETS = new HashMap<>();
+
+    static {
+        Metrics.gauge("duplicates.signatures", DuplicateDetector::size);
+    }
+
+    private DuplicateDetector() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * A previously indexed thread that resembles the queried one.
+     *
+     * @param thread     The similar thread
+     * @param similarity Estimated Jaccard similarity, from 0 to 1
+     */
+    public record Match(ThreadRecord thread, double similarity) {
+    }
+
+    /**
+     * Sign a thread, find existing threads similar to it and add it to the index.
+     *
+     * @param threadId The thread ID
+     * @param forumId  The thread's forum; only threads in the same forum are reported
+     * @param text     The thread title and starter message
+     * @return Up to three similar threads, most similar first
+     */
+    public static List<Match> checkAndIndex(long threadId, long forumId, String text) {
+        int[] signature = MinHash.signature(text);
+        long startNanos = System.nanoTime();
+        List<Match> matches = findSimilar(threadId, forumId, signature);
+        Metrics.recordNanos("duplicates.lookup", System.nanoTime() - startNanos);
+        add(threadId, signature);
+        persist(threadId, signature);
+        return matches;
+    }
+
+    /**
+     * Drop a thread from the index and storage.
+     *
+     * @param threadId The thread ID
+     */
+    public static void remove(long threadId) {
+        boolean removed;
+        synchronized (DuplicateDetector.class) {
+            removed = unlink(threadId);
+        }
+        if (removed) {
+            try {
+                Repositories.threadSignatures().delete(threadId);
+            } catch (StorageException e) {
+                logger.error("Failed to delete signature for thread {}", threadId, e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of signed threads
+     */
+    public static synchronized int size() {
+        return SIGNATURES.size();
+    }
+
+    static synchronized List<Match> findSimilar(long threadId, long forumId, int[] signature) {
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<Long> bucket = BUCKETS.get(bandKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        candidates.remove(threadId);
+
+        double threshold = Config.getDuplicateMinSimilarityPercent() / 100.0;
+        List<Match> matches = new ArrayList<>();
+        for (Long candidate : candidates) {
+            double similarity = MinHash.similarity(signature, SIGNATURES.get(candidate));
+            if (similarity < threshold) {
+                continue;
+            }
+            // Threads already closed as duplicates only point elsewhere; suggest their originals instead
+            ThreadIndex.get(candidate)
+                    .filter(record -> record.forumId() == forumId)
+                    .filter(record -> GuildConfig.tagKind(record.statusTagId()) != TagKind.DUPLICATE)
+                    .ifPresent(record -> matches.add(new Match(record, similarity)));
+        }
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed());
+        return matches.size() > MAX_MATCHES ? List.copyOf(matches.subList(0, MAX_MATCHES)) : matches;
+    }
+
+    static synchronized void add(long threadId, int[] signature) {
+        unlink(threadId);
+        SIGNATURES.put(threadId, signature);
+        for (int band = 0; band < BANDS; band++) {
+            BUCKETS.computeIfAbsent(bandKey(signature, band), k -> new HashSet<>()).add(threadId);
+        }
+    }
+
+    /**
+     * Drop a thread's signature and buckets. Callers hold the class lock.
+     */
+    static boolean unlink(long threadId) {
+        int[] previous = SIGNATURES.remove(threadId);
+        if (previous == null) {
+            return false;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(previous, band);
+            Set<Long> bucket = BUCKETS.get(key);
+            if (bucket != null) {
+                bucket.remove(threadId);
+                if (bucket.isEmpty()) {
+                    BUCKETS.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash one band of a signature together with its band number, so equal values in different bands never collide.
+     */
+    private static long bandKey(int[] signature, int band) {
+        long h = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            h = MinHash.mix(h * 31 + signature[row]);
+        }
+        return h;
+    }
+
+    private static void persist(long threadId, int[] signature) {
+        try {
+            Repositories.threadSignatures().save(threadId, signature);
+        } catch (StorageException e) {
+            logger.error("Failed to save signature for thread {}", threadId, e);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Bootstrap
+    // -------------------------------------------------------------------------
+
+    /**
+     * Load stored signatures and sign any indexed thread that does not have one yet.
+     * Must run after {@link ThreadIndex#bootstrap(ShardManager)}. Blocks until the starter messages, fetched
+     * through a rate-limited queue, are signed, so call it off the gateway thread.
+     *
+     * @param shardManager The shard manager, with all shards ready
+     */
+    public static void bootstrap(ShardManager shardManager) {
+        long startNanos = System.nanoTime();
+        int restored = 0;
+        try {
+            for (Map.Entry<Long, int[]> entry : Repositories.threadSignatures().readAll().entrySet()) {
+                if (ThreadIndex.get(entry.getKey()).isPresent()) {
+                    add(entry.getKey(), entry.getValue());
+                    restored++;
+                } else {
+                    Repositories.threadSignatures().delete(entry.getKey());
+                }
+            }
+        } catch (StorageException e) {
+            logger.error("Failed to restore thread signatures; re-signing all threads", e);
+        }
+
+        // Messages arrive on JDA's callback threads; signing and storage stay on this thread. Each thread is
+        // persisted as soon as it is signed, so an interrupted backfill resumes where it stopped
+        BlockingQueue<Map.Entry<ThreadRecord, String>> fetched = new LinkedBlockingQueue<>();
+        int signed = 0;
+        for (ThreadRecord record : List.copyOf(ThreadIndex.all())) {
+            synchronized (DuplicateDetector.class) {
+                if (SIGNATURES.containsKey(record.threadId())) {
+                    continue;
+                }
+            }
+            starterMessage(shardManager, record.threadId())
+                    .thenAccept(message -> fetched.add(Map.entry(record, message)));
+            signed++;
+        }
+        try {
+            for (int i = 0; i < signed; i++) {
+                Map.Entry<ThreadRecord, String> next = fetched.take();
+                ThreadRecord record = next.getKey();
+                int[] signature = MinHash.signature(record.title() + "\n" + next.getValue());
+                add(record.threadId(), signature);
+                persist(record.threadId(), signature);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Signature backfill interrupted; the rest is signed on the next start");
+        }
+
+        logger.info("Duplicate detector ready: {} signature(s) ({} restored, {} newly signed) in {} ms",
+                size(), restored, signed, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Fetch a thread's starter message text. Archived threads are not cached and fall back to title-only signatures,
+     * as do threads whose starter message cannot be read.
+     */
+    private static CompletableFuture<String> starterMessage(ShardManager shardManager, long threadId) {
+        ThreadChannel thread = shardManager.getThreadChannelById(threadId);
+        if (thread == null) {
+            return CompletableFuture.completedFuture("");
+        }
+        return QUEUE.submit(thread::retrieveStartMessage)
+                .handle((message, error) -> {
+                    if (error != null) {
+                        logger.debug("Could not retrieve starter message of thread {}", threadId, error);
+                        return "";
+                    }
+                    return message.getContentRaw();
+                });
+    }
+}
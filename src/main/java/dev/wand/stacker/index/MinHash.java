@@ -0,0 +1,112 @@
+package dev.wand.stacker.index;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * MinHash signatures over character 4-gram shingles.
+ * <p>
+ * Text is lower-cased and reduced to letters, digits and single spaces before shingling, so
+ * punctuation, casing and whitespace differences do not affect similarity. The fraction of
+ * equal positions in two signatures estimates the Jaccard similarity of their shingle sets.
+ */
+public final class MinHash {
+
+    /**
+     * Number of hash functions, i.e. the length of every signature.
+     */
+    public static final int SIGNATURE_LENGTH = 128;
+
+    private static final int SHINGLE_LENGTH = 4;
+    private static final long[] SEEDS = new long[SIGNATURE_LENGTH];
+
+    static {
+        // Fixed seeds so signatures stay comparable across restarts
+        long seed = 0x5374_6163_6B65_72L;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    private MinHash() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Compute the signature of a piece of text.
+     *
+     * @param text The text to sign
+     * @return A signature of {@link #SIGNATURE_LENGTH} values
+     */
+    public static int[] signature(String text) {
+        String normalized = normalize(text);
+        int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        int shingles = Math.max(1, normalized.length() - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = hash(normalized, start, Math.min(normalized.length(), start + SHINGLE_LENGTH));
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                int h = (int) (mix(shingle ^ SEEDS[i]) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimate the Jaccard similarity of two signed texts.
+     *
+     * @param a The first signature
+     * @param b The second signature
+     * @return The fraction of positions where both signatures agree, from 0 to 1
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    private static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        return sb.toString().strip();
+    }
+
+    /**
+     * FNV-1a over a character range.
+     */
+    private static long hash(String s, int from, int to) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * SplitMix64 finalizer; spreads every input bit over the whole output.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,393 @@
+package dev.wand.stacker.index;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.ConfigKey;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * In-memory index of every thread in the Tester Log Forums of all served guilds.
+ *
+ * <p>Threads are held in a map keyed by thread ID, with secondary indexes by status tag and owner
+ * and a {@link TitleIndex} over titles.
+ * Because thread IDs are snowflakes, key order is creation order, so age queries are range views.
+ * Reads never touch Discord or the database.</p>
+ *
+ * <p>Lifecycle:</p>
+ * <ol>
+ *   <li>{@link #bootstrap(ShardManager)} restores the persisted index, adds each forum's active threads and pages
+ *       through archived threads newer than that forum's stored archive high-water mark</li>
+ *   <li>{@link dev.wand.stacker.listeners.ThreadIndexListener} keeps it current from gateway events</li>
+ *   <li>Changes are written behind to {@link dev.wand.stacker.repository.ForumThreadRepository}
+ *       every few seconds, and once more by {@link #flush()} on shutdown</li>
+ * </ol>
+ */
+public final class ThreadIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadIndex.class);
+
+    private static final String ARCHIVE_HWM_KEY = "thread_index_archive_hwm";
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+    private static final long DISCORD_EPOCH_MS = 1420070400000L;
+
+    private static final ConcurrentSkipListMap<Long, ThreadRecord> BY_ID = new ConcurrentSkipListMap<>();
+    private static final Map<Long, Set<Long>> BY_STATUS = new ConcurrentHashMap<>();
+    private static final Map<Long, Set<Long>> BY_OWNER = new ConcurrentHashMap<>();
+
+    // Write-behind state: IDs changed or removed since the last flush
+    private static final Set<Long> DIRTY = ConcurrentHashMap.newKeySet();
+    private static final Set<Long> REMOVED = ConcurrentHashMap.newKeySet();
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "thread-index-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Metrics.gauge("threads.indexed", BY_ID::size);
+    }
+
+    private ThreadIndex() {
+        // Utility class, prevent instantiation
+    }
+
+    // -------------------------------------------------------------------------
+    // Queries
+    // -------------------------------------------------------------------------
+
+    /**
+     * @param threadId The thread ID
+     * @return the indexed thread, if known
+     */
+    public static Optional<ThreadRecord> get(long threadId) {
+        return Optional.ofNullable(BY_ID.get(threadId));
+    }
+
+    /**
+     * @param statusTagId The status tag ID, or {@code 0} for threads without a status tag
+     * @return all threads currently carrying that status, oldest first
+     */
+    public static List<ThreadRecord> byStatus(long statusTagId) {
+        return resolve(BY_STATUS.get(statusTagId));
+    }
+
+    /**
+     * @param ownerId The user ID of the thread creator
+     * @return all threads created by that user, oldest first
+     */
+    public static List<ThreadRecord> byOwner(long ownerId) {
+        return resolve(BY_OWNER.get(ownerId));
+    }
+
+    /**
+     * @param epochMillis The cut-off time
+     * @return all threads created before the given time, oldest first
+     */
+    public static Collection<ThreadRecord> createdBefore(long epochMillis) {
+        return BY_ID.headMap(snowflakeAt(epochMillis)).values();
+    }
+
+    /**
+     * @return all indexed threads, oldest first
+     */
+    public static Collection<ThreadRecord> all() {
+        return BY_ID.values();
+    }
+
+    /**
+     * @return all indexed threads, newest first
+     */
+    public static Collection<ThreadRecord> newestFirst() {
+        return BY_ID.descendingMap().values();
+    }
+
+    /**
+     * @return the number of indexed threads
+     */
+    public static int size() {
+        return BY_ID.size();
+    }
+
+    private static List<ThreadRecord> resolve(Set<Long> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        List<ThreadRecord> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ThreadRecord record = BY_ID.get(id);
+            if (record != null) {
+                results.add(record);
+            }
+        }
+        results.sort(Comparator.comparingLong(ThreadRecord::threadId));
+        return results;
+    }
+
+    private static long snowflakeAt(long epochMillis) {
+        return Math.max(0, epochMillis - DISCORD_EPOCH_MS) << 22;
+    }
+
+    // -------------------------------------------------------------------------
+    // Updates
+    // -------------------------------------------------------------------------
+
+    /**
+     * Add or replace a thread in the index and schedule it for persistence.
+     * The time of the last status change carries over from the indexed record unless the status differs.
+     *
+     * @param snapshot The current state of the thread
+     */
+    public static void upsert(ThreadRecord snapshot) {
+        ThreadRecord record;
+        synchronized (BY_ID) {
+            record = snapshot.sinceStatusOf(BY_ID.get(snapshot.threadId()), System.currentTimeMillis());
+            ThreadRecord previous = BY_ID.put(record.threadId(), record);
+            if (record.equals(previous)) {
+                return;
+            }
+            unlinkSecondary(previous);
+            linkSecondary(record);
+            TitleIndex.update(previous, record);
+        }
+        REMOVED.remove(record.threadId());
+        DIRTY.add(record.threadId());
+    }
+
+    /**
+     * Remove a thread from the index and schedule its deletion.
+     *
+     * @param threadId The thread ID
+     */
+    public static void remove(long threadId) {
+        synchronized (BY_ID) {
+            ThreadRecord previous = BY_ID.remove(threadId);
+            if (previous == null) {
+                return;
+            }
+            unlinkSecondary(previous);
+            TitleIndex.update(previous, null);
+        }
+        DIRTY.remove(threadId);
+        REMOVED.add(threadId);
+    }
+
+    private static void linkSecondary(ThreadRecord record) {
+        BY_STATUS.computeIfAbsent(record.statusTagId(), k -> ConcurrentHashMap.newKeySet()).add(record.threadId());
+        BY_OWNER.computeIfAbsent(record.ownerId(), k -> ConcurrentHashMap.newKeySet()).add(record.threadId());
+    }
+
+    private static void unlinkSecondary(ThreadRecord record) {
+        if (record == null) {
+            return;
+        }
+        unlink(BY_STATUS, record.statusTagId(), record.threadId());
+        unlink(BY_OWNER, record.ownerId(), record.threadId());
+    }
+
+    private static void unlink(Map<Long, Set<Long>> index, long key, long threadId) {
+        Set<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(threadId);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Bootstrap and persistence
+    // -------------------------------------------------------------------------
+
+    /**
+     * Populate the index and start write-behind persistence.
+     * Blocks while archived threads are paged in, so call it off the gateway thread.
+     *
+     * @param shardManager The shard manager, with all shards ready
+     */
+    public static void bootstrap(ShardManager shardManager) {
+        long startNanos = System.nanoTime();
+        int restored = restore();
+
+        int active = 0;
+        int archived = 0;
+        int pruned = 0;
+        Map<String, Long> highWaterMarks = new HashMap<>();
+        List<Long> forumIds = GuildConfig.all().stream().map(GuildSettings::forumChannelId).distinct().toList();
+        for (long forumId : forumIds) {
+            ForumChannel forum = shardManager.getForumChannelById(forumId);
+            if (forum == null) {
+                logger.warn("Tester Log Forum {} not found; thread index holds its persisted state only", forumId);
+                continue;
+            }
+
+            // Active threads arrive with the guild on connect, so they are already cached
+            Set<Long> seen = new HashSet<>();
+            for (ThreadChannel thread : forum.getThreadChannels()) {
+                upsert(ThreadRecord.from(thread));
+                seen.add(thread.getIdLong());
+            }
+            active += seen.size();
+
+            // Archived threads are returned newest-archived first; stop at the last run's high-water mark
+            String hwmKey = archiveHwmKey(forumId);
+            long highWaterMark = readArchiveHighWaterMark(hwmKey);
+            List<ThreadChannel> newlyArchived = forum.retrieveArchivedPublicThreadChannels()
+                    .takeWhileAsync(thread -> archivedAt(thread) > highWaterMark)
+                    .join();
+            long newHighWaterMark = highWaterMark;
+            for (ThreadChannel thread : newlyArchived) {
+                upsert(ThreadRecord.from(thread));
+                seen.add(thread.getIdLong());
+                newHighWaterMark = Math.max(newHighWaterMark, archivedAt(thread));
+            }
+            archived += newlyArchived.size();
+            highWaterMarks.put(hwmKey, newHighWaterMark);
+
+            // Anything still marked open but neither active nor newly archived was deleted while offline
+            for (ThreadRecord record : List.copyOf(BY_ID.values())) {
+                if (record.forumId() == forumId && !record.isClosed() && !seen.contains(record.threadId())) {
+                    remove(record.threadId());
+                    pruned++;
+                }
+            }
+        }
+
+        // Marks only advance once the threads they cover are stored
+        flush();
+        highWaterMarks.forEach(ThreadIndex::writeArchiveHighWaterMark);
+        startFlusher();
+
+        logger.info("Thread index ready: {} thread(s) in {} forum(s) ({} restored, {} active, {} newly archived, "
+                        + "{} pruned) in {} ms",
+                BY_ID.size(), forumIds.size(), restored, active, archived, pruned,
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static int restore() {
+        try {
+            List<ThreadRecord> stored = Repositories.forumThreads().readAll();
+            synchronized (BY_ID) {
+                for (ThreadRecord record : stored) {
+                    // Never overwrite state that a gateway event delivered during startup
+                    if (BY_ID.putIfAbsent(record.threadId(), record) == null) {
+                        linkSecondary(record);
+                        TitleIndex.update(null, record);
+                    }
+                }
+            }
+            return stored.size();
+        } catch (StorageException e) {
+            logger.error("Failed to restore thread index; rebuilding from Discord", e);
+            for (GuildSettings settings : GuildConfig.all()) {
+                writeArchiveHighWaterMark(archiveHwmKey(settings.forumChannelId()), 0);
+            }
+            return 0;
+        }
+    }
+
+    private static long archivedAt(ThreadChannel thread) {
+        return thread.getTimeArchiveInfoLastModified().toInstant().toEpochMilli();
+    }
+
+    /**
+     * The home forum keeps the original key, so upgrading does not page its archive again.
+     */
+    private static String archiveHwmKey(long forumId) {
+        return Config.get(ConfigKey.CHANNEL_TESTER_LOG_FORUM).equals(Long.toString(forumId))
+                ? ARCHIVE_HWM_KEY
+                : ARCHIVE_HWM_KEY + ":" + forumId;
+    }
+
+    private static long readArchiveHighWaterMark(String hwmKey) {
+        try {
+            String value = Repositories.botState().get(hwmKey);
+            return value == null ? 0L : Long.parseLong(value);
+        } catch (StorageException | NumberFormatException e) {
+            logger.warn("Could not read thread archive high-water mark; paging all archived threads", e);
+            return 0L;
+        }
+    }
+
+    private static void writeArchiveHighWaterMark(String hwmKey, long epochMillis) {
+        try {
+            Repositories.botState().put(hwmKey, Long.toString(epochMillis));
+        } catch (StorageException e) {
+            logger.error("Failed to store thread archive high-water mark", e);
+        }
+    }
+
+    private static void startFlusher() {
+        FLUSHER.scheduleWithFixedDelay(ThreadIndex::flushSafely,
+                FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Thread index flush failed", e);
+        }
+    }
+
+    /**
+     * Write all pending changes to storage in one batch each for upserts and deletions.
+     * Failed batches are retried on the next flush.
+     */
+    public static synchronized void flush() {
+        List<Long> removedIds = drain(REMOVED);
+        if (!removedIds.isEmpty()) {
+            try {
+                Repositories.forumThreads().deleteAll(removedIds);
+            } catch (StorageException e) {
+                logger.error("Failed to delete {} thread(s) from storage; will retry", removedIds.size(), e);
+                requeue(REMOVED, DIRTY, removedIds);
+            }
+        }
+
+        List<Long> dirtyIds = drain(DIRTY);
+        List<ThreadRecord> records = new ArrayList<>(dirtyIds.size());
+        for (Long id : dirtyIds) {
+            ThreadRecord record = BY_ID.get(id);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        if (!records.isEmpty()) {
+            try {
+                Repositories.forumThreads().saveAll(records);
+            } catch (StorageException e) {
+                logger.error("Failed to save {} thread(s) to storage; will retry", records.size(), e);
+                requeue(DIRTY, REMOVED, dirtyIds);
+            }
+        }
+    }
+
+    private static List<Long> drain(Set<Long> pending) {
+        List<Long> ids = new ArrayList<>(pending);
+        pending.removeAll(ids);
+        return ids;
+    }
+
+    /**
+     * Put IDs back for the next flush unless a newer change moved them to the other set meanwhile.
+     */
+    private static void requeue(Set<Long> target, Set<Long> other, List<Long> ids) {
+        for (Long id : ids) {
+            if (!other.contains(id)) {
+                target.add(id);
+            }
+        }
+    }
+}
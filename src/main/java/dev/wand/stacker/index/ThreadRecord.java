@@ -0,0 +1,86 @@
+package dev.wand.stacker.index;
+
+import dev.wand.stacker.utils.ValidationUtils;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+
+/**
+ * Immutable snapshot of a forum thread as held by {@link ThreadIndex}.
+ *
+ * @param threadId        The thread's snowflake (also encodes its creation time)
+ * @param guildId         The guild the thread belongs to
+ * @param forumId         The parent forum channel
+ * @param ownerId         The user who created the thread
+ * @param statusTagId     The applied status tag, or {@code 0} if none
+ * @param title           The thread title
+ * @param createdAt       Creation time in epoch milliseconds
+ * @param closedAt        Archive time in epoch milliseconds, or {@code 0} while the thread is open
+ * @param statusChangedAt When the current status tag was first seen, in epoch milliseconds; the creation time for
+ *                        threads first seen with their status
+ */
+public record ThreadRecord(long threadId, long guildId, long forumId, long ownerId, long statusTagId,
+                           String title, long createdAt, long closedAt, long statusChangedAt) {
+
+    /**
+     * Capture the current state of a thread channel.
+     *
+     * @param thread The thread to snapshot
+     * @return A record reflecting the thread's current name, tags and archive state, with the status dated
+     * to the thread's creation until {@link #sinceStatusOf} carries over a known status change
+     */
+    public static ThreadRecord from(ThreadChannel thread) {
+        long status = thread.getAppliedTags().stream()
+                .filter(ValidationUtils::isStatusTag)
+                .mapToLong(ForumTag::getIdLong)
+                .findFirst()
+                .orElse(0L);
+        long closedAt = thread.isArchived()
+                ? thread.getTimeArchiveInfoLastModified().toInstant().toEpochMilli()
+                : 0L;
+        long createdAt = thread.getTimeCreated().toInstant().toEpochMilli();
+        return new ThreadRecord(
+                thread.getIdLong(),
+                thread.getGuild().getIdLong(),
+                thread.getParentChannel().getIdLong(),
+                thread.getOwnerIdLong(),
+                status,
+                thread.getName(),
+                createdAt,
+                closedAt,
+                createdAt
+        );
+    }
+
+    /**
+     * Date this snapshot's status relative to the previous snapshot of the same thread.
+     *
+     * @param previous The thread's previous snapshot, or {@code null} if it was not known
+     * @param now      The time this snapshot was taken
+     * @return this record, keeping the previous status time if the status is unchanged or stamping {@code now}
+     */
+    public ThreadRecord sinceStatusOf(ThreadRecord previous, long now) {
+        if (previous == null) {
+            return this;
+        }
+        long changedAt = previous.statusTagId == statusTagId ? previous.statusChangedAt : now;
+        if (changedAt == statusChangedAt) {
+            return this;
+        }
+        return new ThreadRecord(threadId, guildId, forumId, ownerId, statusTagId, title, createdAt, closedAt,
+                changedAt);
+    }
+
+    /**
+     * @return whether the thread is currently archived
+     */
+    public boolean isClosed() {
+        return closedAt != 0;
+    }
+
+    /**
+     * @return the Discord jump URL for this thread
+     */
+    public String jumpUrl() {
+        return "https://discord.com/channels/" + guildId + "/" + threadId;
+    }
+}
@@ -0,0 +1,147 @@
+package dev.wand.stacker.index;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index over the titles of the threads in {@link ThreadIndex}, used for autocomplete.
+ * <p>
+ * Titles are normalized (lower-cased, punctuation collapsed to spaces) and padded with two leading
+ * spaces, so the first trigrams of each word also act as a prefix index. A query scores each
+ * candidate by the share of query trigrams its title contains, then adds a small boost for
+ * recently created and still open threads.
+ * <p>
+ * {@link ThreadIndex} keeps this index in step with every upsert and removal.
+ */
+public final class TitleIndex {
+
+    private static final double RECENCY_WEIGHT = 0.15;
+    private static final double RECENCY_HALF_LIFE_DAYS = 30;
+    private static final double OPEN_BONUS = 0.05;
+    private static final long DAY_MS = 86_400_000L;
+
+    private static final Map<Long, Set<Long>> POSTINGS = new ConcurrentHashMap<>();
+
+    private TitleIndex() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Find the threads of one forum whose titles best match a partial query.
+     * An empty query returns the forum's most recently created threads.
+     *
+     * @param query   The text typed so far
+     * @param forumId The forum whose threads may match; threads of other guilds' forums never do
+     * @param limit   The maximum number of results
+     * @return Matching threads, best match first
+     */
+    public static List<ThreadRecord> search(String query, long forumId, int limit) {
+        long[] queryTrigrams = trigrams(query);
+        long now = System.currentTimeMillis();
+
+        if (queryTrigrams.length == 0) {
+            List<ThreadRecord> recent = new ArrayList<>(limit);
+            for (ThreadRecord record : ThreadIndex.newestFirst()) {
+                if (recent.size() == limit) {
+                    break;
+                }
+                if (record.forumId() == forumId) {
+                    recent.add(record);
+                }
+            }
+            return recent;
+        }
+
+        Map<Long, Integer> hits = new HashMap<>();
+        for (long trigram : queryTrigrams) {
+            Set<Long> ids = POSTINGS.get(trigram);
+            if (ids != null) {
+                for (Long id : ids) {
+                    hits.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+
+        // Require at least a third of the query to match so single shared trigrams do not flood results
+        int minHits = Math.max(1, queryTrigrams.length / 3);
+        List<Map.Entry<ThreadRecord, Double>> scored = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : hits.entrySet()) {
+            if (entry.getValue() < minHits) {
+                continue;
+            }
+            ThreadRecord record = ThreadIndex.get(entry.getKey()).orElse(null);
+            if (record == null || record.forumId() != forumId) {
+                continue;
+            }
+            double ageDays = Math.max(0, now - record.createdAt()) / (double) DAY_MS;
+            double score = (double) entry.getValue() / queryTrigrams.length
+                    + RECENCY_WEIGHT * Math.pow(0.5, ageDays / RECENCY_HALF_LIFE_DAYS)
+                    + (record.isClosed() ? 0 : OPEN_BONUS);
+            scored.add(Map.entry(record, score));
+        }
+
+        scored.sort(Map.Entry.<ThreadRecord, Double>comparingByValue().reversed());
+        List<ThreadRecord> results = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < scored.size() && i < limit; i++) {
+            results.add(scored.get(i).getKey());
+        }
+        return results;
+    }
+
+    /**
+     * Re-index a thread whose record changed. Called by {@link ThreadIndex} under its write lock.
+     */
+    static void update(ThreadRecord previous, ThreadRecord current) {
+        if (previous != null && current != null && previous.title().equals(current.title())) {
+            return;
+        }
+        if (previous != null) {
+            for (long trigram : trigrams(previous.title())) {
+                Set<Long> ids = POSTINGS.get(trigram);
+                if (ids != null) {
+                    ids.remove(previous.threadId());
+                    if (ids.isEmpty()) {
+                        POSTINGS.remove(trigram);
+                    }
+                }
+            }
+        }
+        if (current != null) {
+            for (long trigram : trigrams(current.title())) {
+                POSTINGS.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(current.threadId());
+            }
+        }
+    }
+
+    /**
+     * Pack each distinct trigram of the normalized text into a long (three 16-bit chars).
+     */
+    private static long[] trigrams(String text) {
+        StringBuilder normalized = new StringBuilder("  ");
+        boolean space = true;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        while (length > 2 && normalized.charAt(length - 1) == ' ') {
+            length--;
+        }
+        if (length <= 2) {
+            return new long[0];
+        }
+
+        Set<Long> unique = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= length; i++) {
+            unique.add(((long) normalized.charAt(i) << 32)
+                    | ((long) normalized.charAt(i + 1) << 16)
+                    | normalized.charAt(i + 2));
+        }
+        return unique.stream().mapToLong(Long::longValue).toArray();
+    }
+}
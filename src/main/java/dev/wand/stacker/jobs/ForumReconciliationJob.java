@@ -0,0 +1,178 @@
+package dev.wand.stacker.jobs;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.ConfigKey;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import dev.wand.stacker.services.ThreadTagger;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Catches up on Tester Log Forum threads created while the bot was offline or reconnecting.
+ * <p>
+ * Runs at startup and after the gateway session is recreated, over the forum of every served guild
+ * (see {@link GuildConfig}) whose shard is connected. Every active thread created after the forum's
+ * stored high-water mark that still has no status tag gets the same automatic tags as a live thread
+ * (see {@link ThreadTagger}). Starter message reads and tag updates go through a {@link RestWorkQueue},
+ * so a long backlog is worked off quickly without starving interactive commands.
+ * <p>
+ * Active threads arrive with the guild on connect, so no REST paging is needed to find them.
+ * Archived threads are skipped: their tags cannot be changed without reopening them.
+ * The high-water mark only advances past threads that were handled successfully.
+ */
+public final class ForumReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForumReconciliationJob.class);
+
+    private static final String HWM_KEY = "forum_reconcile_hwm";
+    private static final RestWorkQueue QUEUE = new RestWorkQueue("reconcile", 4, 5.0, 5);
+    private static final AtomicBoolean RUNNING = new AtomicBoolean(false);
+
+    private ForumReconciliationJob() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Run a reconciliation in the background unless one is already running.
+     *
+     * @param shardManager The connected shard manager
+     */
+    public static void runAsync(ShardManager shardManager) {
+        if (!RUNNING.compareAndSet(false, true)) {
+            logger.info("Forum reconciliation already running; skipping");
+            return;
+        }
+        CompletableFuture.runAsync(() -> run(shardManager))
+                .whenComplete((ignored, error) -> {
+                    RUNNING.set(false);
+                    if (error != null) {
+                        logger.error("Forum reconciliation failed", error);
+                    }
+                });
+    }
+
+    private static void run(ShardManager shardManager) {
+        List<Long> forumIds = GuildConfig.all().stream().map(GuildSettings::forumChannelId).distinct().toList();
+        for (long forumId : forumIds) {
+            ForumChannel forum = shardManager.getForumChannelById(forumId);
+            if (forum == null) {
+                logger.warn("Tester Log Forum {} not found; skipping reconciliation", forumId);
+                continue;
+            }
+            reconcileForum(forum);
+        }
+    }
+
+    private static void reconcileForum(ForumChannel forum) {
+        long startNanos = System.nanoTime();
+        String hwmKey = hwmKey(forum.getIdLong());
+        long highWaterMark = readHighWaterMark(hwmKey);
+        List<ThreadChannel> candidates = forum.getThreadChannels().stream()
+                .filter(thread -> thread.getIdLong() > highWaterMark)
+                .sorted(Comparator.comparingLong(ThreadChannel::getIdLong))
+                .toList();
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(candidates.size());
+        for (ThreadChannel thread : candidates) {
+            results.add(ThreadTagger.needsTagging(thread)
+                    ? reconcile(forum, thread)
+                    : CompletableFuture.completedFuture(false));
+        }
+
+        // Advance the mark up to (not past) the first thread that could not be handled
+        long newHighWaterMark = highWaterMark;
+        int tagged = 0;
+        int failed = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            try {
+                if (results.get(i).join()) {
+                    tagged++;
+                }
+                if (failed == 0) {
+                    newHighWaterMark = candidates.get(i).getIdLong();
+                }
+            } catch (RuntimeException e) {
+                failed++;
+                logger.warn("Failed to reconcile thread {}", candidates.get(i).getName(), e);
+            }
+        }
+        if (newHighWaterMark != highWaterMark) {
+            writeHighWaterMark(hwmKey, newHighWaterMark);
+        }
+
+        Metrics.add("reconcile.threads_tagged", tagged);
+        logger.info("Forum reconciliation of {} done: {} new thread(s), {} tagged, {} failed in {} ms",
+                forum.getName(), candidates.size(), tagged, failed, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Read the thread's starter message and apply its automatic tags.
+     *
+     * @return a future completing with whether tags were applied
+     */
+    private static CompletableFuture<Boolean> reconcile(ForumChannel forum, ThreadChannel thread) {
+        return QUEUE.submit(thread::retrieveStartMessage)
+                .thenApply(Message::getContentRaw)
+                .exceptionally(error -> "")
+                .thenCompose(body -> {
+                    Optional<List<ForumTag>> tags =
+                            ThreadTagger.withAutomaticTags(forum, thread, thread.getName() + "\n" + body);
+                    if (tags.isEmpty()) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    return QUEUE.submit(() -> thread.getManager().setAppliedTags(tags.get()))
+                            .thenApply(ignored -> {
+                                logger.info("Reconciled tags of thread created while offline: {}", thread.getName());
+                                return true;
+                            });
+                });
+    }
+
+    /**
+     * The home forum keeps the original key, so upgrading does not re-scan its lookback window.
+     */
+    private static String hwmKey(long forumId) {
+        return Config.get(ConfigKey.CHANNEL_TESTER_LOG_FORUM).equals(Long.toString(forumId))
+                ? HWM_KEY
+                : HWM_KEY + ":" + forumId;
+    }
+
+    private static long readHighWaterMark(String hwmKey) {
+        try {
+            String value = Repositories.botState().get(hwmKey);
+            if (value != null) {
+                return Long.parseLong(value);
+            }
+        } catch (StorageException | NumberFormatException e) {
+            logger.warn("Could not read forum reconciliation high-water mark", e);
+        }
+        // First run: only look back a limited window instead of re-tagging the forum's whole history
+        long lookbackMs = Config.getForumReconcileInitialLookbackHours() * 3_600_000L;
+        return TimeUtil.getDiscordTimestamp(System.currentTimeMillis() - lookbackMs);
+    }
+
+    private static void writeHighWaterMark(String hwmKey, long snowflake) {
+        try {
+            Repositories.botState().put(hwmKey, Long.toString(snowflake));
+        } catch (StorageException e) {
+            logger.error("Failed to store forum reconciliation high-water mark", e);
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package dev.wand.stacker.jobs;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.OutboxJob;
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import dev.wand.stacker.services.TesterRoleService;
+import dev.wand.stacker.utils.ValidationUtils;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Durable execution of Discord side effects that must not be lost.
+ * <p>
+ * Callers enqueue a job instead of calling {@code queue()} directly. The job is written to the
+ * {@link dev.wand.stacker.repository.OutboxRepository} first, then picked up by a pool of worker
+ * threads ({@code OUTBOX_WORKERS}) that claim jobs in small batches, run them against Discord and record
+ * the outcome. A failed attempt is retried with exponential backoff and jitter until
+ * {@code OUTBOX_MAX_ATTEMPTS} is reached, after which the job is kept as {@code failed} for inspection.
+ * <p>
+ * Claims are leased: jobs held by a worker that dies (or a bot that restarts mid-job) become due again
+ * once the lease expires, so every job runs at least once. Handlers are therefore idempotent, e.g.
+ * a role grant skips roles the member already has and a tag change skips tags already applied. With
+ * PostgreSQL, claims use {@code SKIP LOCKED}, so throughput scales by adding workers or bot instances
+ * without them contending for the same rows.
+ */
+public final class Outbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(Outbox.class);
+
+    private static final int CLAIM_BATCH = 4;
+    private static final long LEASE_MS = 5 * 60_000L;
+    private static final long EXECUTE_TIMEOUT_MS = 30_000L;
+    private static final long IDLE_POLL_MS = 2_000L;
+    private static final long BASE_BACKOFF_MS = 5_000L;
+    private static final long MAX_BACKOFF_MS = 15 * 60_000L;
+    private static final long RETENTION_MS = 7 * 86_400_000L;
+    private static final long PURGE_INTERVAL_MS = 3_600_000L;
+    /**
+     * How long a closed thread stays open, so the command's announcement lands first: a message sent to an
+     * archived thread would reopen it.
+     */
+    private static final long CLOSE_DELAY_MS = 10_000L;
+    /**
+     * How many of a forum's most recently archived threads to look through for a thread that left the cache.
+     */
+    private static final int ARCHIVED_LOOKUP_LIMIT = 200;
+
+    private static final Object SIGNAL = new Object();
+    private static final List<Thread> WORKERS = new ArrayList<>();
+    private static final AtomicLong LAST_PURGE_MS = new AtomicLong();
+
+    private static volatile ShardManager shardManager;
+    private static volatile boolean running;
+
+    private Outbox() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Kinds of side effect the outbox can run. Stored by name, so constants must not be renamed.
+     */
+    public enum Kind {
+        /** Archive a forum thread; payload is the thread ID. */
+        ARCHIVE_THREAD,
+        /** Grant the tester roles and clear the pending entry; payload is {@code guildId:userId}. */
+        GRANT_TESTER_ROLES,
+        /**
+         * Replace a thread's status tag with another and archive it, in one update; payload is
+         * {@code forumId:threadId:tagId}.
+         */
+        CLOSE_THREAD,
+        /**
+         * Add each tag whose group (status or category) the thread has no tag of yet; payload is
+         * {@code threadId:tagId,tagId,...}.
+         */
+        ADD_MISSING_TAGS
+    }
+
+    // -------------------------------------------------------------------------
+    // Enqueueing
+    // -------------------------------------------------------------------------
+
+    /**
+     * Durably schedule giving a thread its final status tag and archiving it. Both happen in one job, a few
+     * seconds from now so the caller's messages in the thread are sent first. If the thread was archived in
+     * the meantime, it is still retagged.
+     *
+     * @param forumId     The thread's parent forum
+     * @param threadId    The thread to close
+     * @param statusTagId The status tag that replaces the thread's current one
+     */
+    public static void closeThread(long forumId, long threadId, long statusTagId) {
+        enqueue(Kind.CLOSE_THREAD, forumId + ":" + threadId + ":" + statusTagId, CLOSE_DELAY_MS);
+    }
+
+    /**
+     * Durably schedule adding tags to a thread. Each tag is skipped if, by the time the job runs, the thread
+     * already has a tag of its group (e.g. a moderator set a status first).
+     *
+     * @param threadId The thread to tag
+     * @param tags     The status and category tags to add
+     */
+    public static void addMissingTags(long threadId, List<ForumTag> tags) {
+        enqueue(Kind.ADD_MISSING_TAGS,
+                threadId + ":" + tags.stream().map(ForumTag::getId).collect(Collectors.joining(",")), 0);
+    }
+
+    /**
+     * Durably schedule granting the tester roles to a member and removing them from the pending list.
+     *
+     * @param guildId The guild the member is in
+     * @param userId  The member's user ID
+     */
+    public static void grantTesterRoles(long guildId, long userId) {
+        enqueue(Kind.GRANT_TESTER_ROLES, guildId + ":" + userId, 0);
+    }
+
+    private static void enqueue(Kind kind, String payload, long delayMs) {
+        try {
+            long id = Repositories.outbox().enqueue(kind.name(), payload, delayMs);
+            Metrics.increment("outbox.enqueued");
+            logger.debug("Enqueued {} job {} ({})", kind, id, payload);
+        } catch (StorageException e) {
+            // Storage is down: better to try once now than to drop the side effect
+            logger.error("Failed to enqueue {} job ({}); running it directly", kind, payload, e);
+            if (shardManager != null) {
+                Executor due = CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS);
+                CompletableFuture.runAsync(() -> { }, due)
+                        .thenCompose(ignored -> execute(kind, payload))
+                        .whenComplete((ignored, error) -> {
+                            if (error != null) {
+                                logger.error("Direct {} job ({}) failed", kind, payload, error);
+                            }
+                        });
+            }
+            return;
+        }
+        synchronized (SIGNAL) {
+            SIGNAL.notifyAll();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Workers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Start the worker pool. Jobs left over from a previous run are picked up immediately.
+     *
+     * @param shardManager The connected shard manager
+     */
+    public static synchronized void start(ShardManager shardManager) {
+        if (running) {
+            return;
+        }
+        Outbox.shardManager = shardManager;
+        running = true;
+        int workers = Math.max(1, Config.getOutboxWorkers());
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(Outbox::workLoop, "outbox-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            WORKERS.add(worker);
+        }
+        logger.info("Outbox started with {} worker(s)", workers);
+    }
+
+    /**
+     * Stop claiming new jobs and wait up to {@code timeoutMs} in total for running jobs to finish.
+     * Claimed jobs that have not started are released to run again at once; jobs that do not finish
+     * in time are retried after their lease expires.
+     *
+     * @param timeoutMs How long to wait for all workers together
+     */
+    public static synchronized void stop(long timeoutMs) {
+        if (!running) {
+            return;
+        }
+        running = false;
+        synchronized (SIGNAL) {
+            SIGNAL.notifyAll();
+        }
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int unfinished = 0;
+        for (Thread worker : WORKERS) {
+            long leftMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            try {
+                if (leftMs > 0) {
+                    worker.join(leftMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (worker.isAlive()) {
+                unfinished++;
+            }
+        }
+        WORKERS.clear();
+        if (unfinished > 0) {
+            logger.warn("Outbox stopped with {} worker(s) still running a job; it is retried after its lease",
+                    unfinished);
+        } else {
+            logger.info("Outbox stopped");
+        }
+    }
+
+    private static void workLoop() {
+        while (running) {
+            List<OutboxJob> jobs;
+            try {
+                purgeIfDue();
+                jobs = Repositories.outbox().claim(CLAIM_BATCH, LEASE_MS);
+            } catch (StorageException | RuntimeException e) {
+                logger.warn("Failed to claim outbox jobs", e);
+                jobs = List.of();
+            }
+
+            for (int i = 0; i < jobs.size(); i++) {
+                if (!running) {
+                    release(jobs.subList(i, jobs.size()));
+                    return;
+                }
+                runJob(jobs.get(i));
+            }
+
+            if (jobs.size() < CLAIM_BATCH) {
+                synchronized (SIGNAL) {
+                    if (!running) {
+                        return;
+                    }
+                    try {
+                        SIGNAL.wait(IDLE_POLL_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void runJob(OutboxJob job) {
+        long startNanos = System.nanoTime();
+        Kind kind;
+        try {
+            kind = Kind.valueOf(job.kind());
+        } catch (IllegalArgumentException e) {
+            record(job, new IllegalArgumentException("Unknown outbox job kind " + job.kind()), true);
+            return;
+        }
+
+        Throwable error = null;
+        try {
+            execute(kind, job.payload()).get(EXECUTE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            error = unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        Metrics.recordNanos("outbox.execute", System.nanoTime() - startNanos);
+        record(job, error, false);
+    }
+
+    /**
+     * Hand claimed jobs that will not run here back to the queue, so they need not wait for their lease.
+     */
+    private static void release(List<OutboxJob> jobs) {
+        for (OutboxJob job : jobs) {
+            try {
+                Repositories.outbox().retry(job.id(), 0, "Released on shutdown before running");
+            } catch (StorageException e) {
+                logger.warn("Failed to release outbox job {}; it runs again after its lease", job.id(), e);
+            }
+        }
+    }
+
+    private static void record(OutboxJob job, Throwable error, boolean permanent) {
+        try {
+            if (error == null) {
+                Repositories.outbox().complete(job.id());
+                Metrics.increment("outbox.completed");
+            } else if (permanent || job.attempts() >= Config.getOutboxMaxAttempts()) {
+                Repositories.outbox().fail(job.id(), describe(error));
+                Metrics.increment("outbox.failed");
+                logger.error("Outbox job {} ({} {}) failed after {} attempt(s)",
+                        job.id(), job.kind(), job.payload(), job.attempts(), error);
+            } else {
+                long delayMs = backoffMs(job.attempts());
+                Repositories.outbox().retry(job.id(), delayMs, describe(error));
+                Metrics.increment("outbox.retried");
+                logger.warn("Outbox job {} ({} {}) attempt {} failed; retrying in {} ms: {}",
+                        job.id(), job.kind(), job.payload(), job.attempts(), delayMs, describe(error));
+            }
+        } catch (StorageException e) {
+            // The lease expires and the job runs again, which the handlers tolerate
+            logger.error("Failed to record outcome of outbox job {}", job.id(), e);
+        }
+    }
+
+    /**
+     * Exponential backoff with +/-20% jitter, so a burst of failures does not retry in lockstep.
+     */
+    private static long backoffMs(int attempts) {
+        long exponential = BASE_BACKOFF_MS << Math.min(attempts - 1, 20);
+        long delay = Math.min(MAX_BACKOFF_MS, exponential);
+        return (long) (delay * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+    }
+
+    private static void purgeIfDue() throws StorageException {
+        long now = System.currentTimeMillis();
+        long last = LAST_PURGE_MS.get();
+        if (now - last < PURGE_INTERVAL_MS || !LAST_PURGE_MS.compareAndSet(last, now)) {
+            return;
+        }
+        int purged = Repositories.outbox().purgeCompleted(RETENTION_MS);
+        if (purged > 0) {
+            logger.info("Purged {} finished outbox job(s)", purged);
+        }
+    }
+
+    private static String describe(Throwable error) {
+        return error.getClass().getSimpleName() + (error.getMessage() == null ? "" : ": " + error.getMessage());
+    }
+
+    // -------------------------------------------------------------------------
+    // Handlers
+    // -------------------------------------------------------------------------
+
+    private static CompletableFuture<?> execute(Kind kind, String payload) {
+        return switch (kind) {
+            case ARCHIVE_THREAD -> archive(payload);
+            case GRANT_TESTER_ROLES -> grant(payload);
+            case CLOSE_THREAD -> close(payload);
+            case ADD_MISSING_TAGS -> addMissingTags(payload);
+        };
+    }
+
+    private static CompletableFuture<Void> archive(String payload) {
+        ThreadChannel thread = shardManager.getThreadChannelById(payload);
+        if (thread == null || thread.isArchived()) {
+            // Deleted, or already archived (archived threads leave the cache)
+            return CompletableFuture.completedFuture(null);
+        }
+        return thread.getManager().setArchived(true).submit()
+                .thenRun(() -> logger.info("Closed thread: {}", thread.getName()))
+                .exceptionally(error -> {
+                    if (isError(error, ErrorResponse.UNKNOWN_CHANNEL)) {
+                        return null;
+                    }
+                    throw new CompletionException(error);
+                });
+    }
+
+    private static CompletableFuture<Void> close(String payload) {
+        String[] ids = payload.split(":", 3);
+        ForumChannel forum = shardManager.getForumChannelCache().getElementById(ids[0]);
+        if (forum == null) {
+            // Possibly unavailable during an outage; retried with backoff
+            return CompletableFuture.failedFuture(new IllegalStateException("Forum " + ids[0] + " is not available"));
+        }
+        ForumTag tag = forum.getAvailableTagById(ids[2]);
+        if (tag == null) {
+            logger.warn("Status tag {} no longer exists in forum {}; closing thread {} without it",
+                    ids[2], forum.getName(), ids[1]);
+        }
+        long threadId = Long.parseLong(ids[1]);
+        return findThread(forum, threadId)
+                .thenCompose(thread -> {
+                    if (thread == null) {
+                        // Not cached and not among the recently archived threads: retried, then kept as failed
+                        throw new CompletionException(new IllegalStateException(
+                                "Thread " + threadId + " not found in forum " + forum.getName()));
+                    }
+                    List<ForumTag> tags = tag == null ? thread.getAppliedTags() : withStatusTag(thread, tag);
+                    if (!thread.isArchived()) {
+                        return thread.getManager().setAppliedTags(tags).setArchived(true).submit()
+                                .thenRun(() -> logger.info("Closed thread: {}", thread.getName()));
+                    }
+                    if (tags.equals(thread.getAppliedTags())) {
+                        // Closed by an earlier attempt, or by hand with the same tag
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    // Discord only edits an archived thread in a request that also unarchives it
+                    return thread.getManager().setArchived(false).setAppliedTags(tags).submit()
+                            .thenCompose(ignored -> thread.getManager().setArchived(true).submit())
+                            .thenRun(() -> logger.info("Retagged and closed archived thread: {}", thread.getName()));
+                })
+                .exceptionally(error -> {
+                    if (isError(error, ErrorResponse.UNKNOWN_CHANNEL)) {
+                        return null;
+                    }
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                });
+    }
+
+    /**
+     * Look a thread up in the cache, or else among the forum's most recently archived threads, since archived
+     * threads leave the cache.
+     *
+     * @return the thread, or {@code null} if it was not found
+     */
+    private static CompletableFuture<ThreadChannel> findThread(ForumChannel forum, long threadId) {
+        ThreadChannel cached = shardManager.getThreadChannelById(threadId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        AtomicReference<ThreadChannel> found = new AtomicReference<>();
+        AtomicInteger scanned = new AtomicInteger();
+        return forum.retrieveArchivedPublicThreadChannels()
+                .forEachAsync(thread -> {
+                    if (thread.getIdLong() == threadId) {
+                        found.set(thread);
+                        return false;
+                    }
+                    return scanned.incrementAndGet() < ARCHIVED_LOOKUP_LIMIT;
+                })
+                .thenApply(ignored -> found.get());
+    }
+
+    /**
+     * @return the thread's tags with every other status tag replaced by {@code tag}
+     */
+    private static List<ForumTag> withStatusTag(ThreadChannel thread, ForumTag tag) {
+        List<ForumTag> tags = new ArrayList<>(thread.getAppliedTags());
+        tags.removeIf(applied -> ValidationUtils.isStatusTag(applied) && !applied.equals(tag));
+        if (!tags.contains(tag)) {
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    private static CompletableFuture<Void> addMissingTags(String payload) {
+        String[] ids = payload.split(":", 2);
+        ThreadChannel thread = shardManager.getThreadChannelById(ids[0]);
+        if (thread == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ForumChannel forum = thread.getParentChannel().asForumChannel();
+
+        List<ForumTag> tags = new ArrayList<>(thread.getAppliedTags());
+        List<ForumTag> added = new ArrayList<>();
+        for (String tagId : ids[1].split(",")) {
+            ForumTag tag = forum.getAvailableTagById(tagId);
+            if (tag == null || tags.size() >= ForumChannel.MAX_POST_TAGS) {
+                continue;
+            }
+            Predicate<ForumTag> sameGroup = ValidationUtils.isStatusTag(tag)
+                    ? ValidationUtils::isStatusTag
+                    : ValidationUtils::isCategoryTag;
+            if (tags.stream().noneMatch(sameGroup)) {
+                tags.add(tag);
+                added.add(tag);
+            }
+        }
+        if (added.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return thread.getManager().setAppliedTags(tags).submit()
+                .thenRun(() -> logger.info("Automatically applied tags {} to new thread: {}",
+                        added.stream().map(ForumTag::getName).toList(), thread.getName()));
+    }
+
+    private static CompletableFuture<Void> grant(String payload) {
+        String[] ids = payload.split(":", 2);
+        Guild guild = shardManager.getGuildById(ids[0]);
+        if (guild == null) {
+            // Possibly unavailable during an outage; retried with backoff
+            return CompletableFuture.failedFuture(new IllegalStateException("Guild " + ids[0] + " is not available"));
+        }
+        String userId = ids[1];
+        return guild.retrieveMemberById(userId).submit()
+                .thenCompose(member -> TesterRoleService.grant(guild, member)
+                        .thenRun(() -> {
+                            try {
+                                Repositories.pendingTesters().remove(guild.getIdLong(), userId);
+                            } catch (StorageException e) {
+                                throw new CompletionException(e);
+                            }
+                            logger.info("Assigned tester roles to pending user {}", member.getUser().getName());
+                        }))
+                .exceptionally(error -> {
+                    if (isError(error, ErrorResponse.UNKNOWN_MEMBER)) {
+                        // Left again before the job ran; they stay pending for their next join
+                        logger.info("Pending tester {} left before roles could be assigned", userId);
+                        return null;
+                    }
+                    throw new CompletionException(error);
+                });
+    }
+
+    private static boolean isError(Throwable error, ErrorResponse response) {
+        return unwrap(error) instanceof ErrorResponseException e && e.getErrorResponse() == response;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,157 @@
+package dev.wand.stacker.jobs;
+
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import dev.wand.stacker.services.TesterRoleService;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Grants the tester roles to pending testers who joined while the bot was not watching.
+ * <p>
+ * Each served guild's {@code pending_testers} list is read and intersected with that guild's membership in
+ * bulk (see {@link TesterRoleService#retrieveMembers}): chunked member requests for small lists, one
+ * filtered member-list download for large ones. Matching members get their roles through the
+ * service's bounded role-update queue, and the guild's satisfied users are then deleted in one batched
+ * statement. Users not yet in the guild stay pending there. A guild whose list or members cannot be read
+ * is logged and counted as failed, and the run continues with the next guild.
+ * <p>
+ * Runs at startup and on demand via {@code /reconcile-testers}. Concurrent requests share the run
+ * that is already in progress.
+ */
+public final class PendingTesterReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingTesterReconciliationJob.class);
+
+    private static final AtomicReference<CompletableFuture<Result>> CURRENT = new AtomicReference<>();
+
+    private PendingTesterReconciliationJob() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Outcome of one reconciliation.
+     *
+     * @param pending      Entries on the served guilds' pending lists when the run started
+     * @param reconciled   Entries whose user was found in their guild, given the roles and removed from the list
+     * @param failed       Entries whose user was found but could not be granted the roles; they stay pending
+     * @param failedGuilds Guilds that could not be reconciled at all; their entries stay pending
+     * @param elapsedMs    Wall-clock duration of the run
+     */
+    public record Result(int pending, int reconciled, int failed, int failedGuilds, long elapsedMs) {
+    }
+
+    /**
+     * Start a reconciliation in the background, or join the one already running.
+     *
+     * @param shardManager The connected shard manager
+     * @return A future completed with the outcome of the run
+     */
+    public static CompletableFuture<Result> runAsync(ShardManager shardManager) {
+        CompletableFuture<Result> started = new CompletableFuture<>();
+        CompletableFuture<Result> running = CURRENT.compareAndExchange(null, started);
+        if (running != null) {
+            logger.info("Pending tester reconciliation already running; joining it");
+            return running;
+        }
+        CompletableFuture.supplyAsync(() -> run(shardManager))
+                .whenComplete((result, error) -> {
+                    CURRENT.set(null);
+                    if (error != null) {
+                        logger.error("Pending tester reconciliation failed", error);
+                        started.completeExceptionally(error);
+                    } else {
+                        started.complete(result);
+                    }
+                });
+        return started;
+    }
+
+    /**
+     * @return the guild's pending user IDs; malformed ones are skipped
+     */
+    private static Set<Long> readPending(Guild guild) {
+        List<String> stored;
+        try {
+            stored = Repositories.pendingTesters().readAll(guild.getIdLong());
+        } catch (StorageException e) {
+            throw new IllegalStateException("Failed to read pending testers of " + guild.getName(), e);
+        }
+        Set<Long> ids = new HashSet<>(stored.size() * 2);
+        for (String userId : stored) {
+            try {
+                ids.add(Long.parseLong(userId));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed pending tester ID {}", userId);
+            }
+        }
+        return ids;
+    }
+
+    private static Result run(ShardManager shardManager) {
+        long startNanos = System.nanoTime();
+
+        int pending = 0;
+        int reconciled = 0;
+        int failed = 0;
+        int failedGuilds = 0;
+        for (GuildSettings settings : GuildConfig.all()) {
+            Guild guild = shardManager.getGuildById(settings.guildId());
+            if (guild == null || TesterRoleService.testerRoles(guild).isEmpty()) {
+                continue;
+            }
+            try {
+                Set<Long> stored = readPending(guild);
+                if (stored.isEmpty()) {
+                    continue;
+                }
+                pending += stored.size();
+
+                List<Member> members = TesterRoleService.retrieveMembers(guild, stored).join();
+                Set<Long> granted = TesterRoleService.grantMembers(guild, members).join();
+                reconciled += granted.size();
+                failed += members.size() - granted.size();
+                logger.info("Pending tester reconciliation in {}: {} of {} pending user(s) found, {} satisfied",
+                        guild.getName(), members.size(), stored.size(), granted.size());
+                removeGranted(guild, granted);
+            } catch (RuntimeException e) {
+                // One guild's storage or gateway failure must not stop the others from being reconciled
+                failedGuilds++;
+                logger.error("Pending tester reconciliation in {} failed; its users stay pending", guild.getName(), e);
+            }
+        }
+
+        Result result = new Result(pending, reconciled, failed, failedGuilds,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        Metrics.add("pending_testers.reconciled", result.reconciled());
+        logger.info("Pending tester reconciliation done: {} of {} pending user(s) reconciled, {} failed, "
+                        + "{} guild(s) failed in {} ms",
+                result.reconciled(), result.pending(), result.failed(), result.failedGuilds(), result.elapsedMs());
+        return result;
+    }
+
+    private static void removeGranted(Guild guild, Set<Long> granted) {
+        if (granted.isEmpty()) {
+            return;
+        }
+        try {
+            Repositories.pendingTesters().removeAll(guild.getIdLong(), granted.stream().map(String::valueOf).toList());
+        } catch (StorageException e) {
+            // Roles were granted; the rows are removed on a later run or when the user rejoins
+            logger.error("Failed to remove {} reconciled user(s) from the pending tester list of {}",
+                    granted.size(), guild.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package dev.wand.stacker.jobs;
+
+import dev.wand.stacker.metrics.Metrics;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Work queue for bulk Discord REST calls with bounded concurrency and a token-bucket rate limit.
+ * <p>
+ * Background jobs use this instead of queueing actions directly so that a large batch never takes
+ * more than its share of the bot's REST budget: at most {@code maxInFlight} requests are outstanding,
+ * and requests start at no more than {@code permitsPerSecond} on average (bursts up to
+ * {@code burst}). JDA's own per-route rate limiting still applies underneath.
+ * <p>
+ * Actions are built lazily by a supplier when their turn comes, so entities are read as late as possible.
+ */
+public final class RestWorkQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestWorkQueue.class);
+
+    private static final ScheduledExecutorService DISPATCHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rest-work-queue");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final int maxInFlight;
+    private final double permitsPerNano;
+    private final double burst;
+
+    // Guarded by this
+    private final Queue<Task<?>> pending = new ArrayDeque<>();
+    private int inFlight;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private boolean wakeupScheduled;
+
+    private record Task<T>(Supplier<? extends RestAction<T>> action, CompletableFuture<T> result) {
+    }
+
+    /**
+     * @param name             Name used in logs and metrics (e.g. {@code reconcile})
+     * @param maxInFlight      Maximum number of outstanding requests
+     * @param permitsPerSecond Average number of requests started per second
+     * @param burst            Maximum number of requests that may start back to back
+     */
+    public RestWorkQueue(String name, int maxInFlight, double permitsPerSecond, int burst) {
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000.0;
+        this.burst = burst;
+        this.tokens = burst;
+        Metrics.gauge("rest_queue." + name + ".pending", this::pendingCount);
+    }
+
+    /**
+     * Queue a REST action.
+     *
+     * @param action Builds the action when it is ready to be sent
+     * @param <T>    The action's result type
+     * @return A future completed with the action's result or failure
+     */
+    public <T> CompletableFuture<T> submit(Supplier<? extends RestAction<T>> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        synchronized (this) {
+            pending.add(new Task<>(action, result));
+        }
+        dispatch();
+        return result;
+    }
+
+    /**
+     * @return the number of queued actions that have not started yet
+     */
+    public synchronized long pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Start as many queued actions as the concurrency limit and token bucket allow,
+     * and schedule a wake-up for when the next token becomes available.
+     */
+    private void dispatch() {
+        while (true) {
+            Task<?> task;
+            synchronized (this) {
+                refill();
+                if (pending.isEmpty() || inFlight >= maxInFlight) {
+                    return;
+                }
+                if (tokens < 1) {
+                    scheduleWakeup((long) Math.ceil((1 - tokens) / permitsPerNano));
+                    return;
+                }
+                tokens -= 1;
+                inFlight++;
+                task = pending.poll();
+            }
+            start(task);
+        }
+    }
+
+    private <T> void start(Task<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = task.action().get().submit();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            synchronized (this) {
+                inFlight--;
+            }
+            if (error != null) {
+                Metrics.increment("rest_queue." + name + ".failed");
+                task.result().completeExceptionally(error);
+            } else {
+                Metrics.increment("rest_queue." + name + ".completed");
+                task.result().complete(value);
+            }
+            dispatch();
+        });
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+    }
+
+    private void scheduleWakeup(long delayNanos) {
+        if (wakeupScheduled) {
+            return;
+        }
+        wakeupScheduled = true;
+        DISPATCHER.schedule(() -> {
+            synchronized (this) {
+                wakeupScheduled = false;
+            }
+            try {
+                dispatch();
+            } catch (RuntimeException e) {
+                logger.error("Work queue {} failed to dispatch", name, e);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,213 @@
+package dev.wand.stacker.jobs;
+
+import dev.wand.stacker.cluster.LeaderElection;
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.config.TagKind;
+import dev.wand.stacker.embeds.EmbedManager;
+import dev.wand.stacker.index.ThreadIndex;
+import dev.wand.stacker.index.ThreadRecord;
+import dev.wand.stacker.metrics.Metrics;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archives Tester Log Forum threads that have stayed open too long for their status.
+ * <p>
+ * Each run looks up open threads per status in the {@link ThreadIndex} (no REST walk) and archives
+ * those whose status has not changed and that have had no new message for longer than the configured
+ * threshold for that status, longest idle first. Archiving goes through a
+ * small {@link RestWorkQueue} (2 in flight, 1 request per second), so a sweep never takes more than
+ * a sliver of the bot's REST budget; at most {@code SWEEP_MAX_PER_RUN} threads are archived per run
+ * and the rest are left for the next one. Each run produces one summary, posted to
+ * {@code SWEEP_SUMMARY_CHANNEL_ID} if configured.
+ */
+public final class StaleThreadSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleThreadSweeper.class);
+
+    private static final long DAY_MS = 86_400_000L;
+    private static final RestWorkQueue QUEUE = new RestWorkQueue("sweeper", 2, 1.0, 2);
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stale-thread-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private StaleThreadSweeper() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * One status the sweeper acts on.
+     *
+     * @param name    Display name used in the summary
+     * @param tag     The status tag
+     * @param maxDays Days without a status change or new message after which an open thread is archived;
+     *                {@code 0} disables
+     */
+    private record Rule(String name, TagKind tag, int maxDays) {
+    }
+
+    /**
+     * Schedule sweeps every {@code SWEEP_INTERVAL_HOURS}, starting one interval from now.
+     * Runs are skipped while this instance is not the cluster leader.
+     *
+     * @param shardManager The connected shard manager
+     */
+    public static void start(ShardManager shardManager) {
+        int intervalHours = Config.getSweepIntervalHours();
+        if (intervalHours <= 0) {
+            logger.info("Stale thread sweeper disabled");
+            return;
+        }
+        SCHEDULER.scheduleWithFixedDelay(() -> {
+            if (!LeaderElection.isLeader()) {
+                return;
+            }
+            try {
+                run(shardManager);
+            } catch (Exception e) {
+                logger.error("Stale thread sweep failed", e);
+            }
+        }, intervalHours, intervalHours, TimeUnit.HOURS);
+    }
+
+    /**
+     * Stop scheduling sweeps. A sweep already running finishes.
+     */
+    public static void stop() {
+        SCHEDULER.shutdown();
+    }
+
+    private static List<Rule> rules() {
+        int closedDays = Config.getSweepClosedStatusDays();
+        return List.of(
+                new Rule("Fixed", TagKind.FIXED, closedDays),
+                new Rule("Resolved", TagKind.RESOLVED, closedDays),
+                new Rule("Duplicate", TagKind.DUPLICATE, closedDays),
+                new Rule("Pending", TagKind.PENDING, Config.getSweepPendingDays()),
+                new Rule("Investigating", TagKind.INVESTIGATING, Config.getSweepInvestigatingDays()),
+                new Rule("In Progress", TagKind.IN_PROGRESS, Config.getSweepInProgressDays())
+        );
+    }
+
+    /**
+     * Run one sweep and wait for it to finish.
+     *
+     * @param shardManager The connected shard manager
+     */
+    public static void run(ShardManager shardManager) {
+        long startNanos = System.nanoTime();
+        long now = System.currentTimeMillis();
+        int budget = Config.getSweepMaxPerRun();
+
+        Map<String, Integer> archived = new LinkedHashMap<>();
+        Map<String, List<CompletableFuture<Void>>> pending = new LinkedHashMap<>();
+        int deferred = 0;
+        for (Rule rule : rules()) {
+            if (rule.maxDays() <= 0) {
+                continue;
+            }
+            long cutoff = now - rule.maxDays() * DAY_MS;
+            // Every guild's forum has its own tag for the status
+            Set<Long> tagIds = new LinkedHashSet<>();
+            for (GuildSettings settings : GuildConfig.all()) {
+                long tagId = settings.tagId(rule.tag());
+                if (tagId != 0) {
+                    tagIds.add(tagId);
+                }
+            }
+            for (long tagId : tagIds) {
+                List<ThreadRecord> records = new ArrayList<>(ThreadIndex.byStatus(tagId));
+                records.sort(Comparator.comparingLong(ThreadRecord::statusChangedAt));
+                for (ThreadRecord record : records) {
+                    // Sorted by status time, so the first recently changed thread ends this status
+                    if (record.statusChangedAt() >= cutoff) {
+                        break;
+                    }
+                    if (record.isClosed()) {
+                        continue;
+                    }
+                    ThreadChannel thread = shardManager.getThreadChannelById(record.threadId());
+                    if (thread == null || thread.isArchived() || lastMessageAt(thread) >= cutoff) {
+                        continue;
+                    }
+                    if (budget == 0) {
+                        deferred++;
+                        continue;
+                    }
+                    budget--;
+                    pending.computeIfAbsent(rule.name(), k -> new ArrayList<>())
+                            .add(QUEUE.submit(() -> thread.getManager().setArchived(true)));
+                }
+            }
+        }
+
+        int failed = 0;
+        for (Map.Entry<String, List<CompletableFuture<Void>>> entry : pending.entrySet()) {
+            int count = 0;
+            for (CompletableFuture<Void> future : entry.getValue()) {
+                try {
+                    future.join();
+                    count++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    logger.warn("Failed to archive stale {} thread", entry.getKey(), e);
+                }
+            }
+            if (count > 0) {
+                archived.put(entry.getKey(), count);
+            }
+        }
+
+        int total = archived.values().stream().mapToInt(Integer::intValue).sum();
+        Metrics.add("sweeper.threads_archived", total);
+        logger.info("Stale thread sweep done: archived {} {}, {} failed, {} deferred in {} ms",
+                total, archived, failed, deferred, (System.nanoTime() - startNanos) / 1_000_000);
+
+        if (total > 0 || failed > 0) {
+            postSummary(shardManager, archived, failed, deferred);
+        }
+    }
+
+    /**
+     * @return when the thread's latest message was sent, read from its snowflake; the thread's own creation
+     * time if it has none
+     */
+    private static long lastMessageAt(ThreadChannel thread) {
+        long latestMessageId = thread.getLatestMessageIdLong();
+        return latestMessageId == 0
+                ? thread.getTimeCreated().toInstant().toEpochMilli()
+                : TimeUtil.getTimeCreated(latestMessageId).toInstant().toEpochMilli();
+    }
+
+    private static void postSummary(ShardManager shardManager, Map<String, Integer> archived, int failed,
+                                    int deferred) {
+        String channelId = Config.getSweepSummaryChannelId();
+        if (channelId.isEmpty()) {
+            return;
+        }
+        TextChannel channel = shardManager.getTextChannelById(channelId);
+        if (channel == null) {
+            logger.warn("Sweep summary channel {} not found", channelId);
+            return;
+        }
+        channel.sendMessageEmbeds(EmbedManager.createSweepSummaryEmbed(archived, failed, deferred)).queue(
+                success -> logger.info("Posted stale thread sweep summary"),
+                error -> logger.error("Failed to post stale thread sweep summary", error)
+        );
+    }
+}
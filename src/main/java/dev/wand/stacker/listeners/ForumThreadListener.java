@@ -1,7 +1,13 @@
 package dev.wand.stacker.listeners;
 
-import dev.wand.stacker.config.Config;
-import dev.wand.stacker.utils.ValidationUtils;
+import dev.wand.stacker.cluster.LeaderElection;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.embeds.EmbedManager;
+import dev.wand.stacker.index.DuplicateDetector;
+import dev.wand.stacker.jobs.Outbox;
+import dev.wand.stacker.services.ThreadClassifier;
+import dev.wand.stacker.services.ThreadTagger;
+import dev.wand.stacker.utils.EventDeduplicator;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
@@ -10,35 +16,38 @@ import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Listener that automatically applies the "Pending" tag to new forum threads.
+ * Listener that automatically tags new forum threads.
  * <p>
- * When a new thread is created in the Tester Log Forum, this listener:
+ * When a new thread is created in the Tester Log Forum of a served guild, this listener:
  * 1. Validates that the thread belongs to the correct forum
- * 2. Checks if a status tag is already applied
- * 3. Applies the "Pending" tag automatically if no status tag exists
+ * 2. Reads the thread's starter message
+ * 3. Adds the "Pending" tag if no status tag exists, and a Bug/Feature/Feedback tag chosen by
+ *    {@link ThreadClassifier} if no category tag exists, in a single tag update
+ * 4. Checks the title and starter message against existing threads and posts possible duplicates
  * <p>
  * This ensures all new bug reports start with a consistent status.
+ * Only the cluster leader acts on new threads, so they are tagged once however many instances run.
  */
 public class ForumThreadListener extends ListenerAdapter {
 
     private static final Logger logger = LoggerFactory.getLogger(ForumThreadListener.class);
+    private static final long STARTER_MESSAGE_DELAY_SECONDS = 2;
 
     @Override
     public void onChannelCreate(ChannelCreateEvent event) {
         // Check if the created channel is a thread
-        if (!(event.getChannel() instanceof ThreadChannel)) {
+        if (!LeaderElection.isLeader() || !(event.getChannel() instanceof ThreadChannel)) {
             return;
         }
 
         ThreadChannel thread = (ThreadChannel) event.getChannel();
 
-        // Check if this thread belongs to the Tester Log Forum
-        if (thread.getParentChannel() == null ||
-                !thread.getParentChannel().getId().equals(Config.CHANNEL_TESTER_LOG_FORUM)) {
+        // Check if this thread belongs to a Tester Log Forum
+        if (thread.getParentChannel() == null || GuildConfig.forForum(thread.getParentChannel().getIdLong()) == null) {
             return;
         }
 
@@ -47,35 +56,53 @@ public class ForumThreadListener extends ListenerAdapter {
             return;
         }
 
-        ForumChannel forumChannel = (ForumChannel) thread.getParentChannel();
-
-        // Find the Pending tag
-        ForumTag pendingTag = forumChannel.getAvailableTags().stream()
-                .filter(tag -> tag.getId().equals(Config.TAG_PENDING))
-                .findFirst()
-                .orElse(null);
-
-        if (pendingTag == null) {
-            logger.warn("Pending tag not found in forum: {}", forumChannel.getName());
+        // Ignore replays of a creation we already handled (e.g. after a gateway RESUME)
+        if (!EventDeduplicator.firstSeen(EventDeduplicator.EventType.THREAD_CREATE, thread.getIdLong())) {
+            logger.debug("Ignoring replayed creation of thread {}", thread.getName());
             return;
         }
 
-        // Get current tags and add the Pending tag if not already present
-        List<ForumTag> currentTags = new ArrayList<>(thread.getAppliedTags());
+        ForumChannel forumChannel = (ForumChannel) thread.getParentChannel();
+
+        // The starter message is created right after the thread, so it is fetched after a short delay.
+        // If it still cannot be read, the title alone is used for classification and duplicate detection.
+        thread.retrieveStartMessage().queueAfter(STARTER_MESSAGE_DELAY_SECONDS, TimeUnit.SECONDS,
+                message -> handleNewThread(forumChannel, thread, thread.getName() + "\n" + message.getContentRaw()),
+                error -> {
+                    logger.warn("Could not retrieve starter message of {}; using title only", thread.getName());
+                    handleNewThread(forumChannel, thread, thread.getName());
+                }
+        );
+    }
 
-        // Check if a status tag is already applied
-        boolean hasStatusTag = currentTags.stream()
-                .anyMatch(ValidationUtils::isStatusTag);
+    private void handleNewThread(ForumChannel forumChannel, ThreadChannel thread, String text) {
+        applyTags(forumChannel, thread, text);
+        postDuplicates(thread, text);
+    }
 
-        // Only add Pending tag if no status tag is present
-        if (!hasStatusTag) {
-            currentTags.add(pendingTag);
+    /**
+     * Add the Pending and category tags chosen by {@link ThreadTagger} in a single tag update, through the
+     * outbox so the update survives Discord errors and restarts.
+     */
+    private void applyTags(ForumChannel forumChannel, ThreadChannel thread, String text) {
+        List<ForumTag> tags = ThreadTagger.automaticTags(forumChannel, thread, text);
+        if (!tags.isEmpty()) {
+            Outbox.addMissingTags(thread.getIdLong(), tags);
+        }
+    }
 
-            // Apply the tags
-            thread.getManager().setAppliedTags(currentTags).queue(
-                    success -> logger.info("Automatically applied Pending tag to new thread: {}", thread.getName()),
-                    error -> logger.error("Failed to apply Pending tag to new thread: {}", thread.getName(), error)
-            );
+    /**
+     * Post a "possible duplicates" embed if the new thread resembles existing ones.
+     */
+    private void postDuplicates(ThreadChannel thread, String text) {
+        List<DuplicateDetector.Match> matches = DuplicateDetector.checkAndIndex(
+                thread.getIdLong(), thread.getParentChannel().getIdLong(), text);
+        if (matches.isEmpty()) {
+            return;
         }
+        thread.sendMessageEmbeds(EmbedManager.createPossibleDuplicatesEmbed(matches)).queue(
+                success -> logger.info("Posted {} possible duplicate(s) in new thread: {}", matches.size(), thread.getName()),
+                error -> logger.error("Failed to post possible duplicates in thread: {}", thread.getName(), error)
+        );
     }
 }
@@ -1,30 +1,45 @@
 package dev.wand.stacker.listeners;
 
-import dev.wand.stacker.config.Config;
-import dev.wand.stacker.repository.PendingTesterRepository;
-import net.dv8tion.jda.api.entities.Guild;
+import dev.wand.stacker.cluster.LeaderElection;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.jobs.Outbox;
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import dev.wand.stacker.utils.EventDeduplicator;
 import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.SQLException;
-
 public class PendingTesterListener extends ListenerAdapter {
 
     private static final Logger logger = LoggerFactory.getLogger(PendingTesterListener.class);
 
     @Override
     public void onGuildMemberJoin(GuildMemberJoinEvent event) {
+        // Followers would only queue a duplicate grant
+        if (!LeaderElection.isLeader()) {
+            return;
+        }
+        if (GuildConfig.forGuild(event.getGuild().getIdLong()) == null) {
+            return;
+        }
+
         Member member = event.getMember();
         String userId = member.getId();
 
+        // Ignore replays of a join we already handled (e.g. after a gateway RESUME)
+        if (!EventDeduplicator.firstSeen(EventDeduplicator.EventType.MEMBER_JOIN,
+                event.getGuild().getIdLong(), member.getIdLong())) {
+            logger.debug("Ignoring replayed join of user {}", userId);
+            return;
+        }
+
         boolean pending;
         try {
-            pending = PendingTesterRepository.contains(userId);
-        } catch (SQLException e) {
+            pending = Repositories.pendingTesters().contains(event.getGuild().getIdLong(), userId);
+        } catch (StorageException e) {
             logger.error("Failed to check pending tester list for user {}", userId, e);
             return;
         }
@@ -33,28 +48,8 @@ public class PendingTesterListener extends ListenerAdapter {
             return;
         }
 
-        Guild guild = event.getGuild();
-        Role role1 = guild.getRoleById(Config.ROLE_TESTER_1);
-        Role role2 = guild.getRoleById(Config.ROLE_TESTER_2);
-
-        if (role1 == null || role2 == null) {
-            logger.error("Tester roles not found in guild: {}", guild.getName());
-            return;
-        }
-
-        guild.addRoleToMember(member, role1).queue(
-                success1 -> guild.addRoleToMember(member, role2).queue(
-                        success2 -> {
-                            try {
-                                PendingTesterRepository.remove(userId);
-                            } catch (SQLException e) {
-                                logger.error("Failed to remove {} from pending tester list", userId, e);
-                            }
-                            logger.info("Assigned tester roles to pending user {} on join", member.getUser().getName());
-                        },
-                        error2 -> logger.error("Failed to assign second tester role to pending user {}", userId, error2)
-                ),
-                error1 -> logger.error("Failed to assign first tester role to pending user {}", userId, error1)
-        );
+        // The grant and the pending-list removal run through the outbox, so neither is lost on failure
+        logger.info("Pending user {} joined; queueing tester roles", member.getUser().getName());
+        Outbox.grantTesterRoles(event.getGuild().getIdLong(), member.getIdLong());
     }
 }
@@ -0,0 +1,36 @@
+package dev.wand.stacker.listeners;
+
+import dev.wand.stacker.cluster.LeaderElection;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.jobs.ForumReconciliationJob;
+import net.dv8tion.jda.api.events.session.SessionRecreateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listener that catches up on missed work after the gateway session was invalidated.
+ * <p>
+ * A resumed session replays missed events, but a recreated session does not, so threads created
+ * in between would never be tagged. This triggers the {@link ForumReconciliationJob} to find them.
+ */
+public class SessionListener extends ListenerAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionListener.class);
+
+    @Override
+    public void onSessionRecreate(SessionRecreateEvent event) {
+        if (!LeaderElection.isLeader()) {
+            return;
+        }
+        // Only a shard that owns a served guild's forum can have missed its threads
+        if (GuildConfig.all().stream().map(GuildSettings::forumChannelId)
+                .noneMatch(forumId -> event.getJDA().getForumChannelById(forumId) != null)) {
+            return;
+        }
+        logger.info("Gateway session of shard {} recreated; reconciling forum threads",
+                event.getJDA().getShardInfo().getShardId());
+        ForumReconciliationJob.runAsync(event.getJDA().getShardManager());
+    }
+}
@@ -0,0 +1,46 @@
+package dev.wand.stacker.listeners;
+
+import dev.wand.stacker.index.DuplicateDetector;
+import dev.wand.stacker.index.ThreadIndex;
+import dev.wand.stacker.index.ThreadRecord;
+import dev.wand.stacker.utils.ValidationUtils;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.update.GenericChannelUpdateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+/**
+ * Listener that keeps the {@link ThreadIndex} in sync with the Tester Log Forum.
+ * <p>
+ * Thread creation and any thread update (name, archive state, applied tags, ...) re-snapshot the
+ * thread into the index; deletion removes it from the index and the {@link DuplicateDetector}.
+ * Events for other channels are ignored.
+ */
+public class ThreadIndexListener extends ListenerAdapter {
+
+    @Override
+    public void onChannelCreate(ChannelCreateEvent event) {
+        refresh(event.getChannel());
+    }
+
+    @Override
+    public void onGenericChannelUpdate(GenericChannelUpdateEvent<?> event) {
+        refresh(event.getChannel());
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        if (ValidationUtils.isThreadInTesterLogForum(event.getChannel())) {
+            ThreadIndex.remove(event.getChannel().getIdLong());
+            DuplicateDetector.remove(event.getChannel().getIdLong());
+        }
+    }
+
+    private void refresh(Channel channel) {
+        if (ValidationUtils.isThreadInTesterLogForum(channel)) {
+            ThreadIndex.upsert(ThreadRecord.from((ThreadChannel) channel));
+        }
+    }
+}
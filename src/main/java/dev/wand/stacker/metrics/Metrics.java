@@ -0,0 +1,172 @@
+package dev.wand.stacker.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal in-process metrics registry.
+ * <p>
+ * Three kinds of metric are supported, all keyed by a dotted name (e.g. {@code db.pool.active}):
+ * <ul>
+ *   <li>Counters — monotonically increasing event counts</li>
+ *   <li>Timers — count, total and max of recorded durations</li>
+ *   <li>Gauges — values sampled on demand from a supplier</li>
+ * </ul>
+ * Recording is lock-free and safe from any thread. A periodic summary is written to the log
+ * once {@link #startReporter(long)} has been called.
+ */
+public final class Metrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    private static volatile ScheduledExecutorService reporter;
+
+    private Metrics() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Increment a counter by one.
+     *
+     * @param name The counter name
+     */
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * Increment a counter by an arbitrary amount.
+     *
+     * @param name  The counter name
+     * @param delta The amount to add
+     */
+    public static void add(String name, long delta) {
+        COUNTERS.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Read the current value of a counter.
+     *
+     * @param name The counter name
+     * @return The counter value, or 0 if it has never been incremented
+     */
+    public static long count(String name) {
+        LongAdder adder = COUNTERS.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Record a duration against a timer.
+     *
+     * @param name  The timer name
+     * @param nanos The duration in nanoseconds
+     */
+    public static void recordNanos(String name, long nanos) {
+        TIMERS.computeIfAbsent(name, k -> new Timer()).record(nanos);
+    }
+
+    /**
+     * Record a duration against a timer.
+     *
+     * @param name   The timer name
+     * @param millis The duration in milliseconds
+     */
+    public static void recordMillis(String name, long millis) {
+        recordNanos(name, TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Register (or replace) a gauge.
+     *
+     * @param name     The gauge name
+     * @param supplier Supplies the current value whenever the gauge is read
+     */
+    public static void gauge(String name, LongSupplier supplier) {
+        GAUGES.put(name, supplier);
+    }
+
+    /**
+     * Remove a previously registered gauge.
+     *
+     * @param name The gauge name
+     */
+    public static void removeGauge(String name) {
+        GAUGES.remove(name);
+    }
+
+    /**
+     * Render every metric as one {@code name=value} line, sorted by name.
+     *
+     * @return A multi-line summary of all metrics
+     */
+    public static String summary() {
+        Map<String, String> lines = new TreeMap<>();
+        COUNTERS.forEach((name, adder) -> lines.put(name, Long.toString(adder.sum())));
+        GAUGES.forEach((name, supplier) -> {
+            try {
+                lines.put(name, Long.toString(supplier.getAsLong()));
+            } catch (RuntimeException e) {
+                lines.put(name, "error");
+            }
+        });
+        TIMERS.forEach((name, timer) -> lines.put(name, timer.toString()));
+
+        StringBuilder sb = new StringBuilder();
+        lines.forEach((name, value) -> sb.append("\n  ").append(name).append('=').append(value));
+        return sb.toString();
+    }
+
+    /**
+     * Start logging a metrics summary at a fixed interval. Subsequent calls are ignored.
+     *
+     * @param intervalMinutes Minutes between summaries
+     */
+    public static synchronized void startReporter(long intervalMinutes) {
+        if (reporter != null || intervalMinutes <= 0) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> logger.info("Metrics:{}", summary()),
+                intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Count, total and maximum of recorded durations.
+     */
+    private static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        @Override
+        public String toString() {
+            long n = count.sum();
+            double meanMs = n == 0 ? 0 : totalNanos.sum() / (double) n / 1_000_000;
+            return String.format("count:%d mean:%.2fms max:%.2fms", n, meanMs, maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
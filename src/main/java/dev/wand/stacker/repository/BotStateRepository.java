@@ -0,0 +1,26 @@
+package dev.wand.stacker.repository;
+
+/**
+ * Persists small pieces of bot state (e.g. the fingerprint of the last registered command set)
+ * as key / value pairs. Obtain the configured implementation via {@link Repositories#botState()}.
+ */
+public interface BotStateRepository {
+
+    /**
+     * Read a stored value.
+     *
+     * @param key the state key
+     * @return the stored value, or {@code null} if the key has never been written
+     * @throws StorageException if the storage operation fails
+     */
+    String get(String key) throws StorageException;
+
+    /**
+     * Insert or overwrite a stored value.
+     *
+     * @param key   the state key
+     * @param value the value to store
+     * @throws StorageException if the storage operation fails
+     */
+    void put(String key, String value) throws StorageException;
+}
@@ -0,0 +1,146 @@
+package dev.wand.stacker.repository;
+
+import com.google.gson.JsonObject;
+import dev.wand.stacker.db.ChangeFeed;
+import dev.wand.stacker.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PendingTesterRepository} that answers {@link #contains} and {@link #readAll} from memory.
+ * <p>
+ * Writes go to the wrapped repository and are applied locally at once; writes by other instances or by
+ * hand reach the cache as deltas through the {@link ChangeFeed}. Until the feed has loaded the table,
+ * and whenever it is disconnected, reads fall through to the wrapped repository.
+ */
+public final class CachedPendingTesterRepository implements PendingTesterRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedPendingTesterRepository.class);
+
+    private static final String TABLE = "pending_testers";
+
+    private final PendingTesterRepository delegate;
+    private final Map<Long, Set<String>> idsByGuild = new ConcurrentHashMap<>();
+    private volatile boolean coherent;
+
+    public CachedPendingTesterRepository(PendingTesterRepository delegate) {
+        this.delegate = delegate;
+        ChangeFeed.subscribe(TABLE, new ChangeFeed.Subscriber() {
+            @Override
+            public void resync() {
+                reload();
+            }
+
+            @Override
+            public void apply(ChangeFeed.Change change) {
+                applyChange(change);
+            }
+
+            @Override
+            public void invalidate() {
+                coherent = false;
+            }
+        });
+        Metrics.gauge("pending_testers.cached",
+                () -> idsByGuild.values().stream().mapToInt(Set::size).sum());
+    }
+
+    private void reload() {
+        coherent = false;
+        try {
+            Map<Long, List<String>> all = delegate.readAllByGuild();
+            idsByGuild.clear();
+            all.forEach((guildId, userIds) -> ids(guildId).addAll(userIds));
+            coherent = true;
+            logger.info("Loaded {} pending tester(s) in {} guild(s) into the cache",
+                    all.values().stream().mapToInt(List::size).sum(), all.size());
+        } catch (StorageException e) {
+            logger.error("Failed to load pending testers; reading through until the next resync", e);
+        }
+    }
+
+    private Set<String> ids(long guildId) {
+        return idsByGuild.computeIfAbsent(guildId, id -> ConcurrentHashMap.newKeySet());
+    }
+
+    private void applyChange(ChangeFeed.Change change) {
+        switch (change.op()) {
+            case INSERT -> addRow(change.newRow());
+            case DELETE -> removeRow(change.oldRow());
+            case UPDATE -> {
+                removeRow(change.oldRow());
+                addRow(change.newRow());
+            }
+            case TRUNCATE -> idsByGuild.clear();
+        }
+    }
+
+    private void addRow(JsonObject row) {
+        ids(row.get("guild_id").getAsLong()).add(row.get("user_id").getAsString());
+    }
+
+    private void removeRow(JsonObject row) {
+        ids(row.get("guild_id").getAsLong()).remove(row.get("user_id").getAsString());
+    }
+
+    @Override
+    public void add(long guildId, String userId) throws StorageException {
+        delegate.add(guildId, userId);
+        ids(guildId).add(userId);
+    }
+
+    @Override
+    public void addAll(long guildId, Collection<String> userIds) throws StorageException {
+        delegate.addAll(guildId, userIds);
+        ids(guildId).addAll(userIds);
+    }
+
+    @Override
+    public void remove(long guildId, String userId) throws StorageException {
+        delegate.remove(guildId, userId);
+        ids(guildId).remove(userId);
+    }
+
+    @Override
+    public void removeAll(long guildId, Collection<String> userIds) throws StorageException {
+        delegate.removeAll(guildId, userIds);
+        ids(guildId).removeAll(userIds);
+    }
+
+    @Override
+    public List<String> readAll(long guildId) throws StorageException {
+        if (!coherent) {
+            return delegate.readAll(guildId);
+        }
+        return List.copyOf(idsByGuild.getOrDefault(guildId, Set.of()));
+    }
+
+    @Override
+    public Map<Long, List<String>> readAllByGuild() throws StorageException {
+        if (!coherent) {
+            return delegate.readAllByGuild();
+        }
+        Map<Long, List<String>> all = new HashMap<>();
+        idsByGuild.forEach((guildId, userIds) -> {
+            if (!userIds.isEmpty()) {
+                all.put(guildId, List.copyOf(userIds));
+            }
+        });
+        return all;
+    }
+
+    @Override
+    public boolean contains(long guildId, String userId) throws StorageException {
+        if (!coherent) {
+            return delegate.contains(guildId, userId);
+        }
+        return idsByGuild.getOrDefault(guildId, Set.of()).contains(userId);
+    }
+}
@@ -0,0 +1,37 @@
+package dev.wand.stacker.repository;
+
+import dev.wand.stacker.index.ThreadRecord;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persists the forum thread index so it can be restored without walking Discord on restart.
+ * Obtain the configured implementation via {@link Repositories#forumThreads()}.
+ */
+public interface ForumThreadRepository {
+
+    /**
+     * Read every stored thread.
+     *
+     * @return all stored thread records
+     * @throws StorageException if the storage operation fails
+     */
+    List<ThreadRecord> readAll() throws StorageException;
+
+    /**
+     * Insert or update a batch of threads.
+     *
+     * @param threads the thread records to store
+     * @throws StorageException if the storage operation fails
+     */
+    void saveAll(Collection<ThreadRecord> threads) throws StorageException;
+
+    /**
+     * Delete a batch of threads.
+     *
+     * @param threadIds the thread IDs to delete
+     * @throws StorageException if the storage operation fails
+     */
+    void deleteAll(Collection<Long> threadIds) throws StorageException;
+}
@@ -0,0 +1,33 @@
+package dev.wand.stacker.repository;
+
+import dev.wand.stacker.services.GameStats;
+
+import java.time.Instant;
+import java.util.OptionalLong;
+
+/**
+ * Stores polled {@link GameStats} samples for range queries.
+ * Obtain the configured implementation via {@link Repositories#gameStatsHistory()}.
+ */
+public interface GameStatsHistoryRepository {
+
+    /**
+     * Append a sample. Silently ignores a second sample with the same timestamp.
+     *
+     * @param universeId the Roblox universe the stats belong to
+     * @param stats      the fetched stats
+     * @throws StorageException if the storage operation fails
+     */
+    void add(String universeId, GameStats stats) throws StorageException;
+
+    /**
+     * Find the highest player count sampled within {@code [from, to)}.
+     *
+     * @param universeId the Roblox universe
+     * @param from       inclusive start of the window
+     * @param to         exclusive end of the window
+     * @return the peak player count, or empty if no samples fall in the window
+     * @throws StorageException if the storage operation fails
+     */
+    OptionalLong findPeakPlayers(String universeId, Instant from, Instant to) throws StorageException;
+}
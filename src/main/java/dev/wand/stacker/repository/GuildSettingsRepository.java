@@ -0,0 +1,22 @@
+package dev.wand.stacker.repository;
+
+import dev.wand.stacker.config.GuildSettings;
+
+import java.util.List;
+
+/**
+ * Reads the per-guild settings of every guild the bot serves.
+ * Obtain the configured implementation via {@link Repositories#guildSettings()}.
+ * <p>
+ * Rows are written by hand (or by tooling outside the bot); the bot only reads them.
+ */
+public interface GuildSettingsRepository {
+
+    /**
+     * Read the settings of every configured guild.
+     *
+     * @return one entry per guild
+     * @throws StorageException if the storage operation fails
+     */
+    List<GuildSettings> readAll() throws StorageException;
+}
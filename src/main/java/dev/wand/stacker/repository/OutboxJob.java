@@ -0,0 +1,12 @@
+package dev.wand.stacker.repository;
+
+/**
+ * A claimed outbox job.
+ *
+ * @param id       Unique, increasing job ID
+ * @param kind     What the job does; see {@code Outbox.Kind}
+ * @param payload  Kind-specific arguments, usually snowflakes
+ * @param attempts Number of times the job has been claimed, including the current claim
+ */
+public record OutboxJob(long id, String kind, String payload, int attempts) {
+}
@@ -0,0 +1,72 @@
+package dev.wand.stacker.repository;
+
+import java.util.List;
+
+/**
+ * Durable queue of Discord side effects (role grants, archive calls, ...) so none are lost when a
+ * call fails or the bot restarts. Obtain the configured implementation via {@link Repositories#outbox()}.
+ * <p>
+ * A job is {@code pending} until a worker claims it, {@code running} while leased, and then either
+ * {@code done}, back to {@code pending} with a later due time, or {@code failed} for good.
+ * A running job whose lease expires (its worker died) becomes claimable again.
+ */
+public interface OutboxRepository {
+
+    /**
+     * Add a job.
+     *
+     * @param kind    the job kind
+     * @param payload the kind-specific arguments
+     * @param delayMs how long from now until the job is due; {@code 0} for immediately
+     * @return the new job's ID
+     * @throws StorageException if the storage operation fails
+     */
+    long enqueue(String kind, String payload, long delayMs) throws StorageException;
+
+    /**
+     * Lease up to {@code limit} due jobs, oldest due first. Jobs leased by another worker are skipped,
+     * not waited for.
+     *
+     * @param limit   the maximum number of jobs to claim
+     * @param leaseMs how long the claim is held before another worker may take the job over
+     * @return the claimed jobs, with their attempt counter already incremented
+     * @throws StorageException if the storage operation fails
+     */
+    List<OutboxJob> claim(int limit, long leaseMs) throws StorageException;
+
+    /**
+     * Mark a claimed job as done.
+     *
+     * @param id the job ID
+     * @throws StorageException if the storage operation fails
+     */
+    void complete(long id) throws StorageException;
+
+    /**
+     * Release a claimed job to be retried later.
+     *
+     * @param id      the job ID
+     * @param delayMs how long to wait before the job is due again
+     * @param error   a description of the failure
+     * @throws StorageException if the storage operation fails
+     */
+    void retry(long id, long delayMs, String error) throws StorageException;
+
+    /**
+     * Mark a claimed job as permanently failed. Failed jobs are kept for inspection until purged.
+     *
+     * @param id    the job ID
+     * @param error a description of the last failure
+     * @throws StorageException if the storage operation fails
+     */
+    void fail(long id, String error) throws StorageException;
+
+    /**
+     * Delete done and failed jobs that finished more than {@code retentionMs} ago.
+     *
+     * @param retentionMs how long finished jobs are kept
+     * @return the number of jobs deleted
+     * @throws StorageException if the storage operation fails
+     */
+    int purgeCompleted(long retentionMs) throws StorageException;
+}
@@ -1,76 +1,77 @@
 package dev.wand.stacker.repository;
 
-import dev.wand.stacker.db.Database;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Persists pending-tester Discord user IDs to the {@code pending_testers}
- * PostgreSQL table so role assignments survive bot restarts.
- *
- * <p>All methods obtain a connection from {@link Database#getConnection()} and
- * release it immediately after use via try-with-resources.</p>
+ * Persists pending-tester Discord user IDs so role assignments survive bot restarts.
+ * Each entry belongs to the guild whose roles the user is waiting for, so one guild's list never grants
+ * or clears roles in another.
+ * Obtain the configured implementation via {@link Repositories#pendingTesters()}.
  */
-public final class PendingTesterRepository {
+public interface PendingTesterRepository {
+
+    /**
+     * Add a user to a guild's pending-testers list. Silently ignores duplicates.
+     *
+     * @param guildId the guild the user is waiting for roles in
+     * @param userId  the Discord user ID to add
+     * @throws StorageException if the storage operation fails
+     */
+    void add(long guildId, String userId) throws StorageException;
 
-    private static final Logger logger = LoggerFactory.getLogger(PendingTesterRepository.class);
+    /**
+     * Add several users to a guild's pending-testers list in one batch. Silently ignores duplicates.
+     *
+     * @param guildId the guild the users are waiting for roles in
+     * @param userIds the Discord user IDs to add
+     * @throws StorageException if the storage operation fails
+     */
+    void addAll(long guildId, Collection<String> userIds) throws StorageException;
 
-    private PendingTesterRepository() {
-    }
+    /**
+     * Remove a user from a guild's pending-testers list.
+     *
+     * @param guildId the guild
+     * @param userId  the Discord user ID to remove
+     * @throws StorageException if the storage operation fails
+     */
+    void remove(long guildId, String userId) throws StorageException;
+
+    /**
+     * Remove several users from a guild's pending-testers list in one batch.
+     *
+     * @param guildId the guild
+     * @param userIds the Discord user IDs to remove
+     * @throws StorageException if the storage operation fails
+     */
+    void removeAll(long guildId, Collection<String> userIds) throws StorageException;
 
     /**
-     * Add a user to the pending-testers list.
-     * Silently ignores duplicates (ON CONFLICT DO NOTHING).
+     * Read a guild's whole pending-testers list.
      *
-     * @param userId the Discord user ID to add
-     * @throws SQLException if the database operation fails
+     * @param guildId the guild
+     * @return every user ID pending in that guild
+     * @throws StorageException if the storage operation fails
      */
-    public static void add(String userId) throws SQLException {
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "INSERT INTO pending_testers (user_id) VALUES (?) ON CONFLICT DO NOTHING")) {
-            ps.setString(1, userId);
-            ps.executeUpdate();
-            logger.debug("PendingTesterRepository: added user {}", userId);
-        }
-    }
+    List<String> readAll(long guildId) throws StorageException;
 
     /**
-     * Remove a user from the pending-testers list.
+     * Read every guild's pending-testers list at once, e.g. to fill a cache.
      *
-     * @param userId the Discord user ID to remove
-     * @throws SQLException if the database operation fails
+     * @return the pending user IDs of each guild that has any
+     * @throws StorageException if the storage operation fails
      */
-    public static void remove(String userId) throws SQLException {
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "DELETE FROM pending_testers WHERE user_id = ?")) {
-            ps.setString(1, userId);
-            ps.executeUpdate();
-            logger.debug("PendingTesterRepository: removed user {}", userId);
-        }
-    }
+    Map<Long, List<String>> readAllByGuild() throws StorageException;
 
     /**
-     * Check whether a user is in the pending-testers list.
+     * Check whether a user is in a guild's pending-testers list.
      *
-     * @param userId the Discord user ID to look up
-     * @return {@code true} if the user is pending
-     * @throws SQLException if the database operation fails
+     * @param guildId the guild
+     * @param userId  the Discord user ID to look up
+     * @return {@code true} if the user is pending in that guild
+     * @throws StorageException if the storage operation fails
      */
-    public static boolean contains(String userId) throws SQLException {
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "SELECT 1 FROM pending_testers WHERE user_id = ?")) {
-            ps.setString(1, userId);
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
-            }
-        }
-    }
+    boolean contains(long guildId, String userId) throws StorageException;
 }
@@ -0,0 +1,190 @@
+package dev.wand.stacker.repository;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.ConfigKey;
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.db.EmbeddedLog;
+import dev.wand.stacker.db.PartitionMaintenance;
+import dev.wand.stacker.repository.embedded.EmbeddedBotStateRepository;
+import dev.wand.stacker.repository.embedded.EmbeddedForumThreadRepository;
+import dev.wand.stacker.repository.embedded.EmbeddedGameStatsHistoryRepository;
+import dev.wand.stacker.repository.embedded.EmbeddedGuildSettingsRepository;
+import dev.wand.stacker.repository.embedded.EmbeddedLiveStatsRepository;
+import dev.wand.stacker.repository.embedded.EmbeddedOutboxRepository;
+import dev.wand.stacker.repository.embedded.EmbeddedPendingTesterRepository;
+import dev.wand.stacker.repository.embedded.EmbeddedThreadSignatureRepository;
+import dev.wand.stacker.repository.postgres.PostgresBotStateRepository;
+import dev.wand.stacker.repository.postgres.PostgresForumThreadRepository;
+import dev.wand.stacker.repository.postgres.PostgresGameStatsHistoryRepository;
+import dev.wand.stacker.repository.postgres.PostgresGuildSettingsRepository;
+import dev.wand.stacker.repository.postgres.PostgresLiveStatsRepository;
+import dev.wand.stacker.repository.postgres.PostgresOutboxRepository;
+import dev.wand.stacker.repository.postgres.PostgresPendingTesterRepository;
+import dev.wand.stacker.repository.postgres.PostgresThreadSignatureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Selects and holds the repository implementations for the configured storage backend.
+ *
+ * <p>Backends (chosen by {@code STORAGE_BACKEND}):</p>
+ * <ul>
+ *   <li>{@code postgres} (default) — PostgreSQL via {@link Database}</li>
+ *   <li>{@code embedded} — a local {@link EmbeddedLog} file at {@code STORAGE_PATH};
+ *       no database server needed (dev guild, tests, small deployments)</li>
+ * </ul>
+ * Call {@link #initialize()} once at startup; it may run on a background thread.
+ * The accessors wait for an in-progress initialization, so early events are safe.
+ */
+public final class Repositories {
+
+    private static final Logger logger = LoggerFactory.getLogger(Repositories.class);
+    private static final long INIT_WAIT_MS = 30_000;
+
+    private static final CompletableFuture<Void> READY = new CompletableFuture<>();
+
+    private static volatile LiveStatsRepository liveStats;
+    private static volatile PendingTesterRepository pendingTesters;
+    private static volatile BotStateRepository botState;
+    private static volatile GameStatsHistoryRepository gameStatsHistory;
+    private static volatile ForumThreadRepository forumThreads;
+    private static volatile ThreadSignatureRepository threadSignatures;
+    private static volatile OutboxRepository outbox;
+    private static volatile GuildSettingsRepository guildSettings;
+    private static volatile EmbeddedLog embeddedLog;
+
+    private Repositories() {
+    }
+
+    /**
+     * Open the configured backend and create its repositories.
+     */
+    public static void initialize() {
+        try {
+            String backend = Config.getStorageBackend();
+            switch (backend) {
+                case "postgres" -> initializePostgres();
+                case "embedded" -> initializeEmbedded();
+                default -> throw new IllegalStateException("Unknown STORAGE_BACKEND: " + backend);
+            }
+            logger.info("Storage backend: {}", backend);
+            READY.complete(null);
+        } catch (RuntimeException e) {
+            READY.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static void initializePostgres() {
+        Database.initialize();
+        PartitionMaintenance.start();
+        liveStats = new PostgresLiveStatsRepository();
+        // Kept coherent across instances by the ChangeFeed
+        pendingTesters = new CachedPendingTesterRepository(new PostgresPendingTesterRepository());
+        botState = new PostgresBotStateRepository();
+        gameStatsHistory = new PostgresGameStatsHistoryRepository();
+        forumThreads = new PostgresForumThreadRepository();
+        threadSignatures = new PostgresThreadSignatureRepository();
+        outbox = new PostgresOutboxRepository();
+        guildSettings = new PostgresGuildSettingsRepository();
+    }
+
+    private static void initializeEmbedded() {
+        try {
+            embeddedLog = EmbeddedLog.open(Path.of(Config.getStoragePath()));
+            // Entries from before pending testers were per guild belong to the main guild
+            pendingTesters = new EmbeddedPendingTesterRepository(embeddedLog,
+                    Long.parseLong(Config.get(ConfigKey.MAIN_GUILD_ID)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open embedded store", e);
+        }
+        liveStats = new EmbeddedLiveStatsRepository(embeddedLog);
+        botState = new EmbeddedBotStateRepository(embeddedLog);
+        gameStatsHistory = new EmbeddedGameStatsHistoryRepository();
+        forumThreads = new EmbeddedForumThreadRepository(embeddedLog);
+        threadSignatures = new EmbeddedThreadSignatureRepository(embeddedLog);
+        outbox = new EmbeddedOutboxRepository(embeddedLog);
+        guildSettings = new EmbeddedGuildSettingsRepository(embeddedLog);
+    }
+
+    /**
+     * Release the backend's resources on graceful shutdown.
+     */
+    public static void close() {
+        if (embeddedLog != null) {
+            embeddedLog.close();
+        }
+        Database.close();
+    }
+
+    /**
+     * @return whether the PostgreSQL backend is in use
+     */
+    public static boolean isPostgres() {
+        return "postgres".equals(Config.getStorageBackend());
+    }
+
+    public static LiveStatsRepository liveStats() {
+        awaitReady();
+        return liveStats;
+    }
+
+    public static PendingTesterRepository pendingTesters() {
+        awaitReady();
+        return pendingTesters;
+    }
+
+    public static BotStateRepository botState() {
+        awaitReady();
+        return botState;
+    }
+
+    public static GameStatsHistoryRepository gameStatsHistory() {
+        awaitReady();
+        return gameStatsHistory;
+    }
+
+    public static ForumThreadRepository forumThreads() {
+        awaitReady();
+        return forumThreads;
+    }
+
+    public static ThreadSignatureRepository threadSignatures() {
+        awaitReady();
+        return threadSignatures;
+    }
+
+    public static OutboxRepository outbox() {
+        awaitReady();
+        return outbox;
+    }
+
+    public static GuildSettingsRepository guildSettings() {
+        awaitReady();
+        return guildSettings;
+    }
+
+    private static void awaitReady() {
+        if (READY.isDone() && !READY.isCompletedExceptionally()) {
+            return;
+        }
+        try {
+            READY.get(INIT_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for storage initialization", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Storage initialization failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Storage has not been initialized. Call Repositories.initialize() first.");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package dev.wand.stacker.repository;
+
+/**
+ * Thrown when a repository operation fails, regardless of the storage backend behind it.
+ * The backend-specific exception (e.g. {@link java.sql.SQLException}) is kept as the cause.
+ */
+public class StorageException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,36 @@
+package dev.wand.stacker.repository;
+
+import java.util.Map;
+
+/**
+ * Persists the MinHash signature of each forum thread so duplicate detection survives restarts
+ * without re-reading every starter message. Obtain the configured implementation via
+ * {@link Repositories#threadSignatures()}.
+ */
+public interface ThreadSignatureRepository {
+
+    /**
+     * Read every stored signature.
+     *
+     * @return signatures keyed by thread ID
+     * @throws StorageException if the storage operation fails
+     */
+    Map<Long, int[]> readAll() throws StorageException;
+
+    /**
+     * Insert or overwrite a thread's signature.
+     *
+     * @param threadId  the thread ID
+     * @param signature the MinHash signature
+     * @throws StorageException if the storage operation fails
+     */
+    void save(long threadId, int[] signature) throws StorageException;
+
+    /**
+     * Delete a thread's signature. No-op if none is stored.
+     *
+     * @param threadId the thread ID
+     * @throws StorageException if the storage operation fails
+     */
+    void delete(long threadId) throws StorageException;
+}
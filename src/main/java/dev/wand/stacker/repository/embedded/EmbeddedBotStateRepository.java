@@ -0,0 +1,35 @@
+package dev.wand.stacker.repository.embedded;
+
+import dev.wand.stacker.db.EmbeddedLog;
+import dev.wand.stacker.repository.BotStateRepository;
+import dev.wand.stacker.repository.StorageException;
+
+import java.io.IOException;
+
+/**
+ * {@link BotStateRepository} stored in the {@code bot_state} namespace of an {@link EmbeddedLog}.
+ */
+public final class EmbeddedBotStateRepository implements BotStateRepository {
+
+    private static final String NAMESPACE = "bot_state";
+
+    private final EmbeddedLog log;
+
+    public EmbeddedBotStateRepository(EmbeddedLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public String get(String key) {
+        return log.get(NAMESPACE, key);
+    }
+
+    @Override
+    public void put(String key, String value) throws StorageException {
+        try {
+            log.put(NAMESPACE, key, value);
+        } catch (IOException e) {
+            throw new StorageException("Failed to store bot state " + key, e);
+        }
+    }
+}
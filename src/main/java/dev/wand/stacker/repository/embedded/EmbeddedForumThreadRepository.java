@@ -0,0 +1,73 @@
+package dev.wand.stacker.repository.embedded;
+
+import dev.wand.stacker.db.EmbeddedLog;
+import dev.wand.stacker.index.ThreadRecord;
+import dev.wand.stacker.repository.ForumThreadRepository;
+import dev.wand.stacker.repository.StorageException;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * {@link ForumThreadRepository} stored in the {@code forum_threads} namespace of an {@link EmbeddedLog}.
+ * Keys are thread IDs; values are {@code v2|guild|forum|owner|status|created|closed|statusChanged|title}.
+ * Values written before the status time was tracked lack the {@code v2} prefix and that field; they are read
+ * with the creation time in its place and rewritten in the current format on their next save.
+ */
+public final class EmbeddedForumThreadRepository implements ForumThreadRepository {
+
+    private static final String NAMESPACE = "forum_threads";
+    private static final String VERSION_PREFIX = "v2|";
+
+    private final EmbeddedLog log;
+
+    public EmbeddedForumThreadRepository(EmbeddedLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public List<ThreadRecord> readAll() {
+        List<ThreadRecord> results = new ArrayList<>();
+        for (Map.Entry<String, String> e : log.entries(NAMESPACE).entrySet()) {
+            String value = e.getValue();
+            long threadId = Long.parseLong(e.getKey());
+            if (value.startsWith(VERSION_PREFIX)) {
+                String[] f = value.substring(VERSION_PREFIX.length()).split("\\|", 8);
+                results.add(new ThreadRecord(threadId,
+                        Long.parseLong(f[0]), Long.parseLong(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]),
+                        f[7], Long.parseLong(f[4]), Long.parseLong(f[5]), Long.parseLong(f[6])));
+            } else {
+                // Legacy values start with the numeric guild ID, so they can never carry the prefix
+                String[] f = value.split("\\|", 7);
+                results.add(new ThreadRecord(threadId,
+                        Long.parseLong(f[0]), Long.parseLong(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]),
+                        f[6], Long.parseLong(f[4]), Long.parseLong(f[5]), Long.parseLong(f[4])));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void saveAll(Collection<ThreadRecord> threads) throws StorageException {
+        Map<String, String> puts = new HashMap<>();
+        for (ThreadRecord t : threads) {
+            puts.put(Long.toString(t.threadId()), VERSION_PREFIX + t.guildId() + "|" + t.forumId() + "|"
+                    + t.ownerId() + "|" + t.statusTagId() + "|" + t.createdAt() + "|" + t.closedAt() + "|"
+                    + t.statusChangedAt() + "|" + t.title());
+        }
+        try {
+            log.write(NAMESPACE, puts, List.of());
+        } catch (IOException e) {
+            throw new StorageException("Failed to save " + threads.size() + " forum thread(s)", e);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<Long> threadIds) throws StorageException {
+        try {
+            log.write(NAMESPACE, Map.of(), threadIds.stream().map(String::valueOf).toList());
+        } catch (IOException e) {
+            throw new StorageException("Failed to delete " + threadIds.size() + " forum thread(s)", e);
+        }
+    }
+}
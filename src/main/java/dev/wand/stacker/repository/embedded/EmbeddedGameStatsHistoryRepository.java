@@ -0,0 +1,45 @@
+package dev.wand.stacker.repository.embedded;
+
+import dev.wand.stacker.repository.GameStatsHistoryRepository;
+import dev.wand.stacker.services.GameStats;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.OptionalLong;
+
+/**
+ * {@link GameStatsHistoryRepository} for the embedded backend.
+ * <p>
+ * Long-term history needs Postgres partitions, so this implementation keeps only the last
+ * {@link #WINDOW} of samples in memory. It is enough for the 24-hour peak once the bot has
+ * been up for a day, and it costs nothing on disk.
+ */
+public final class EmbeddedGameStatsHistoryRepository implements GameStatsHistoryRepository {
+
+    private static final Duration WINDOW = Duration.ofHours(24);
+
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    @Override
+    public synchronized void add(String universeId, GameStats stats) {
+        samples.addLast(new Sample(universeId, stats.retrievedAt, stats.playersOnline));
+        Instant cutoff = stats.retrievedAt.minus(WINDOW);
+        while (!samples.isEmpty() && samples.peekFirst().sampledAt.isBefore(cutoff)) {
+            samples.removeFirst();
+        }
+    }
+
+    @Override
+    public synchronized OptionalLong findPeakPlayers(String universeId, Instant from, Instant to) {
+        return samples.stream()
+                .filter(s -> s.universeId.equals(universeId))
+                .filter(s -> !s.sampledAt.isBefore(from) && s.sampledAt.isBefore(to))
+                .mapToLong(s -> s.playersOnline)
+                .max();
+    }
+
+    private record Sample(String universeId, Instant sampledAt, long playersOnline) {
+    }
+}
@@ -0,0 +1,33 @@
+package dev.wand.stacker.repository.embedded;
+
+import com.google.gson.JsonParser;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.db.EmbeddedLog;
+import dev.wand.stacker.repository.GuildSettingsRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link GuildSettingsRepository} stored in the {@code guild_settings} namespace of an {@link EmbeddedLog}.
+ * Keys are guild IDs; values hold the row as JSON (see {@link GuildSettings#toRow()}).
+ */
+public final class EmbeddedGuildSettingsRepository implements GuildSettingsRepository {
+
+    private static final String NAMESPACE = "guild_settings";
+
+    private final EmbeddedLog log;
+
+    public EmbeddedGuildSettingsRepository(EmbeddedLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public List<GuildSettings> readAll() {
+        List<GuildSettings> results = new ArrayList<>();
+        for (String value : log.entries(NAMESPACE).values()) {
+            results.add(GuildSettings.fromRow(JsonParser.parseString(value).getAsJsonObject()));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,56 @@
+package dev.wand.stacker.repository.embedded;
+
+import dev.wand.stacker.db.EmbeddedLog;
+import dev.wand.stacker.repository.LiveStatsRepository;
+import dev.wand.stacker.repository.StorageException;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@link LiveStatsRepository} stored in the {@code live_stats_embeds} namespace of an {@link EmbeddedLog}.
+ * Keys are {@code channelId:messageId}; values are unused.
+ */
+public final class EmbeddedLiveStatsRepository implements LiveStatsRepository {
+
+    private static final String NAMESPACE = "live_stats_embeds";
+
+    private final EmbeddedLog log;
+
+    public EmbeddedLiveStatsRepository(EmbeddedLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public void add(String channelId, String messageId) throws StorageException {
+        String key = channelId + ":" + messageId;
+        if (log.contains(NAMESPACE, key)) {
+            return;
+        }
+        try {
+            log.put(NAMESPACE, key, "");
+        } catch (IOException e) {
+            throw new StorageException("Failed to add live stats embed " + key, e);
+        }
+    }
+
+    @Override
+    public void remove(String channelId, String messageId) throws StorageException {
+        String key = channelId + ":" + messageId;
+        try {
+            log.delete(NAMESPACE, key);
+        } catch (IOException e) {
+            throw new StorageException("Failed to remove live stats embed " + key, e);
+        }
+    }
+
+    @Override
+    public Set<String[]> readAll() {
+        Set<String[]> results = new HashSet<>();
+        for (String key : log.entries(NAMESPACE).keySet()) {
+            results.add(key.split(":", 2));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,148 @@
+package dev.wand.stacker.repository.embedded;
+
+import dev.wand.stacker.db.EmbeddedLog;
+import dev.wand.stacker.repository.OutboxJob;
+import dev.wand.stacker.repository.OutboxRepository;
+import dev.wand.stacker.repository.StorageException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link OutboxRepository} stored in the {@code outbox_jobs} namespace of an {@link EmbeddedLog}.
+ * Keys are job IDs; values are {@code kind|status|attempts|runAt|completedAt|error|payload}.
+ *
+ * <p>The embedded backend only serves one process, so claims are made atomic with a monitor instead of
+ * row locks. Claiming scans the namespace, which stays small because done and failed jobs are purged.</p>
+ */
+public final class EmbeddedOutboxRepository implements OutboxRepository {
+
+    private static final String NAMESPACE = "outbox_jobs";
+
+    private final EmbeddedLog log;
+    private final AtomicLong nextId;
+
+    public EmbeddedOutboxRepository(EmbeddedLog log) {
+        this.log = log;
+        this.nextId = new AtomicLong(log.entries(NAMESPACE).keySet().stream()
+                .mapToLong(Long::parseLong)
+                .max()
+                .orElse(0) + 1);
+    }
+
+    private record Stored(String kind, String status, int attempts, long runAt, long completedAt,
+                          String error, String payload) {
+
+        static Stored decode(String value) {
+            String[] parts = value.split("\\|", 7);
+            return new Stored(parts[0], parts[1], Integer.parseInt(parts[2]), Long.parseLong(parts[3]),
+                    Long.parseLong(parts[4]), parts[5], parts[6]);
+        }
+
+        String encode() {
+            return kind + "|" + status + "|" + attempts + "|" + runAt + "|" + completedAt + "|"
+                    + error.replace('|', '/').replace('\n', ' ') + "|" + payload;
+        }
+
+        Stored with(String newStatus, int newAttempts, long newRunAt, long newCompletedAt, String newError) {
+            return new Stored(kind, newStatus, newAttempts, newRunAt, newCompletedAt, newError, payload);
+        }
+    }
+
+    @Override
+    public long enqueue(String kind, String payload, long delayMs) throws StorageException {
+        long id = nextId.getAndIncrement();
+        Stored job = new Stored(kind, "pending", 0, System.currentTimeMillis() + delayMs, 0, "", payload);
+        try {
+            log.put(NAMESPACE, Long.toString(id), job.encode());
+        } catch (IOException e) {
+            throw new StorageException("Failed to enqueue " + kind + " job", e);
+        }
+        return id;
+    }
+
+    @Override
+    public synchronized List<OutboxJob> claim(int limit, long leaseMs) throws StorageException {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<Long, Stored>> due = new ArrayList<>();
+        for (Map.Entry<String, String> e : log.entries(NAMESPACE).entrySet()) {
+            Stored job = Stored.decode(e.getValue());
+            boolean claimable = job.status().equals("pending") || job.status().equals("running");
+            if (claimable && job.runAt() <= now) {
+                due.add(Map.entry(Long.parseLong(e.getKey()), job));
+            }
+        }
+        due.sort(Comparator.comparingLong(e -> e.getValue().runAt()));
+
+        List<OutboxJob> results = new ArrayList<>();
+        Map<String, String> puts = new HashMap<>();
+        for (Map.Entry<Long, Stored> e : due.subList(0, Math.min(limit, due.size()))) {
+            Stored job = e.getValue();
+            Stored leased = job.with("running", job.attempts() + 1, now + leaseMs, 0, job.error());
+            puts.put(Long.toString(e.getKey()), leased.encode());
+            results.add(new OutboxJob(e.getKey(), job.kind(), job.payload(), leased.attempts()));
+        }
+        try {
+            log.write(NAMESPACE, puts, List.of());
+        } catch (IOException e) {
+            throw new StorageException("Failed to claim outbox jobs", e);
+        }
+        return results;
+    }
+
+    @Override
+    public void complete(long id) throws StorageException {
+        update(id, job -> job.with("done", job.attempts(), job.runAt(), System.currentTimeMillis(), ""),
+                "Failed to complete outbox job " + id);
+    }
+
+    @Override
+    public void retry(long id, long delayMs, String error) throws StorageException {
+        update(id, job -> job.with("pending", job.attempts(), System.currentTimeMillis() + delayMs, 0, error),
+                "Failed to reschedule outbox job " + id);
+    }
+
+    @Override
+    public void fail(long id, String error) throws StorageException {
+        update(id, job -> job.with("failed", job.attempts(), job.runAt(), System.currentTimeMillis(), error),
+                "Failed to mark outbox job " + id + " as failed");
+    }
+
+    @Override
+    public synchronized int purgeCompleted(long retentionMs) throws StorageException {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        List<String> deletes = new ArrayList<>();
+        for (Map.Entry<String, String> e : log.entries(NAMESPACE).entrySet()) {
+            Stored job = Stored.decode(e.getValue());
+            boolean finished = job.status().equals("done") || job.status().equals("failed");
+            if (finished && job.completedAt() < cutoff) {
+                deletes.add(e.getKey());
+            }
+        }
+        try {
+            log.write(NAMESPACE, Map.of(), deletes);
+        } catch (IOException e) {
+            throw new StorageException("Failed to purge finished outbox jobs", e);
+        }
+        return deletes.size();
+    }
+
+    private synchronized void update(long id, UnaryOperator<Stored> change, String failure) throws StorageException {
+        String key = Long.toString(id);
+        String value = log.get(NAMESPACE, key);
+        if (value == null) {
+            return;
+        }
+        try {
+            log.put(NAMESPACE, key, change.apply(Stored.decode(value)).encode());
+        } catch (IOException e) {
+            throw new StorageException(failure, e);
+        }
+    }
+}
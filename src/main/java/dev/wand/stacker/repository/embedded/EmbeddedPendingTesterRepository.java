@@ -0,0 +1,127 @@
+package dev.wand.stacker.repository.embedded;
+
+import dev.wand.stacker.db.EmbeddedLog;
+import dev.wand.stacker.repository.PendingTesterRepository;
+import dev.wand.stacker.repository.StorageException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PendingTesterRepository} stored in the {@code pending_testers} namespace of an {@link EmbeddedLog}.
+ * Keys are {@code guildId:userId}; values hold the epoch millisecond the user was added.
+ */
+public final class EmbeddedPendingTesterRepository implements PendingTesterRepository {
+
+    private static final String NAMESPACE = "pending_testers";
+
+    private final EmbeddedLog log;
+
+    /**
+     * @param log           The store
+     * @param legacyGuildId The guild that entries written before keys carried a guild belong to
+     * @throws IOException if re-keying those entries fails
+     */
+    public EmbeddedPendingTesterRepository(EmbeddedLog log, long legacyGuildId) throws IOException {
+        this.log = log;
+        migrateLegacyKeys(legacyGuildId);
+    }
+
+    private void migrateLegacyKeys(long guildId) throws IOException {
+        Map<String, String> puts = new HashMap<>();
+        List<String> deletes = new ArrayList<>();
+        log.entries(NAMESPACE).forEach((key, addedAt) -> {
+            if (key.indexOf(':') < 0) {
+                puts.put(key(guildId, key), addedAt);
+                deletes.add(key);
+            }
+        });
+        if (!deletes.isEmpty()) {
+            log.write(NAMESPACE, puts, deletes);
+        }
+    }
+
+    private static String key(long guildId, String userId) {
+        return guildId + ":" + userId;
+    }
+
+    @Override
+    public void add(long guildId, String userId) throws StorageException {
+        String key = key(guildId, userId);
+        if (log.contains(NAMESPACE, key)) {
+            return;
+        }
+        try {
+            log.put(NAMESPACE, key, Long.toString(System.currentTimeMillis()));
+        } catch (IOException e) {
+            throw new StorageException("Failed to add pending tester " + userId, e);
+        }
+    }
+
+    @Override
+    public void addAll(long guildId, Collection<String> userIds) throws StorageException {
+        String now = Long.toString(System.currentTimeMillis());
+        Map<String, String> puts = new HashMap<>();
+        for (String userId : userIds) {
+            String key = key(guildId, userId);
+            if (!log.contains(NAMESPACE, key)) {
+                puts.put(key, now);
+            }
+        }
+        try {
+            log.write(NAMESPACE, puts, List.of());
+        } catch (IOException e) {
+            throw new StorageException("Failed to add " + userIds.size() + " pending tester(s)", e);
+        }
+    }
+
+    @Override
+    public void remove(long guildId, String userId) throws StorageException {
+        try {
+            log.delete(NAMESPACE, key(guildId, userId));
+        } catch (IOException e) {
+            throw new StorageException("Failed to remove pending tester " + userId, e);
+        }
+    }
+
+    @Override
+    public void removeAll(long guildId, Collection<String> userIds) throws StorageException {
+        try {
+            log.write(NAMESPACE, Map.of(), userIds.stream().map(userId -> key(guildId, userId)).toList());
+        } catch (IOException e) {
+            throw new StorageException("Failed to remove " + userIds.size() + " pending tester(s)", e);
+        }
+    }
+
+    @Override
+    public List<String> readAll(long guildId) {
+        String prefix = guildId + ":";
+        List<String> results = new ArrayList<>();
+        for (String key : log.entries(NAMESPACE).keySet()) {
+            if (key.startsWith(prefix)) {
+                results.add(key.substring(prefix.length()));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Map<Long, List<String>> readAllByGuild() {
+        Map<Long, List<String>> results = new HashMap<>();
+        for (String key : log.entries(NAMESPACE).keySet()) {
+            int colon = key.indexOf(':');
+            results.computeIfAbsent(Long.parseLong(key.substring(0, colon)), id -> new ArrayList<>())
+                    .add(key.substring(colon + 1));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean contains(long guildId, String userId) {
+        return log.contains(NAMESPACE, key(guildId, userId));
+    }
+}
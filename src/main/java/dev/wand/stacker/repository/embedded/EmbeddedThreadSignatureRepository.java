@@ -0,0 +1,58 @@
+package dev.wand.stacker.repository.embedded;
+
+import dev.wand.stacker.db.EmbeddedLog;
+import dev.wand.stacker.repository.StorageException;
+import dev.wand.stacker.repository.ThreadSignatureRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ThreadSignatureRepository} stored in the {@code thread_signatures} namespace of an {@link EmbeddedLog}.
+ * Keys are thread IDs; values are the Base64-encoded big-endian signature.
+ */
+public final class EmbeddedThreadSignatureRepository implements ThreadSignatureRepository {
+
+    private static final String NAMESPACE = "thread_signatures";
+
+    private final EmbeddedLog log;
+
+    public EmbeddedThreadSignatureRepository(EmbeddedLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public Map<Long, int[]> readAll() {
+        Map<Long, int[]> results = new HashMap<>();
+        for (Map.Entry<String, String> e : log.entries(NAMESPACE).entrySet()) {
+            ByteBuffer bytes = ByteBuffer.wrap(Base64.getDecoder().decode(e.getValue()));
+            int[] signature = new int[bytes.remaining() / Integer.BYTES];
+            bytes.asIntBuffer().get(signature);
+            results.put(Long.parseLong(e.getKey()), signature);
+        }
+        return results;
+    }
+
+    @Override
+    public void save(long threadId, int[] signature) throws StorageException {
+        ByteBuffer bytes = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        bytes.asIntBuffer().put(signature);
+        try {
+            log.put(NAMESPACE, Long.toString(threadId), Base64.getEncoder().encodeToString(bytes.array()));
+        } catch (IOException e) {
+            throw new StorageException("Failed to save signature for thread " + threadId, e);
+        }
+    }
+
+    @Override
+    public void delete(long threadId) throws StorageException {
+        try {
+            log.delete(NAMESPACE, Long.toString(threadId));
+        } catch (IOException e) {
+            throw new StorageException("Failed to delete signature for thread " + threadId, e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.wand.stacker.repository.postgres;
+
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.repository.BotStateRepository;
+import dev.wand.stacker.repository.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link BotStateRepository} backed by the {@code bot_state} PostgreSQL table.
+ *
+ * <p>All methods obtain a connection from {@link Database#getConnection()} and
+ * release it immediately after use via try-with-resources.</p>
+ */
+public final class PostgresBotStateRepository implements BotStateRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresBotStateRepository.class);
+
+    @Override
+    public String get(String key) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT value FROM bot_state WHERE key = ?")) {
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("value") : null;
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read bot state " + key, e);
+        }
+    }
+
+    @Override
+    public void put(String key, String value) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO bot_state (key, value) VALUES (?, ?) " +
+                             "ON CONFLICT (key) DO UPDATE SET value = EXCLUDED.value")) {
+            ps.setString(1, key);
+            ps.setString(2, value);
+            ps.executeUpdate();
+            logger.debug("BotStateRepository: stored {}", key);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to store bot state " + key, e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package dev.wand.stacker.repository.postgres;
+
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.index.ThreadRecord;
+import dev.wand.stacker.repository.ForumThreadRepository;
+import dev.wand.stacker.repository.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link ForumThreadRepository} backed by the {@code forum_threads} PostgreSQL table.
+ *
+ * <p>Writes are sent as JDBC batches inside a single transaction.
+ * All methods obtain a connection from {@link Database#getConnection()} and
+ * release it immediately after use via try-with-resources.</p>
+ */
+public final class PostgresForumThreadRepository implements ForumThreadRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresForumThreadRepository.class);
+
+    @Override
+    public List<ThreadRecord> readAll() throws StorageException {
+        List<ThreadRecord> results = new ArrayList<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT thread_id, guild_id, forum_id, owner_id, status_tag_id, title, created_at, closed_at, " +
+                             "status_changed_at FROM forum_threads");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Timestamp closedAt = rs.getTimestamp("closed_at");
+                results.add(new ThreadRecord(
+                        rs.getLong("thread_id"),
+                        rs.getLong("guild_id"),
+                        rs.getLong("forum_id"),
+                        rs.getLong("owner_id"),
+                        rs.getLong("status_tag_id"),
+                        rs.getString("title"),
+                        rs.getTimestamp("created_at").getTime(),
+                        closedAt == null ? 0L : closedAt.getTime(),
+                        rs.getTimestamp("status_changed_at").getTime()
+                ));
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read forum threads", e);
+        }
+        return results;
+    }
+
+    @Override
+    public void saveAll(Collection<ThreadRecord> threads) throws StorageException {
+        if (threads.isEmpty()) {
+            return;
+        }
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO forum_threads " +
+                             "(thread_id, guild_id, forum_id, owner_id, status_tag_id, title, created_at, closed_at, " +
+                             "status_changed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                             "ON CONFLICT (thread_id) DO UPDATE SET " +
+                             "forum_id = EXCLUDED.forum_id, status_tag_id = EXCLUDED.status_tag_id, " +
+                             "title = EXCLUDED.title, closed_at = EXCLUDED.closed_at, " +
+                             "status_changed_at = EXCLUDED.status_changed_at")) {
+            conn.setAutoCommit(false);
+            for (ThreadRecord thread : threads) {
+                ps.setLong(1, thread.threadId());
+                ps.setLong(2, thread.guildId());
+                ps.setLong(3, thread.forumId());
+                ps.setLong(4, thread.ownerId());
+                ps.setLong(5, thread.statusTagId());
+                ps.setString(6, thread.title());
+                ps.setTimestamp(7, new Timestamp(thread.createdAt()));
+                ps.setTimestamp(8, thread.isClosed() ? new Timestamp(thread.closedAt()) : null);
+                ps.setTimestamp(9, new Timestamp(thread.statusChangedAt()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+            logger.debug("ForumThreadRepository: saved {} thread(s)", threads.size());
+        } catch (SQLException e) {
+            throw new StorageException("Failed to save " + threads.size() + " forum thread(s)", e);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<Long> threadIds) throws StorageException {
+        if (threadIds.isEmpty()) {
+            return;
+        }
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM forum_threads WHERE thread_id = ANY (?)")) {
+            ps.setArray(1, conn.createArrayOf("bigint", threadIds.toArray()));
+            ps.executeUpdate();
+            logger.debug("ForumThreadRepository: deleted {} thread(s)", threadIds.size());
+        } catch (SQLException e) {
+            throw new StorageException("Failed to delete " + threadIds.size() + " forum thread(s)", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package dev.wand.stacker.repository.postgres;
+
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.repository.GameStatsHistoryRepository;
+import dev.wand.stacker.repository.StorageException;
+import dev.wand.stacker.services.GameStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.OptionalLong;
+
+/**
+ * {@link GameStatsHistoryRepository} backed by the monthly-partitioned
+ * {@code game_stats_history} PostgreSQL table.
+ *
+ * <p>Range queries always bound {@code sampled_at} on both sides so the planner
+ * only touches the partitions covering the requested window.
+ * All methods obtain a connection from {@link Database#getConnection()} and
+ * release it immediately after use via try-with-resources.</p>
+ */
+public final class PostgresGameStatsHistoryRepository implements GameStatsHistoryRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresGameStatsHistoryRepository.class);
+
+    @Override
+    public void add(String universeId, GameStats stats) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO game_stats_history " +
+                             "(universe_id, sampled_at, players_online, server_count, visits, up_votes, favourites) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING")) {
+            ps.setLong(1, Long.parseLong(universeId));
+            ps.setTimestamp(2, Timestamp.from(stats.retrievedAt));
+            ps.setLong(3, stats.playersOnline);
+            ps.setInt(4, stats.serverCount);
+            ps.setLong(5, stats.visits);
+            ps.setLong(6, stats.upVotes);
+            ps.setLong(7, stats.favourites);
+            ps.executeUpdate();
+            logger.debug("GameStatsHistoryRepository: added sample for {} at {}", universeId, stats.retrievedAt);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to add game stats sample for " + universeId, e);
+        }
+    }
+
+    @Override
+    public OptionalLong findPeakPlayers(String universeId, Instant from, Instant to) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT MAX(players_online) FROM game_stats_history " +
+                             "WHERE universe_id = ? AND sampled_at >= ? AND sampled_at < ?")) {
+            ps.setLong(1, Long.parseLong(universeId));
+            ps.setTimestamp(2, Timestamp.from(from));
+            ps.setTimestamp(3, Timestamp.from(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                long peak = rs.getLong(1);
+                return rs.wasNull() ? OptionalLong.empty() : OptionalLong.of(peak);
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read game stats history for " + universeId, e);
+        }
+    }
+}
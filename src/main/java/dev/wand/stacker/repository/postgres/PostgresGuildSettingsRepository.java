@@ -0,0 +1,53 @@
+package dev.wand.stacker.repository.postgres;
+
+import com.google.gson.JsonParser;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.repository.GuildSettingsRepository;
+import dev.wand.stacker.repository.StorageException;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link GuildSettingsRepository} backed by the {@code guild_settings} PostgreSQL table.
+ *
+ * <p>All methods obtain a connection from {@link Database#getConnection()} and
+ * release it immediately after use via try-with-resources.</p>
+ */
+public final class PostgresGuildSettingsRepository implements GuildSettingsRepository {
+
+    @Override
+    public List<GuildSettings> readAll() throws StorageException {
+        List<GuildSettings> results = new ArrayList<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT guild_id, forum_channel_id, tag_ids::text AS tag_ids, tester_role_ids, universe_id "
+                             + "FROM guild_settings");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                List<Long> roles = new ArrayList<>();
+                Array array = rs.getArray("tester_role_ids");
+                if (array != null) {
+                    for (Long role : (Long[]) array.getArray()) {
+                        roles.add(role);
+                    }
+                }
+                results.add(new GuildSettings(
+                        rs.getLong("guild_id"),
+                        rs.getLong("forum_channel_id"),
+                        GuildSettings.parseTagIds(JsonParser.parseString(rs.getString("tag_ids")).getAsJsonObject()),
+                        roles,
+                        rs.getLong("universe_id")));
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read guild settings", e);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,72 @@
+package dev.wand.stacker.repository.postgres;
+
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.repository.LiveStatsRepository;
+import dev.wand.stacker.repository.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@link LiveStatsRepository} backed by the {@code live_stats_embeds} PostgreSQL table.
+ *
+ * <p>All methods obtain a connection from {@link Database#getConnection()} and
+ * release it immediately after use via try-with-resources.</p>
+ */
+public final class PostgresLiveStatsRepository implements LiveStatsRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresLiveStatsRepository.class);
+
+    @Override
+    public void add(String channelId, String messageId) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO live_stats_embeds (channel_id, message_id) VALUES (?, ?) ON CONFLICT DO NOTHING")) {
+            ps.setLong(1, Long.parseLong(channelId));
+            ps.setLong(2, Long.parseLong(messageId));
+            ps.executeUpdate();
+            logger.debug("LiveStatsRepository: added {}/{}", channelId, messageId);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to add live stats embed " + channelId + "/" + messageId, e);
+        }
+    }
+
+    @Override
+    public void remove(String channelId, String messageId) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM live_stats_embeds WHERE channel_id = ? AND message_id = ?")) {
+            ps.setLong(1, Long.parseLong(channelId));
+            ps.setLong(2, Long.parseLong(messageId));
+            ps.executeUpdate();
+            logger.debug("LiveStatsRepository: removed {}/{}", channelId, messageId);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to remove live stats embed " + channelId + "/" + messageId, e);
+        }
+    }
+
+    @Override
+    public Set<String[]> readAll() throws StorageException {
+        Set<String[]> results = new HashSet<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT channel_id, message_id FROM live_stats_embeds");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                results.add(new String[]{
+                        String.valueOf(rs.getLong("channel_id")),
+                        String.valueOf(rs.getLong("message_id"))
+                });
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read live stats embeds", e);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,133 @@
+package dev.wand.stacker.repository.postgres;
+
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.repository.OutboxJob;
+import dev.wand.stacker.repository.OutboxRepository;
+import dev.wand.stacker.repository.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link OutboxRepository} backed by the {@code outbox_jobs} PostgreSQL table.
+ *
+ * <p>Claims are a single {@code UPDATE ... WHERE id IN (SELECT ... FOR UPDATE SKIP LOCKED)}, so any
+ * number of workers, in any number of processes, can poll concurrently without blocking each other or
+ * claiming the same job. While a job is running its {@code run_at} holds the lease expiry, which is
+ * what makes jobs of a crashed worker due again.</p>
+ */
+public final class PostgresOutboxRepository implements OutboxRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresOutboxRepository.class);
+
+    @Override
+    public long enqueue(String kind, String payload, long delayMs) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO outbox_jobs (kind, payload, run_at) " +
+                             "VALUES (?, ?, now() + make_interval(secs => ?)) RETURNING id")) {
+            ps.setString(1, kind);
+            ps.setString(2, payload);
+            ps.setDouble(3, delayMs / 1000.0);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                long id = rs.getLong(1);
+                logger.debug("OutboxRepository: enqueued {} job {} ({})", kind, id, payload);
+                return id;
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to enqueue " + kind + " job", e);
+        }
+    }
+
+    @Override
+    public List<OutboxJob> claim(int limit, long leaseMs) throws StorageException {
+        List<OutboxJob> results = new ArrayList<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "UPDATE outbox_jobs SET status = 'running', attempts = attempts + 1, " +
+                             "run_at = now() + make_interval(secs => ?) " +
+                             "WHERE id IN (" +
+                             "SELECT id FROM outbox_jobs " +
+                             "WHERE status IN ('pending', 'running') AND run_at <= now() " +
+                             "ORDER BY run_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                             "RETURNING id, kind, payload, attempts")) {
+            ps.setDouble(1, leaseMs / 1000.0);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new OutboxJob(
+                            rs.getLong("id"),
+                            rs.getString("kind"),
+                            rs.getString("payload"),
+                            rs.getInt("attempts")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to claim outbox jobs", e);
+        }
+        return results;
+    }
+
+    @Override
+    public void complete(long id) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "UPDATE outbox_jobs SET status = 'done', completed_at = now(), last_error = NULL WHERE id = ?")) {
+            ps.setLong(1, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to complete outbox job " + id, e);
+        }
+    }
+
+    @Override
+    public void retry(long id, long delayMs, String error) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "UPDATE outbox_jobs SET status = 'pending', run_at = now() + make_interval(secs => ?), " +
+                             "last_error = ? WHERE id = ?")) {
+            ps.setDouble(1, delayMs / 1000.0);
+            ps.setString(2, error);
+            ps.setLong(3, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to reschedule outbox job " + id, e);
+        }
+    }
+
+    @Override
+    public void fail(long id, String error) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "UPDATE outbox_jobs SET status = 'failed', completed_at = now(), last_error = ? WHERE id = ?")) {
+            ps.setString(1, error);
+            ps.setLong(2, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to mark outbox job " + id + " as failed", e);
+        }
+    }
+
+    @Override
+    public int purgeCompleted(long retentionMs) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM outbox_jobs WHERE status IN ('done', 'failed') " +
+                             "AND completed_at < now() - make_interval(secs => ?)")) {
+            ps.setDouble(1, retentionMs / 1000.0);
+            int deleted = ps.executeUpdate();
+            logger.debug("OutboxRepository: purged {} finished job(s)", deleted);
+            return deleted;
+        } catch (SQLException e) {
+            throw new StorageException("Failed to purge finished outbox jobs", e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dev.wand.stacker.repository.postgres;
+
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.repository.PendingTesterRepository;
+import dev.wand.stacker.repository.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PendingTesterRepository} backed by the {@code pending_testers} PostgreSQL table.
+ *
+ * <p>All methods obtain a connection from {@link Database#getConnection()} and
+ * release it immediately after use via try-with-resources.</p>
+ */
+public final class PostgresPendingTesterRepository implements PendingTesterRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresPendingTesterRepository.class);
+
+    @Override
+    public void add(long guildId, String userId) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO pending_testers (guild_id, user_id) VALUES (?, ?) ON CONFLICT DO NOTHING")) {
+            ps.setLong(1, guildId);
+            ps.setLong(2, Long.parseLong(userId));
+            ps.executeUpdate();
+            logger.debug("PendingTesterRepository: added user {} in guild {}", userId, guildId);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to add pending tester " + userId, e);
+        }
+    }
+
+    @Override
+    public void addAll(long guildId, Collection<String> userIds) throws StorageException {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO pending_testers (guild_id, user_id) SELECT ?, unnest(?) ON CONFLICT DO NOTHING")) {
+            ps.setLong(1, guildId);
+            ps.setArray(2, conn.createArrayOf("bigint", userIds.stream().map(Long::valueOf).toArray()));
+            int added = ps.executeUpdate();
+            logger.debug("PendingTesterRepository: added {} of {} user(s) in guild {}", added, userIds.size(),
+                    guildId);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to add " + userIds.size() + " pending tester(s)", e);
+        }
+    }
+
+    @Override
+    public void remove(long guildId, String userId) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM pending_testers WHERE guild_id = ? AND user_id = ?")) {
+            ps.setLong(1, guildId);
+            ps.setLong(2, Long.parseLong(userId));
+            ps.executeUpdate();
+            logger.debug("PendingTesterRepository: removed user {} in guild {}", userId, guildId);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to remove pending tester " + userId, e);
+        }
+    }
+
+    @Override
+    public void removeAll(long guildId, Collection<String> userIds) throws StorageException {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM pending_testers WHERE guild_id = ? AND user_id = ANY(?)")) {
+            ps.setLong(1, guildId);
+            ps.setArray(2, conn.createArrayOf("bigint", userIds.stream().map(Long::valueOf).toArray()));
+            int removed = ps.executeUpdate();
+            logger.debug("PendingTesterRepository: removed {} of {} user(s) in guild {}", removed, userIds.size(),
+                    guildId);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to remove " + userIds.size() + " pending tester(s)", e);
+        }
+    }
+
+    @Override
+    public List<String> readAll(long guildId) throws StorageException {
+        List<String> results = new ArrayList<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT user_id FROM pending_testers WHERE guild_id = ?")) {
+            ps.setLong(1, guildId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    results.add(Long.toString(rs.getLong("user_id")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read pending testers of guild " + guildId, e);
+        }
+        return results;
+    }
+
+    @Override
+    public Map<Long, List<String>> readAllByGuild() throws StorageException {
+        Map<Long, List<String>> results = new HashMap<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT guild_id, user_id FROM pending_testers");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                results.computeIfAbsent(rs.getLong("guild_id"), id -> new ArrayList<>())
+                        .add(Long.toString(rs.getLong("user_id")));
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read pending testers", e);
+        }
+        return results;
+    }
+
+    @Override
+    public boolean contains(long guildId, String userId) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT 1 FROM pending_testers WHERE guild_id = ? AND user_id = ?")) {
+            ps.setLong(1, guildId);
+            ps.setLong(2, Long.parseLong(userId));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to look up pending tester " + userId, e);
+        }
+    }
+}
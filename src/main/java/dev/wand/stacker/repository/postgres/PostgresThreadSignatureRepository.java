@@ -0,0 +1,75 @@
+package dev.wand.stacker.repository.postgres;
+
+import dev.wand.stacker.db.Database;
+import dev.wand.stacker.repository.StorageException;
+import dev.wand.stacker.repository.ThreadSignatureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ThreadSignatureRepository} backed by the {@code thread_signatures} PostgreSQL table.
+ * Signatures are stored as big-endian {@code BYTEA}.
+ *
+ * <p>All methods obtain a connection from {@link Database#getConnection()} and
+ * release it immediately after use via try-with-resources.</p>
+ */
+public final class PostgresThreadSignatureRepository implements ThreadSignatureRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresThreadSignatureRepository.class);
+
+    @Override
+    public Map<Long, int[]> readAll() throws StorageException {
+        Map<Long, int[]> results = new HashMap<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT thread_id, signature FROM thread_signatures");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ByteBuffer bytes = ByteBuffer.wrap(rs.getBytes("signature"));
+                int[] signature = new int[bytes.remaining() / Integer.BYTES];
+                bytes.asIntBuffer().get(signature);
+                results.put(rs.getLong("thread_id"), signature);
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read thread signatures", e);
+        }
+        return results;
+    }
+
+    @Override
+    public void save(long threadId, int[] signature) throws StorageException {
+        ByteBuffer bytes = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        bytes.asIntBuffer().put(signature);
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO thread_signatures (thread_id, signature) VALUES (?, ?) " +
+                             "ON CONFLICT (thread_id) DO UPDATE SET signature = EXCLUDED.signature")) {
+            ps.setLong(1, threadId);
+            ps.setBytes(2, bytes.array());
+            ps.executeUpdate();
+            logger.debug("ThreadSignatureRepository: saved signature for {}", threadId);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to save signature for thread " + threadId, e);
+        }
+    }
+
+    @Override
+    public void delete(long threadId) throws StorageException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM thread_signatures WHERE thread_id = ?")) {
+            ps.setLong(1, threadId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to delete signature for thread " + threadId, e);
+        }
+    }
+}
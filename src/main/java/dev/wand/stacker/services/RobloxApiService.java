@@ -2,7 +2,6 @@ package dev.wand.stacker.services;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import dev.wand.stacker.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,14 +35,13 @@ public class RobloxApiService {
     }
 
     /**
-     * Fetch current game stats for the configured universe.
+     * Fetch current game stats for a universe.
      *
+     * @param universeId The Roblox universe ID
      * @return A populated {@link GameStats} object
      * @throws IOException if any API call fails or returns an unexpected response
      */
-    public static GameStats fetchStats() throws IOException {
-        String universeId = Config.ROBLOX_UNIVERSE_ID;
-
+    public static GameStats fetchStats(String universeId) throws IOException {
         // --- 1. Game details (players, visits, favourites, rootPlaceId) ---
         JsonObject gameData = getFirst(fetch(ROBLOX_BASE + "/games?universeIds=" + universeId), "data");
         long playersOnline = gameData.get("playing").getAsLong();
@@ -0,0 +1,187 @@
+package dev.wand.stacker.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Small binary file holding what the live stats poll needs to warm-start after a restart: the last
+ * successful {@link GameStats} per universe, the last state rendered into each tracked embed and the
+ * time the next poll was due.
+ * <p>
+ * The file is rewritten as a whole: written to a temporary sibling, forced, then atomically moved over
+ * the old one, so a reader only ever sees a complete snapshot. It is memory-mapped on load; a missing,
+ * foreign or corrupt file simply means a cold start.
+ * <p>
+ * Layout: {@code magic, int payloadLength, int crc32, payload} where the payload is
+ * {@code long writtenAtMs, long nextPollAtMs, int statsCount, statsCount × (long universeId,
+ * long playersOnline, int serverCount, long visits, long upVotes, long favourites, long retrievedAtMs),
+ * int embedCount, embedCount × (long channelId, long messageId, byte state, long renderedAtMs)}.
+ */
+public final class StatsSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsSnapshot.class);
+
+    private static final byte[] MAGIC = "STKSNAP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER = MAGIC.length + 8;
+    private static final int STATS_BYTES = 8 + 8 + 4 + 8 + 8 + 8 + 8;
+    private static final int EMBED_BYTES = 8 + 8 + 1 + 8;
+
+    private StatsSnapshot() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * What a live embed last showed.
+     */
+    public enum RenderState {
+        LOADING,
+        LIVE,
+        ERROR
+    }
+
+    /**
+     * The last successful render of one live embed.
+     *
+     * @param state        What it showed
+     * @param renderedAtMs When the edit was confirmed, in epoch milliseconds
+     */
+    public record EmbedState(RenderState state, long renderedAtMs) {
+    }
+
+    /**
+     * The contents of a snapshot.
+     *
+     * @param nextPollAtMs When the next shared poll was due, in epoch milliseconds; {@code 0} if none was scheduled
+     * @param stats        The last successful stats per universe ID
+     * @param embeds       The last render per tracked embed, keyed {@code "channelId:messageId"}
+     */
+    public record Contents(long nextPollAtMs, Map<String, GameStats> stats, Map<String, EmbedState> embeds) {
+    }
+
+    /**
+     * Atomically replace the snapshot file.
+     *
+     * @param path     The snapshot file; parent directories are created if needed
+     * @param contents What to store
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Contents contents) throws IOException {
+        byte[] payload = encode(contents);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer file = ByteBuffer.allocate(HEADER + payload.length);
+        file.put(MAGIC).putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (file.hasRemaining()) {
+                out.write(file);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Load a snapshot file.
+     *
+     * @param path The snapshot file
+     * @return the contents, or empty if the file is missing or not a valid snapshot
+     */
+    public static Optional<Contents> read(Path path) {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) {
+                logger.warn("Ignoring stats snapshot {}: unexpected size {}", path, size);
+                return Optional.empty();
+            }
+            MappedByteBuffer file = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] magic = new byte[MAGIC.length];
+            file.get(0, magic);
+            int length = file.getInt(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC) || length != size - HEADER) {
+                logger.warn("Ignoring stats snapshot {}: not a snapshot file", path);
+                return Optional.empty();
+            }
+            ByteBuffer payload = file.slice(HEADER, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != file.getInt(MAGIC.length + 4)) {
+                logger.warn("Ignoring stats snapshot {}: checksum mismatch", path);
+                return Optional.empty();
+            }
+            return Optional.of(decode(payload));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable stats snapshot {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] encode(Contents contents) {
+        ByteBuffer buf = ByteBuffer.allocate(8 + 8 + 4 + contents.stats().size() * STATS_BYTES
+                + 4 + contents.embeds().size() * EMBED_BYTES);
+        buf.putLong(System.currentTimeMillis()).putLong(contents.nextPollAtMs());
+        buf.putInt(contents.stats().size());
+        contents.stats().forEach((universeId, stats) -> buf
+                .putLong(Long.parseLong(universeId))
+                .putLong(stats.playersOnline)
+                .putInt(stats.serverCount)
+                .putLong(stats.visits)
+                .putLong(stats.upVotes)
+                .putLong(stats.favourites)
+                .putLong(stats.retrievedAt.toEpochMilli()));
+        buf.putInt(contents.embeds().size());
+        contents.embeds().forEach((key, embed) -> {
+            String[] parts = key.split(":", 2);
+            buf.putLong(Long.parseLong(parts[0]))
+                    .putLong(Long.parseLong(parts[1]))
+                    .put((byte) embed.state().ordinal())
+                    .putLong(embed.renderedAtMs());
+        });
+        return buf.array();
+    }
+
+    private static Contents decode(ByteBuffer buf) {
+        buf.getLong(); // writtenAtMs, kept for inspection
+        long nextPollAtMs = buf.getLong();
+        int statsCount = buf.getInt();
+        Map<String, GameStats> stats = new HashMap<>(statsCount * 2);
+        for (int i = 0; i < statsCount; i++) {
+            String universeId = Long.toString(buf.getLong());
+            stats.put(universeId, new GameStats(buf.getLong(), buf.getInt(), buf.getLong(), buf.getLong(),
+                    buf.getLong(), Instant.ofEpochMilli(buf.getLong())));
+        }
+        int embedCount = buf.getInt();
+        Map<String, EmbedState> embeds = new HashMap<>(embedCount * 2);
+        RenderState[] states = RenderState.values();
+        for (int i = 0; i < embedCount; i++) {
+            String key = buf.getLong() + ":" + buf.getLong();
+            embeds.put(key, new EmbedState(states[buf.get()], buf.getLong()));
+        }
+        return new Contents(nextPollAtMs, stats, embeds);
+    }
+}
@@ -0,0 +1,126 @@
+package dev.wand.stacker.services;
+
+/**
+ * The recent player counts of one universe, kept in memory to show which way they are moving.
+ * <p>
+ * Samples go into a fixed-capacity ring of primitive arrays. Each {@link #add} also updates the window
+ * bounds and two monotonic queues (one for the minimum, one for the maximum), so the delta, rate and
+ * min/max over the window cost O(1) amortized per sample, however long the window is. The result is
+ * published as an immutable {@link Trend} through a volatile field: readers never lock and always see
+ * a consistent set of numbers. Writes are serialized on the instance, but they only happen once per
+ * fetch.
+ */
+public final class StatsWindow {
+
+    private final long windowMs;
+    private final int capacity;
+    private final int mask;
+
+    // Ring of samples, indexed by sequence number & mask
+    private final long[] times;
+    private final long[] players;
+    private long written;
+
+    // Sequence number of the oldest sample still inside the window
+    private long windowStart;
+
+    // Sequence numbers whose player counts increase (min) or decrease (max) from head to tail
+    private final long[] minQueue;
+    private final long[] maxQueue;
+    private long minHead;
+    private long minTail;
+    private long maxHead;
+    private long maxTail;
+
+    private volatile Trend trend;
+
+    /**
+     * @param capacity The most samples to keep; rounded up to a power of two. Should exceed the number of
+     *                 fetches in one window, otherwise the window is cut short
+     * @param windowMs How far back the delta and min/max look
+     */
+    public StatsWindow(int capacity, long windowMs) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.mask = this.capacity - 1;
+        this.windowMs = windowMs;
+        this.times = new long[this.capacity];
+        this.players = new long[this.capacity];
+        this.minQueue = new long[this.capacity];
+        this.maxQueue = new long[this.capacity];
+    }
+
+    /**
+     * The movement of the player count over the window, as of one sample.
+     *
+     * @param atMs    When the latest sample was fetched, in epoch milliseconds
+     * @param players The latest player count
+     * @param delta   Change since the oldest sample in the window
+     * @param spanMs  Time between the oldest sample in the window and the latest; {@code 0} with a single sample
+     * @param min     Lowest player count in the window
+     * @param max     Highest player count in the window
+     */
+    public record Trend(long atMs, long players, long delta, long spanMs, long min, long max) {
+
+        /**
+         * @return the average change per minute over the span, or {@code 0} with a single sample
+         */
+        public double ratePerMinute() {
+            return spanMs == 0 ? 0 : delta * 60_000.0 / spanMs;
+        }
+    }
+
+    /**
+     * Add a sample. Samples not newer than the latest one are ignored.
+     *
+     * @param stats The fetched stats
+     */
+    public synchronized void add(GameStats stats) {
+        long at = stats.retrievedAt.toEpochMilli();
+        if (written > 0 && at <= times[slot(written - 1)]) {
+            return;
+        }
+        long seq = written;
+        long value = stats.playersOnline;
+        times[slot(seq)] = at;
+        players[slot(seq)] = value;
+        written++;
+
+        // Move the window start past samples that are too old or have been overwritten
+        long oldestKept = Math.max(0, written - capacity);
+        while (windowStart < seq && (windowStart < oldestKept || times[slot(windowStart)] < at - windowMs)) {
+            windowStart++;
+        }
+
+        // Drop queued samples that left the window first, so the queues never hold more than capacity
+        while (minHead < minTail && minQueue[slot(minHead)] < windowStart) {
+            minHead++;
+        }
+        while (maxHead < maxTail && maxQueue[slot(maxHead)] < windowStart) {
+            maxHead++;
+        }
+        // A newer sample that is at least as low (high) makes older ones irrelevant for the minimum (maximum)
+        while (minTail > minHead && players[slot(minQueue[slot(minTail - 1)])] >= value) {
+            minTail--;
+        }
+        minQueue[slot(minTail++)] = seq;
+        while (maxTail > maxHead && players[slot(maxQueue[slot(maxTail - 1)])] <= value) {
+            maxTail--;
+        }
+        maxQueue[slot(maxTail++)] = seq;
+
+        int first = slot(windowStart);
+        trend = new Trend(at, value, value - players[first], at - times[first],
+                players[slot(minQueue[slot(minHead)])], players[slot(maxQueue[slot(maxHead)])]);
+    }
+
+    /**
+     * @return the trend as of the latest sample, or {@code null} if there is none yet
+     */
+    public Trend trend() {
+        return trend;
+    }
+
+    private int slot(long seq) {
+        return (int) (seq & mask);
+    }
+}
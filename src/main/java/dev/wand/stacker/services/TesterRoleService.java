@@ -0,0 +1,275 @@
+package dev.wand.stacker.services;
+
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.GuildSettings;
+import dev.wand.stacker.jobs.RestWorkQueue;
+import dev.wand.stacker.repository.Repositories;
+import dev.wand.stacker.repository.StorageException;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.utils.concurrent.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Grants the tester roles, to one member or to hundreds at once.
+ * <p>
+ * Shared by {@code /tester}, the pending-tester join listener and the pending-tester reconciliation.
+ * <ul>
+ *   <li>Members are resolved in chunks of {@value #MEMBER_CHUNK_SIZE} with {@code retrieveMembersByIds}
+ *       (one gateway request per chunk) instead of one REST lookup per user</li>
+ *   <li>All tester roles are added with a single {@code modifyMemberRoles} call per member, skipped entirely
+ *       for members that already have them</li>
+ *   <li>Role updates run through a {@link RestWorkQueue} so large waves stay within a bounded share
+ *       of the REST budget</li>
+ *   <li>Users who are not in the guild are added to the pending list in one batched insert</li>
+ * </ul>
+ */
+public final class TesterRoleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TesterRoleService.class);
+
+    private static final int MEMBER_CHUNK_SIZE = 100;
+    private static final int FULL_SCAN_CHUNK_THRESHOLD = 10;
+    private static final RestWorkQueue QUEUE = new RestWorkQueue("tester_roles", 4, 10.0, 10);
+
+    private TesterRoleService() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Running totals of a bulk grant.
+     *
+     * @param total         The number of distinct users requested
+     * @param granted       Members who received the roles
+     * @param alreadyTester Members who already had every tester role
+     * @param pending       Users not in the guild, added to the pending list
+     * @param failed        Users whose roles could not be granted
+     */
+    public record Progress(int total, int granted, int alreadyTester, int pending, int failed) {
+
+        /**
+         * @return whether every requested user has been handled
+         */
+        public boolean isDone() {
+            return granted + alreadyTester + pending + failed >= total;
+        }
+    }
+
+    /**
+     * Look up the guild's tester roles (see {@link GuildSettings#testerRoleIds()}).
+     *
+     * @param guild The guild
+     * @return The roles, or empty if the guild has none configured or any is missing
+     */
+    public static Optional<List<Role>> testerRoles(Guild guild) {
+        GuildSettings settings = GuildConfig.forGuild(guild.getIdLong());
+        if (settings == null || settings.testerRoleIds().isEmpty()) {
+            logger.error("No tester roles configured for guild: {}", guild.getName());
+            return Optional.empty();
+        }
+        List<Role> roles = new ArrayList<>(settings.testerRoleIds().size());
+        for (long roleId : settings.testerRoleIds()) {
+            Role role = guild.getRoleById(roleId);
+            if (role == null) {
+                logger.error("Tester role {} not found in guild: {}", roleId, guild.getName());
+                return Optional.empty();
+            }
+            roles.add(role);
+        }
+        return Optional.of(roles);
+    }
+
+    /**
+     * Grant the tester roles to one member with a single role update.
+     *
+     * @param guild  The guild
+     * @param member The member
+     * @return A future completed with {@code true} if roles were added, {@code false} if the member already had them
+     */
+    public static CompletableFuture<Boolean> grant(Guild guild, Member member) {
+        Optional<List<Role>> roles = testerRoles(guild);
+        if (roles.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Tester roles are not configured"));
+        }
+        List<Role> missing = missingRoles(member, roles.get());
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return guild.modifyMemberRoles(member, missing, List.of()).submit().thenApply(ignored -> true);
+    }
+
+    /**
+     * Resolve users to members in chunks, with all chunks requested in parallel.
+     * For very large sets a single filtered download of the member list is cheaper than hundreds of
+     * chunk requests, so above {@value #FULL_SCAN_CHUNK_THRESHOLD} chunks that is used instead.
+     * Users who are not in the guild are simply absent from the result.
+     *
+     * @param guild   The guild
+     * @param userIds The user IDs to resolve
+     * @return A future completed with the members found
+     */
+    public static CompletableFuture<List<Member>> retrieveMembers(Guild guild, Collection<Long> userIds) {
+        List<Long> ids = List.copyOf(userIds);
+        if (ids.size() > FULL_SCAN_CHUNK_THRESHOLD * MEMBER_CHUNK_SIZE) {
+            Set<Long> wanted = new HashSet<>(ids);
+            return toFuture(guild.findMembers(member -> wanted.contains(member.getIdLong())));
+        }
+        List<CompletableFuture<List<Member>>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MEMBER_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MEMBER_CHUNK_SIZE));
+            chunks.add(toFuture(guild.retrieveMembersByIds(chunk)));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> chunks.stream().flatMap(chunk -> chunk.join().stream()).toList());
+    }
+
+    /**
+     * Grant the tester roles to many users. Members are resolved in bulk; absentees are queued as pending.
+     *
+     * @param guild      The guild
+     * @param userIds    The user IDs
+     * @param onProgress Called after every handled user with the running totals
+     * @return A future completed with the final totals
+     */
+    public static CompletableFuture<Progress> grantAll(Guild guild, Collection<Long> userIds, Consumer<Progress> onProgress) {
+        Set<Long> distinct = new LinkedHashSet<>(userIds);
+        return retrieveMembers(guild, distinct)
+                .thenCompose(members -> {
+                    Set<Long> absent = new LinkedHashSet<>(distinct);
+                    members.forEach(member -> absent.remove(member.getIdLong()));
+                    return grantAllMembers(guild, members, absent, onProgress);
+                });
+    }
+
+    /**
+     * Grant the tester roles to already-resolved members and add absent users to the pending list.
+     *
+     * @param guild      The guild
+     * @param members    The members to grant roles to
+     * @param absentIds  Users not in the guild, to be added to the pending list in one batch
+     * @param onProgress Called after every handled user with the running totals
+     * @return A future completed with the final totals
+     */
+    public static CompletableFuture<Progress> grantAllMembers(Guild guild, List<Member> members,
+                                                              Collection<Long> absentIds, Consumer<Progress> onProgress) {
+        Optional<List<Role>> roles = testerRoles(guild);
+        if (roles.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Tester roles are not configured"));
+        }
+
+        int total = members.size() + absentIds.size();
+        AtomicInteger granted = new AtomicInteger();
+        AtomicInteger alreadyTester = new AtomicInteger();
+        AtomicInteger pending = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Runnable report = () -> onProgress.accept(
+                new Progress(total, granted.get(), alreadyTester.get(), pending.get(), failed.get()));
+
+        // One batched insert for everyone who is not in the guild
+        CompletableFuture<Void> pendingInsert = CompletableFuture.runAsync(() -> {
+            if (absentIds.isEmpty()) {
+                return;
+            }
+            try {
+                Repositories.pendingTesters().addAll(guild.getIdLong(),
+                        absentIds.stream().map(String::valueOf).toList());
+                pending.addAndGet(absentIds.size());
+            } catch (StorageException e) {
+                logger.error("Failed to add {} user(s) to the pending tester list", absentIds.size(), e);
+                failed.addAndGet(absentIds.size());
+            }
+            report.run();
+        });
+
+        CompletableFuture<Void> roleUpdates = grantEach(guild, members, roles.get(), (member, outcome) -> {
+            switch (outcome) {
+                case GRANTED -> granted.incrementAndGet();
+                case ALREADY_TESTER -> alreadyTester.incrementAndGet();
+                case FAILED -> failed.incrementAndGet();
+            }
+            report.run();
+        });
+
+        return CompletableFuture.allOf(pendingInsert, roleUpdates)
+                .thenApply(ignored -> {
+                    Progress result = new Progress(total, granted.get(), alreadyTester.get(), pending.get(), failed.get());
+                    logger.info("Bulk tester grant in {}: {}", guild.getName(), result);
+                    return result;
+                });
+    }
+
+    /**
+     * Grant the tester roles to already-resolved members.
+     *
+     * @param guild   The guild
+     * @param members The members to grant roles to
+     * @return A future completed with the IDs of members who now have every tester role
+     */
+    public static CompletableFuture<Set<Long>> grantMembers(Guild guild, List<Member> members) {
+        Optional<List<Role>> roles = testerRoles(guild);
+        if (roles.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Tester roles are not configured"));
+        }
+        Set<Long> satisfied = ConcurrentHashMap.newKeySet();
+        return grantEach(guild, members, roles.get(), (member, outcome) -> {
+            if (outcome != Outcome.FAILED) {
+                satisfied.add(member.getIdLong());
+            }
+        }).thenApply(ignored -> satisfied);
+    }
+
+    private enum Outcome {
+        GRANTED,
+        ALREADY_TESTER,
+        FAILED
+    }
+
+    /**
+     * Queue one role update per member that is missing a tester role and report every member's outcome.
+     *
+     * @return A future completed once every member has been handled; it never completes exceptionally
+     */
+    private static CompletableFuture<Void> grantEach(Guild guild, List<Member> members, List<Role> roles,
+                                                     BiConsumer<Member, Outcome> onOutcome) {
+        List<CompletableFuture<?>> updates = new ArrayList<>(members.size());
+        for (Member member : members) {
+            List<Role> missing = missingRoles(member, roles);
+            if (missing.isEmpty()) {
+                onOutcome.accept(member, Outcome.ALREADY_TESTER);
+                continue;
+            }
+            updates.add(QUEUE.submit(() -> guild.modifyMemberRoles(member, missing, List.of()))
+                    .handle((ignored, error) -> {
+                        if (error != null) {
+                            logger.error("Failed to assign tester roles to {}", member.getId(), error);
+                            onOutcome.accept(member, Outcome.FAILED);
+                        } else {
+                            onOutcome.accept(member, Outcome.GRANTED);
+                        }
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private static List<Role> missingRoles(Member member, List<Role> roles) {
+        List<Role> missing = new ArrayList<>(roles);
+        missing.removeAll(member.getRoles());
+        return missing;
+    }
+
+    private static <T> CompletableFuture<T> toFuture(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        task.onSuccess(future::complete).onError(future::completeExceptionally);
+        return future;
+    }
+}
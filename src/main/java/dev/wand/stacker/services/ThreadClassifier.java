@@ -0,0 +1,82 @@
+package dev.wand.stacker.services;
+
+import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.TagKind;
+import dev.wand.stacker.utils.AhoCorasick;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Classifies new Tester Log Forum threads as Bug, Feature or Feedback by keyword.
+ * <p>
+ * The keyword sets from {@link Config} are compiled once into a single {@link AhoCorasick} matcher,
+ * so classifying a thread is one pass over its text however many keywords are configured.
+ * The category with the most keyword hits wins; ties go to Bug, then Feature, then Feedback.
+ */
+public final class ThreadClassifier {
+
+    /**
+     * Categories in tie-break order, each with the forum tag it maps to.
+     */
+    public enum Category {
+        BUG(TagKind.BUG),
+        FEATURE(TagKind.FEATURE),
+        FEEDBACK(TagKind.FEEDBACK);
+
+        private final TagKind tagKind;
+
+        Category(TagKind tagKind) {
+            this.tagKind = tagKind;
+        }
+
+        public TagKind getTagKind() {
+            return tagKind;
+        }
+    }
+
+    private static final AhoCorasick MATCHER;
+    private static final Category[] KEYWORD_CATEGORIES;
+
+    static {
+        List<String> keywords = new ArrayList<>();
+        List<Category> categories = new ArrayList<>();
+        addKeywords(keywords, categories, Category.BUG, Config.getClassifierBugKeywords());
+        addKeywords(keywords, categories, Category.FEATURE, Config.getClassifierFeatureKeywords());
+        addKeywords(keywords, categories, Category.FEEDBACK, Config.getClassifierFeedbackKeywords());
+        MATCHER = AhoCorasick.compile(keywords);
+        KEYWORD_CATEGORIES = categories.toArray(new Category[0]);
+    }
+
+    private ThreadClassifier() {
+        // Utility class, prevent instantiation
+    }
+
+    private static void addKeywords(List<String> keywords, List<Category> categories,
+                                    Category category, List<String> categoryKeywords) {
+        for (String keyword : categoryKeywords) {
+            keywords.add(keyword);
+            categories.add(category);
+        }
+    }
+
+    /**
+     * Classify a thread by its title and starter message.
+     *
+     * @param text The text to classify
+     * @return The best-matching category, or empty if no keyword matched
+     */
+    public static Optional<Category> classify(String text) {
+        int[] hits = new int[Category.values().length];
+        MATCHER.scan(text, (keyword, start, end) -> hits[KEYWORD_CATEGORIES[keyword].ordinal()]++);
+
+        Category best = null;
+        for (Category category : Category.values()) {
+            if (hits[category.ordinal()] > 0 && (best == null || hits[category.ordinal()] > hits[best.ordinal()])) {
+                best = category;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+}
@@ -0,0 +1,105 @@
+package dev.wand.stacker.services;
+
+import dev.wand.stacker.config.TagKind;
+import dev.wand.stacker.utils.ValidationUtils;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decides which tags a new Tester Log Forum thread should receive automatically.
+ * Shared by the live {@link dev.wand.stacker.listeners.ForumThreadListener} and the
+ * offline catch-up in {@link dev.wand.stacker.jobs.ForumReconciliationJob}.
+ * <p>
+ * A thread gets the "Pending" tag if it has no status tag, and a Bug/Feature/Feedback tag chosen by
+ * {@link ThreadClassifier} if it has no category tag. Both are returned as one tag list so they can
+ * be applied in a single {@code setAppliedTags} call.
+ */
+public final class ThreadTagger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadTagger.class);
+
+    private ThreadTagger() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Compute the thread's tags with the automatic tags added.
+     *
+     * @param forum  The thread's parent forum
+     * @param thread The thread to tag
+     * @param text   The thread title and starter message, used for classification
+     * @return The full new tag list, or empty if no tag needs to be added
+     */
+    public static Optional<List<ForumTag>> withAutomaticTags(ForumChannel forum, ThreadChannel thread, String text) {
+        List<ForumTag> added = automaticTags(forum, thread, text);
+        if (added.isEmpty()) {
+            return Optional.empty();
+        }
+        List<ForumTag> tags = new ArrayList<>(thread.getAppliedTags());
+        tags.addAll(added);
+        return Optional.of(tags);
+    }
+
+    /**
+     * Compute only the automatic tags a thread is missing.
+     *
+     * @param forum  The thread's parent forum
+     * @param thread The thread to tag
+     * @param text   The thread title and starter message, used for classification
+     * @return The tags to add, possibly empty
+     */
+    public static List<ForumTag> automaticTags(ForumChannel forum, ThreadChannel thread, String text) {
+        List<ForumTag> applied = thread.getAppliedTags();
+        List<ForumTag> added = new ArrayList<>(2);
+
+        // Only add Pending tag if no status tag is present
+        if (applied.stream().noneMatch(ValidationUtils::isStatusTag)) {
+            ForumTag pendingTag = findTag(forum, TagKind.PENDING);
+            if (pendingTag == null) {
+                logger.warn("Pending tag not found in forum: {}", forum.getName());
+            } else {
+                added.add(pendingTag);
+            }
+        }
+
+        // Only classify if the author did not pick a category themselves
+        if (applied.stream().noneMatch(ValidationUtils::isCategoryTag)
+                && applied.size() + added.size() < ForumChannel.MAX_POST_TAGS) {
+            ThreadClassifier.classify(text)
+                    .map(category -> findTag(forum, category.getTagKind()))
+                    .ifPresent(added::add);
+        }
+        return added;
+    }
+
+    /**
+     * Check whether a thread still needs automatic tagging, without reading its starter message.
+     *
+     * @param thread The thread to check
+     * @return true if the thread has no status tag yet
+     */
+    public static boolean needsTagging(ThreadChannel thread) {
+        return thread.getAppliedTags().stream().noneMatch(ValidationUtils::isStatusTag);
+    }
+
+    /**
+     * Find the forum's tag of a given kind among its available tags.
+     *
+     * @param forum The forum channel
+     * @param kind  The kind of tag
+     * @return The tag, or {@code null} if the forum does not have it
+     */
+    public static ForumTag findTag(ForumChannel forum, TagKind kind) {
+        return forum.getAvailableTags().stream()
+                .filter(tag -> ValidationUtils.isTag(tag, kind))
+                .findFirst()
+                .orElse(null);
+    }
+}
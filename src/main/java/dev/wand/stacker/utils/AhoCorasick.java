@@ -0,0 +1,149 @@
+package dev.wand.stacker.utils;
+
+import java.util.*;
+
+/**
+ * Compiled multi-keyword matcher (Aho–Corasick automaton).
+ * <p>
+ * All keywords are compiled into one deterministic automaton with a dense transition table, so
+ * scanning a text is a single pass with one table lookup per character, no matter how many
+ * keywords there are. Matching is case-insensitive and only reports whole-word matches
+ * (a keyword must not be directly preceded or followed by a letter or digit).
+ */
+public final class AhoCorasick {
+
+    /**
+     * Receives each keyword match found by {@link #scan(CharSequence, MatchHandler)}.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param keyword The index of the matched keyword in the list passed to {@link #compile(List)}
+         * @param start   The index of the first matched character
+         * @param end     The index after the last matched character
+         */
+        void onMatch(int keyword, int start, int end);
+    }
+
+    private final int[] alphabet;       // char -> symbol index, 0 for characters no keyword uses
+    private final int symbols;
+    private final int[] transitions;    // state * symbols + symbol -> next state
+    private final int[][] outputs;      // state -> keywords ending here, including via suffix links
+    private final int[] keywordLengths;
+
+    private AhoCorasick(int[] alphabet, int symbols, int[] transitions, int[][] outputs, int[] keywordLengths) {
+        this.alphabet = alphabet;
+        this.symbols = symbols;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.keywordLengths = keywordLengths;
+    }
+
+    /**
+     * Compile a keyword list into a matcher.
+     *
+     * @param keywords The keywords; blank entries are ignored but keep their index
+     * @return The compiled matcher
+     */
+    public static AhoCorasick compile(List<String> keywords) {
+        // Reduce the alphabet to the characters that appear in keywords
+        int[] alphabet = new int[Character.MAX_VALUE + 1];
+        int symbols = 1;
+        List<String> normalized = new ArrayList<>(keywords.size());
+        for (String keyword : keywords) {
+            String lower = keyword.strip().toLowerCase(Locale.ROOT);
+            normalized.add(lower);
+            for (char c : lower.toCharArray()) {
+                if (alphabet[c] == 0) {
+                    alphabet[c] = symbols++;
+                }
+            }
+        }
+
+        // Build the trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new int[symbols]);
+        ends.add(new ArrayList<>());
+        int[] keywordLengths = new int[normalized.size()];
+        for (int k = 0; k < normalized.size(); k++) {
+            String keyword = normalized.get(k);
+            keywordLengths[k] = keyword.length();
+            if (keyword.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (char c : keyword.toCharArray()) {
+                int symbol = alphabet[c];
+                if (trie.get(state)[symbol] == 0) {
+                    trie.get(state)[symbol] = trie.size();
+                    trie.add(new int[symbols]);
+                    ends.add(new ArrayList<>());
+                }
+                state = trie.get(state)[symbol];
+            }
+            ends.get(state).add(k);
+        }
+
+        // Breadth-first: resolve failure links into direct transitions and merge outputs
+        int states = trie.size();
+        int[] transitions = new int[states * symbols];
+        int[] fail = new int[states];
+        int[][] outputs = new int[states][];
+        outputs[0] = new int[0];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            int child = trie.get(0)[symbol];
+            transitions[symbol] = child;
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] own = ends.get(state).stream().mapToInt(Integer::intValue).toArray();
+            int[] inherited = outputs[fail[state]];
+            int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+            System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+            outputs[state] = merged;
+
+            for (int symbol = 0; symbol < symbols; symbol++) {
+                int child = trie.get(state)[symbol];
+                if (child != 0) {
+                    fail[child] = transitions[fail[state] * symbols + symbol];
+                    transitions[state * symbols + symbol] = child;
+                    queue.add(child);
+                } else {
+                    transitions[state * symbols + symbol] = transitions[fail[state] * symbols + symbol];
+                }
+            }
+        }
+
+        return new AhoCorasick(alphabet, symbols, transitions, outputs, keywordLengths);
+    }
+
+    /**
+     * Scan a text once and report every whole-word keyword match.
+     *
+     * @param text    The text to scan
+     * @param handler Receives each match in order of its end position
+     */
+    public void scan(CharSequence text, MatchHandler handler) {
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            state = transitions[state * symbols + alphabet[c]];
+            for (int keyword : outputs[state]) {
+                int start = i + 1 - keywordLengths[keyword];
+                if (isBoundary(text, start - 1) && isBoundary(text, i + 1)) {
+                    handler.onMatch(keyword, start, i + 1);
+                }
+            }
+        }
+    }
+
+    private static boolean isBoundary(CharSequence text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+}
@@ -0,0 +1,139 @@
+package dev.wand.stacker.utils;
+
+import dev.wand.stacker.metrics.Metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Drops gateway events that JDA re-delivers after a RESUME or reconnect.
+ * <p>
+ * Listeners call {@link #firstSeen} before doing any I/O. Each (event type, snowflake) pair is
+ * remembered for {@link #WINDOW_MS}; a repeat inside that window is reported as a replay and
+ * counted in the {@code events.replays_suppressed} metric.
+ * <p>
+ * Entries live in a fixed-size open-addressing table. Each slot holds one immutable (key, timestamp)
+ * pair, so a key and its timestamp are always published together by a single compare-and-set; a
+ * concurrent duplicate either sees the complete entry or loses the race and probes again. Expired
+ * slots are reused in place, so memory stays bounded no matter how many events pass through. When
+ * every slot in a probe sequence is still live, the oldest one is evicted; the table is sized so this
+ * only happens far beyond the bot's event rate.
+ */
+public final class EventDeduplicator {
+
+    /**
+     * Events that are deduplicated, each with a distinct salt mixed into its keys.
+     */
+    public enum EventType {
+        THREAD_CREATE,
+        MEMBER_JOIN
+    }
+
+    /**
+     * How long an event is remembered.
+     */
+    public static final long WINDOW_MS = 10 * 60 * 1000;
+
+    private static final int CAPACITY = 1 << 13;
+    private static final int MASK = CAPACITY - 1;
+    private static final int MAX_PROBES = 16;
+
+    // null marks an empty slot
+    private static final AtomicReferenceArray<Entry> SLOTS = new AtomicReferenceArray<>(CAPACITY);
+
+    private record Entry(long key, long seenAt) {
+    }
+
+    private EventDeduplicator() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Record an event and report whether it is the first delivery within the window.
+     *
+     * @param type      The event type
+     * @param snowflake The entity the event is about (e.g. the thread ID)
+     * @return true if the event should be handled, false if it is a replay
+     */
+    public static boolean firstSeen(EventType type, long snowflake) {
+        return firstSeen(type, 0L, snowflake);
+    }
+
+    /**
+     * Record an event scoped to a guild (or other parent) and report whether it is the first delivery.
+     *
+     * @param type      The event type
+     * @param scopeId   The scope the entity belongs to (e.g. the guild ID for member joins)
+     * @param snowflake The entity the event is about (e.g. the user ID)
+     * @return true if the event should be handled, false if it is a replay
+     */
+    public static boolean firstSeen(EventType type, long scopeId, long snowflake) {
+        return firstSeen(type, scopeId, snowflake, System.currentTimeMillis());
+    }
+
+    /**
+     * Package-private so tests can move the clock instead of waiting out {@link #WINDOW_MS}.
+     */
+    static boolean firstSeen(EventType type, long scopeId, long snowflake, long now) {
+        long key = key(type, scopeId, snowflake);
+        int start = (int) (key ^ (key >>> 32)) & MASK;
+        Entry inserted = new Entry(key, now);
+
+        while (true) {
+            // Scan the whole probe sequence first: the key may sit past a slot that has since expired
+            int freeSlot = -1;
+            Entry free = null;
+            int oldestSlot = start;
+            Entry oldest = null;
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int slot = (start + probe) & MASK;
+                Entry entry = SLOTS.get(slot);
+                boolean live = entry != null && now - entry.seenAt() < WINDOW_MS;
+
+                if (entry != null && entry.key() == key) {
+                    if (live) {
+                        return suppressed(type);
+                    }
+                    // Same entity, but long enough ago to be a genuinely new event
+                    freeSlot = slot;
+                    free = entry;
+                    break;
+                }
+                if (!live) {
+                    if (freeSlot < 0) {
+                        freeSlot = slot;
+                        free = entry;
+                    }
+                } else if (oldest == null || entry.seenAt() < oldest.seenAt()) {
+                    oldest = entry;
+                    oldestSlot = slot;
+                }
+            }
+
+            if (freeSlot >= 0) {
+                if (SLOTS.compareAndSet(freeSlot, free, inserted)) {
+                    return true;
+                }
+            } else if (SLOTS.compareAndSet(oldestSlot, oldest, inserted)) {
+                // Probe sequence full of live entries: evicted the oldest
+                Metrics.increment("events.dedup_evictions");
+                return true;
+            }
+            // Another thread changed the slot first; probe again so a concurrent duplicate is seen
+        }
+    }
+
+    private static boolean suppressed(EventType type) {
+        Metrics.increment("events.replays_suppressed");
+        Metrics.increment("events.replays_suppressed." + type.name().toLowerCase());
+        return false;
+    }
+
+    private static long key(EventType type, long scopeId, long snowflake) {
+        long h = snowflake * 0x9E3779B97F4A7C15L + scopeId;
+        h ^= (long) (type.ordinal() + 1) << 56;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return h;
+    }
+}
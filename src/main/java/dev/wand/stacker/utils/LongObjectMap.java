@@ -0,0 +1,141 @@
+package dev.wand.stacker.utils;
+
+/**
+ * Hash map from primitive {@code long} keys (snowflakes) to values, without boxing.
+ * <p>
+ * Open addressing with linear probing in parallel key/value arrays kept at most half full, so a lookup
+ * is a multiply, a shift and usually one or two array reads. Meant to be built once and then only read:
+ * it is not thread-safe for writes, so publish a fully built map to readers (e.g. through a volatile
+ * field) and build a new one to change it.
+ */
+public final class LongObjectMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int shift;
+    private int size;
+
+    // Key 0 marks free slots, so its value is held separately
+    private boolean hasZeroKey;
+    private Object zeroValue;
+
+    /**
+     * @param expectedSize The number of entries the map should hold without resizing
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+    }
+
+    /**
+     * @param key The key
+     * @return the value for the key, or {@code null} if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return (V) zeroValue;
+        }
+        long[] k = keys;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long candidate = k[slot];
+            if (candidate == key) {
+                return (V) values[slot];
+            }
+            if (candidate == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @param key The key
+     * @return whether the map has an entry for the key
+     */
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == key) {
+                return true;
+            }
+            if (candidate == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Associate a value with a key, replacing any previous value.
+     *
+     * @param key   The key
+     * @param value The value
+     * @return the previous value, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing spreads the sequential low bits of snowflakes over the table
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) {
+                continue;
+            }
+            int slot = slot(key);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+}
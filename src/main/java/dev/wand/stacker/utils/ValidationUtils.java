@@ -1,6 +1,7 @@
 package dev.wand.stacker.utils;
 
-import dev.wand.stacker.config.Config;
+import dev.wand.stacker.config.GuildConfig;
+import dev.wand.stacker.config.TagKind;
 import net.dv8tion.jda.api.entities.channel.Channel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
@@ -16,10 +17,10 @@ public class ValidationUtils {
     }
 
     /**
-     * Check if a channel is a thread in the Tester Log Forum.
+     * Check if a channel is a thread in the Tester Log Forum of a guild the bot serves.
      *
      * @param channel The channel to check
-     * @return true if the channel is a thread in the Tester Log Forum, false otherwise
+     * @return true if the channel is a thread in a Tester Log Forum, false otherwise
      */
     public static boolean isThreadInTesterLogForum(Channel channel) {
         if (!(channel instanceof ThreadChannel)) {
@@ -27,24 +28,41 @@ public class ValidationUtils {
         }
 
         ThreadChannel threadChannel = (ThreadChannel) channel;
-        String parentChannelId = threadChannel.getParentChannel().getId();
+        long parentChannelId = threadChannel.getParentChannel().getIdLong();
 
-        return parentChannelId.equals(Config.CHANNEL_TESTER_LOG_FORUM);
+        return GuildConfig.forForum(parentChannelId) != null;
     }
 
     /**
-     * Check if a forum tag is a status tag (Fixed, In Progress, Pending, or Resolved).
+     * Check if a forum tag is a status tag (Fixed, In Progress, Pending, Resolved, Duplicate or Investigating).
      *
      * @param tag The forum tag to check
      * @return true if the tag is a status tag, false otherwise
      */
     public static boolean isStatusTag(ForumTag tag) {
-        String tagId = tag.getId();
-        return tagId.equals(Config.TAG_FIXED) ||
-                tagId.equals(Config.TAG_IN_PROGRESS) ||
-                tagId.equals(Config.TAG_PENDING) ||
-                tagId.equals(Config.TAG_RESOLVED) ||
-                tagId.equals(Config.TAG_DUPLICATE) ||
-                tagId.equals(Config.TAG_INVESTIGATING);
+        TagKind kind = GuildConfig.tagKind(tag.getIdLong());
+        return kind != null && kind.isStatus();
+    }
+
+    /**
+     * Check if a forum tag is a category tag (Bug, Feature, or Feedback).
+     *
+     * @param tag The forum tag to check
+     * @return true if the tag is a category tag, false otherwise
+     */
+    public static boolean isCategoryTag(ForumTag tag) {
+        TagKind kind = GuildConfig.tagKind(tag.getIdLong());
+        return kind != null && !kind.isStatus();
+    }
+
+    /**
+     * Check if a forum tag is a guild's tag of the given kind.
+     *
+     * @param tag  The forum tag to check
+     * @param kind The kind of tag
+     * @return true if the tag is of that kind, false otherwise
+     */
+    public static boolean isTag(ForumTag tag, TagKind kind) {
+        return GuildConfig.tagKind(tag.getIdLong()) == kind;
     }
 }
@@ -0,0 +1,53 @@
+package dev.wand.stacker.commands;
+
+import dev.wand.stacker.index.ThreadIndex;
+import dev.wand.stacker.index.ThreadRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateCommandTest {
+
+    private static final long FORUM = 910_000_000_000_000_001L;
+    private static final long OTHER_FORUM = 910_000_000_000_000_002L;
+    private static final long THREAD = 8_100_000_000_000_000_001L;
+    private static final long OTHER_THREAD = 8_100_000_000_000_000_002L;
+
+    @BeforeEach
+    void indexThreads() {
+        ThreadIndex.upsert(new ThreadRecord(THREAD, 1L, FORUM, 2L, 0L, "Original", 0L, 0L, 0L));
+        ThreadIndex.upsert(new ThreadRecord(OTHER_THREAD, 3L, OTHER_FORUM, 2L, 0L, "Elsewhere", 0L, 0L, 0L));
+    }
+
+    @AfterEach
+    void clearIndex() {
+        ThreadIndex.remove(THREAD);
+        ThreadIndex.remove(OTHER_THREAD);
+    }
+
+    @Test
+    void resolvesAutocompleteIdsPastedIdsAndLinks() {
+        assertEquals(THREAD, resolve(Long.toString(THREAD)));
+        assertEquals(THREAD, resolve("  " + THREAD + " "));
+        assertEquals(THREAD, resolve("https://discord.com/channels/1/" + THREAD));
+    }
+
+    @Test
+    void rejectsUnknownMalformedAndOtherForumThreads() {
+        assertTrue(DuplicateCommand.resolveThread("12345", FORUM).isEmpty());
+        assertTrue(DuplicateCommand.resolveThread("not a thread", FORUM).isEmpty());
+        assertTrue(DuplicateCommand.resolveThread("https://discord.com/channels/1/", FORUM).isEmpty());
+        assertTrue(DuplicateCommand.resolveThread(Long.toString(OTHER_THREAD), FORUM).isEmpty());
+    }
+
+    private static long resolve(String value) {
+        Optional<ThreadRecord> record = DuplicateCommand.resolveThread(value, FORUM);
+        assertTrue(record.isPresent(), value);
+        return record.get().threadId();
+    }
+}
@@ -0,0 +1,32 @@
+package dev.wand.stacker.commands.tester;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TesterCommandTest {
+
+    @Test
+    void extractsIdsFromMentionsAndCsvCells() {
+        Set<String> invalid = new HashSet<>();
+        Set<Long> ids = TesterCommand.extractIds(
+                "<@123456789012345678>, 234567890123456789\nname,345678901234567890123,9223372036854775807", invalid);
+
+        assertEquals(List.of(123456789012345678L, 234567890123456789L, 9223372036854775807L), List.copyOf(ids));
+        assertTrue(invalid.isEmpty(), "runs longer than a snowflake are not IDs at all");
+    }
+
+    @Test
+    void twentyDigitValuesAreReportedInsteadOfFailingTheRun() {
+        Set<String> invalid = new HashSet<>();
+        Set<Long> ids = TesterCommand.extractIds("99999999999999999999 123456789012345678 9999999999999999999", invalid);
+
+        assertEquals(Set.of(123456789012345678L), ids);
+        assertEquals(Set.of("99999999999999999999", "9999999999999999999"), invalid);
+    }
+}
@@ -0,0 +1,177 @@
+package dev.wand.stacker.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedLogTest {
+
+    private static final int MAGIC_LENGTH = 8;
+    private static final int RECORD_HEADER = 8;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedEntriesSurviveReopen() throws IOException {
+        Path file = dir.resolve("store.log");
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            log.put("pending", "1", "a");
+            log.put("pending", "2", "b");
+            log.put("state", "fingerprint", "ünïcode");
+            log.write("pending", Map.of("3", "c"), List.of("1"));
+            log.delete("state", "missing");
+        }
+
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            assertEquals(Map.of("2", "b", "3", "c"), Map.copyOf(log.entries("pending")));
+            assertEquals("ünïcode", log.get("state", "fingerprint"));
+            assertFalse(log.contains("pending", "1"));
+        }
+    }
+
+    @Test
+    void corruptTailRecordIsTruncatedOnReopen() throws IOException {
+        Path file = dir.resolve("store.log");
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            log.put("ns", "first", "kept");
+            log.put("ns", "second", "torn");
+        }
+
+        // Flip the last byte of the second record's payload, as a crash mid-write would leave it
+        int second = MAGIC_LENGTH + RECORD_HEADER + payloadLength("ns", "first", "kept");
+        int lastByte = second + RECORD_HEADER + payloadLength("ns", "second", "torn") - 1;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, lastByte);
+            b.flip();
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) (b.get() ^ 0xFF)}), lastByte);
+        }
+
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            assertEquals("kept", log.get("ns", "first"));
+            assertNull(log.get("ns", "second"));
+            // The next append overwrites the corrupt tail
+            log.put("ns", "third", "after");
+        }
+
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            assertEquals(Map.of("first", "kept", "third", "after"), Map.copyOf(log.entries("ns")));
+        }
+    }
+
+    @Test
+    void tornLengthPastEndOfFileIsIgnored() throws IOException {
+        Path file = dir.resolve("store.log");
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            log.put("ns", "key", "value");
+        }
+
+        // A record header claiming more bytes than the file holds
+        int tail = MAGIC_LENGTH + RECORD_HEADER + payloadLength("ns", "key", "value");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE - 16).flip(), tail);
+        }
+
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            assertEquals(Map.of("key", "value"), Map.copyOf(log.entries("ns")));
+        }
+    }
+
+    @Test
+    void compactionKeepsLatestValues() throws IOException {
+        Path file = dir.resolve("store.log");
+        String padding = "x".repeat(1024);
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            // Enough superseded records to pass the compaction threshold
+            for (int i = 0; i < 1500; i++) {
+                log.put("hot", "counter", i + padding);
+            }
+            log.put("cold", "a", "1");
+            log.put("cold", "b", "2");
+            log.delete("cold", "b");
+
+            log.compact();
+            assertTrue(Files.size(file) < 1500L * padding.length(), "compaction should shrink the file");
+            assertEquals(1499 + padding, log.get("hot", "counter"));
+
+            // Appends after compaction go to the new file
+            log.put("cold", "c", "3");
+        }
+
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            assertEquals(Map.of("counter", 1499 + padding), Map.copyOf(log.entries("hot")));
+            assertEquals(Map.of("a", "1", "c", "3"), Map.copyOf(log.entries("cold")));
+        }
+    }
+
+    @Test
+    void writesRacingCloseEitherFailOrSurviveReopen() throws Exception {
+        Path file = dir.resolve("store.log");
+        Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                EmbeddedLog log = EmbeddedLog.open(file);
+                CountDownLatch started = new CountDownLatch(8);
+                List<Future<?>> results = new ArrayList<>();
+                for (int w = 0; w < 8; w++) {
+                    String prefix = round + "-" + w + "-";
+                    results.add(writers.submit(() -> {
+                        started.countDown();
+                        for (int i = 0; ; i++) {
+                            try {
+                                log.put("ns", prefix + i, "v");
+                            } catch (IOException closed) {
+                                return null;
+                            }
+                            acknowledged.add(prefix + i);
+                        }
+                    }));
+                }
+                started.await();
+                log.close();
+                // Every writer must be released by close(); a lost flush would leave one blocked here
+                for (Future<?> result : results) {
+                    result.get(10, TimeUnit.SECONDS);
+                }
+                assertThrows(IOException.class, () -> log.put("ns", "late", "v"));
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        try (EmbeddedLog log = EmbeddedLog.open(file)) {
+            assertTrue(log.entries("ns").keySet().containsAll(acknowledged), "acknowledged writes must be durable");
+        }
+    }
+
+    private static int payloadLength(String namespace, String key, String value) {
+        return 1 + 2 + namespace.getBytes(StandardCharsets.UTF_8).length
+                + 2 + key.getBytes(StandardCharsets.UTF_8).length
+                + 4 + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,122 @@
+package dev.wand.stacker.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateDetectorTest {
+
+    private static final long FORUM = 920_000_000_000_000_001L;
+    private static final long OTHER_FORUM = 920_000_000_000_000_002L;
+    private static final long QUERY = 8_200_000_000_000_000_000L;
+
+    /** The detector's default {@code DUPLICATE_MIN_SIMILARITY_PERCENT}. */
+    private static final double THRESHOLD = 0.40;
+
+    private static final String ORIGINAL = "Inventory crash while riding a horse\n"
+            + "The game crashes when I open the inventory while riding a horse, every time since the update.";
+    private static final String NEAR_DUPLICATE = "Crash opening inventory on a horse\n"
+            + "The game crashes when I open my inventory while riding a horse, every time since the update!";
+    private static final String UNRELATED = "Wrong currency in shop\n"
+            + "Shop prices show the wrong currency after switching the language to German.";
+
+    private final List<Long> indexed = new ArrayList<>();
+
+    @AfterEach
+    void clear() {
+        for (long threadId : indexed) {
+            synchronized (DuplicateDetector.class) {
+                DuplicateDetector.unlink(threadId);
+            }
+            ThreadIndex.remove(threadId);
+        }
+    }
+
+    @Test
+    void nearDuplicateCollidesAndIsReported() {
+        index(1, FORUM, ORIGINAL);
+
+        List<DuplicateDetector.Match> matches = find(NEAR_DUPLICATE, FORUM);
+
+        assertEquals(1, matches.size());
+        assertEquals(threadId(1), matches.get(0).thread().threadId());
+        assertEquals(MinHash.similarity(MinHash.signature(ORIGINAL), MinHash.signature(NEAR_DUPLICATE)),
+                matches.get(0).similarity());
+    }
+
+    @Test
+    void unrelatedTextDoesNotMatch() {
+        index(1, FORUM, ORIGINAL);
+
+        assertTrue(find(UNRELATED, FORUM).isEmpty());
+    }
+
+    @Test
+    void matchesBelowTheThresholdAreDropped() {
+        // Shares a few phrases with the original, but far less than the threshold
+        String loose = "Horse riding feels slow\nRiding a horse is slower than walking since the update.";
+        double similarity = MinHash.similarity(MinHash.signature(ORIGINAL), MinHash.signature(loose));
+        assertTrue(similarity < THRESHOLD, "similarity was " + similarity);
+
+        index(1, FORUM, ORIGINAL);
+
+        assertTrue(find(loose, FORUM).isEmpty());
+    }
+
+    @Test
+    void onlyTheQueriedForumIsReported() {
+        index(1, OTHER_FORUM, ORIGINAL);
+
+        assertTrue(find(NEAR_DUPLICATE, FORUM).isEmpty());
+        assertEquals(1, find(NEAR_DUPLICATE, OTHER_FORUM).size());
+    }
+
+    @Test
+    void mostSimilarComesFirstAndAtMostThreeAreReported() {
+        index(1, FORUM, ORIGINAL);
+        index(2, FORUM, NEAR_DUPLICATE);
+        index(3, FORUM, ORIGINAL + " Also on console.");
+        index(4, FORUM, ORIGINAL + " Also on tablet.");
+
+        List<DuplicateDetector.Match> matches = find(ORIGINAL, FORUM);
+
+        assertEquals(3, matches.size());
+        assertEquals(threadId(1), matches.get(0).thread().threadId());
+        assertEquals(1.0, matches.get(0).similarity());
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).similarity() >= matches.get(i).similarity());
+        }
+    }
+
+    @Test
+    void removedThreadsNoLongerMatch() {
+        index(1, FORUM, ORIGINAL);
+        synchronized (DuplicateDetector.class) {
+            DuplicateDetector.unlink(threadId(1));
+        }
+
+        assertTrue(find(NEAR_DUPLICATE, FORUM).isEmpty());
+    }
+
+    private void index(int n, long forumId, String text) {
+        long threadId = threadId(n);
+        long now = System.currentTimeMillis();
+        ThreadIndex.upsert(new ThreadRecord(threadId, 1L, forumId, 2L, 0L, text.lines().findFirst().orElseThrow(),
+                now, 0L, now));
+        DuplicateDetector.add(threadId, MinHash.signature(text));
+        indexed.add(threadId);
+    }
+
+    private static List<DuplicateDetector.Match> find(String text, long forumId) {
+        return DuplicateDetector.findSimilar(QUERY, forumId, MinHash.signature(text));
+    }
+
+    private static long threadId(int n) {
+        return QUERY + n;
+    }
+}
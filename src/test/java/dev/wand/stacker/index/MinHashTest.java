@@ -0,0 +1,54 @@
+package dev.wand.stacker.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashTest {
+
+    private static final String REPORT = "Game crashes when I open the inventory while riding a horse. "
+            + "Happens every time on mobile since the last update.";
+
+    @Test
+    void signaturesAreDeterministicAndFullLength() {
+        int[] first = MinHash.signature(REPORT);
+
+        assertEquals(MinHash.SIGNATURE_LENGTH, first.length);
+        assertArrayEquals(first, MinHash.signature(REPORT));
+    }
+
+    @Test
+    void casingPunctuationAndWhitespaceDoNotMatter() {
+        String noisy = "  GAME crashes, when I open the inventory -- while riding a horse!!\n"
+                + "Happens every time on mobile... since the last update ";
+
+        assertEquals(1.0, MinHash.similarity(MinHash.signature(REPORT), MinHash.signature(noisy)));
+    }
+
+    @Test
+    void rewordedReportStaysSimilar() {
+        String reworded = "Game crashes when I open the inventory while riding a horse. "
+                + "Happens every single time on PC since the last update.";
+
+        double similarity = MinHash.similarity(MinHash.signature(REPORT), MinHash.signature(reworded));
+        assertTrue(similarity > 0.6, "similarity was " + similarity);
+    }
+
+    @Test
+    void unrelatedReportsAreDissimilar() {
+        String unrelated = "Shop prices show the wrong currency after switching language to German.";
+
+        double similarity = MinHash.similarity(MinHash.signature(REPORT), MinHash.signature(unrelated));
+        assertTrue(similarity < 0.15, "similarity was " + similarity);
+    }
+
+    @Test
+    void veryShortTextStillSigns() {
+        int[] signature = MinHash.signature("ok");
+
+        assertEquals(1.0, MinHash.similarity(signature, MinHash.signature("OK!")));
+        assertTrue(MinHash.similarity(signature, MinHash.signature("")) < 1.0);
+    }
+}
@@ -0,0 +1,41 @@
+package dev.wand.stacker.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ThreadRecordTest {
+
+    private static final long CREATED = 1_000L;
+    private static final long PENDING = 11L;
+    private static final long FIXED = 12L;
+
+    @Test
+    void firstSnapshotKeepsCreationTime() {
+        ThreadRecord snapshot = snapshot(PENDING, "Title");
+
+        assertSame(snapshot, snapshot.sinceStatusOf(null, 5_000L));
+    }
+
+    @Test
+    void unchangedStatusKeepsPreviousTime() {
+        ThreadRecord previous = snapshot(PENDING, "Title").sinceStatusOf(snapshot(0L, "Title"), 3_000L);
+
+        // A rename or archive toggle is not a status change
+        ThreadRecord renamed = snapshot(PENDING, "Renamed").sinceStatusOf(previous, 9_000L);
+        assertEquals(3_000L, renamed.statusChangedAt());
+    }
+
+    @Test
+    void changedStatusIsStampedNow() {
+        ThreadRecord previous = snapshot(PENDING, "Title").sinceStatusOf(null, 3_000L);
+
+        assertEquals(CREATED, previous.statusChangedAt());
+        assertEquals(9_000L, snapshot(FIXED, "Title").sinceStatusOf(previous, 9_000L).statusChangedAt());
+    }
+
+    private static ThreadRecord snapshot(long statusTagId, String title) {
+        return new ThreadRecord(42L, 1L, 2L, 3L, statusTagId, title, CREATED, 0L, CREATED);
+    }
+}
@@ -0,0 +1,103 @@
+package dev.wand.stacker.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TitleIndexTest {
+
+    private static final long FORUM = 900_000_000_000_000_001L;
+    private static final long OTHER_FORUM = 900_000_000_000_000_002L;
+
+    private final List<Long> indexed = new ArrayList<>();
+
+    @AfterEach
+    void clearIndex() {
+        indexed.forEach(ThreadIndex::remove);
+    }
+
+    @Test
+    void bestMatchRanksFirst() {
+        index(1, FORUM, "Game crashes on startup");
+        index(2, FORUM, "Crash when opening the inventory");
+        index(3, FORUM, "Shop button does nothing");
+
+        List<Long> results = ids(TitleIndex.search("crash on startup", FORUM, 10));
+
+        assertEquals(1L, results.get(0));
+        assertTrue(results.contains(2L), "a partial match is still listed");
+        assertFalse(results.contains(3L), "titles sharing no words are not listed");
+    }
+
+    @Test
+    void prefixOfAWordMatches() {
+        index(1, FORUM, "Crash when opening the inventory");
+        index(2, FORUM, "Shop button does nothing");
+
+        assertEquals(List.of(1L), ids(TitleIndex.search("inv", FORUM, 10)));
+        assertEquals(List.of(2L), ids(TitleIndex.search("sho", FORUM, 10)));
+    }
+
+    @Test
+    void renameReplacesTheOldTitle() {
+        index(1, FORUM, "Sword does no damage");
+
+        index(1, FORUM, "Bow does no damage");
+
+        assertEquals(List.of(), ids(TitleIndex.search("sword", FORUM, 10)));
+        assertEquals(List.of(1L), ids(TitleIndex.search("bow", FORUM, 10)));
+    }
+
+    @Test
+    void removedThreadsNoLongerMatch() {
+        index(1, FORUM, "Lag spikes in the lobby");
+        index(2, FORUM, "Lobby music too loud");
+
+        ThreadIndex.remove(threadId(1));
+
+        assertEquals(List.of(2L), ids(TitleIndex.search("lobby", FORUM, 10)));
+    }
+
+    @Test
+    void onlyTheRequestedForumMatches() {
+        index(1, FORUM, "Trading window freezes");
+        index(2, OTHER_FORUM, "Trading window freezes");
+
+        assertEquals(List.of(1L), ids(TitleIndex.search("trading", FORUM, 10)));
+        assertEquals(List.of(2L), ids(TitleIndex.search("trading", OTHER_FORUM, 10)));
+    }
+
+    @Test
+    void emptyQueryListsNewestFirstUpToTheLimit() {
+        index(1, FORUM, "First");
+        index(2, FORUM, "Second");
+        index(3, OTHER_FORUM, "Elsewhere");
+        index(4, FORUM, "Fourth");
+
+        assertEquals(List.of(4L, 2L), ids(TitleIndex.search("  ", FORUM, 2)));
+    }
+
+    private void index(int n, long forumId, String title) {
+        long threadId = threadId(n);
+        long now = System.currentTimeMillis();
+        ThreadIndex.upsert(new ThreadRecord(threadId, 1L, forumId, 2L, 0L, title, now, 0L, now));
+        indexed.add(threadId);
+    }
+
+    /**
+     * Thread IDs far above any other test's, ordered by {@code n} like real snowflakes.
+     */
+    private static long threadId(int n) {
+        return 8_000_000_000_000_000_000L + n;
+    }
+
+    private static List<Long> ids(List<ThreadRecord> records) {
+        return records.stream().map(record -> record.threadId() - threadId(0)).toList();
+    }
+}
@@ -0,0 +1,41 @@
+package dev.wand.stacker.services;
+
+import dev.wand.stacker.services.ThreadClassifier.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against the default keyword lists in {@link dev.wand.stacker.config.Config}.
+ */
+class ThreadClassifierTest {
+
+    @Test
+    void mostHitsWins() {
+        assertEquals(Optional.of(Category.FEATURE),
+                ThreadClassifier.classify("Suggestion: new map idea, also a small bug"));
+        assertEquals(Optional.of(Category.FEEDBACK),
+                ThreadClassifier.classify("Feedback on balance: the boss is too hard"));
+    }
+
+    @Test
+    void tiesGoToBugThenFeatureThenFeedback() {
+        assertEquals(Optional.of(Category.BUG), ThreadClassifier.classify("crash idea feedback"));
+        assertEquals(Optional.of(Category.FEATURE), ThreadClassifier.classify("idea feedback"));
+        assertEquals(Optional.of(Category.BUG), ThreadClassifier.classify("feedback crash"));
+    }
+
+    @Test
+    void multiWordKeywordsCount() {
+        assertEquals(Optional.of(Category.BUG), ThreadClassifier.classify("Trading does not work"));
+        assertEquals(Optional.of(Category.FEATURE), ThreadClassifier.classify("It would be nice to trade pets"));
+    }
+
+    @Test
+    void noKeywordMeansNoCategory() {
+        assertEquals(Optional.empty(), ThreadClassifier.classify("Debugging the trading menu"));
+        assertEquals(Optional.empty(), ThreadClassifier.classify(""));
+    }
+}
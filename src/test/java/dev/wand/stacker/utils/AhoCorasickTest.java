@@ -0,0 +1,65 @@
+package dev.wand.stacker.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AhoCorasickTest {
+
+    @Test
+    void overlappingKeywordsOnlyMatchWholeWords() {
+        AhoCorasick matcher = AhoCorasick.compile(List.of("crash", "crashes"));
+
+        assertEquals(List.of("1@3-10"), matches(matcher, "it crashes"));
+        assertEquals(List.of("0@0-5", "1@7-14"), matches(matcher, "crash, crashes"));
+    }
+
+    @Test
+    void suffixKeywordsAreReportedThroughFailureLinks() {
+        AhoCorasick matcher = AhoCorasick.compile(List.of("new map", "map", "ap"));
+
+        // "map" ends inside "new map" and is a whole word there; "ap" is not
+        assertEquals(List.of("0@4-11", "1@8-11"), matches(matcher, "add new map"));
+    }
+
+    @Test
+    void multiWordKeywordsMatchAcrossSpaces() {
+        AhoCorasick matcher = AhoCorasick.compile(List.of("not working", "does not work"));
+
+        assertEquals(List.of("0@5-16"), matches(matcher, "Shop not working at all"));
+        assertEquals(List.of("1@6-19"), matches(matcher, "Trade does not work."));
+        assertEquals(List.of(), matches(matcher, "Shop not workingg"));
+    }
+
+    @Test
+    void keywordsInsideLongerWordsAreRejected() {
+        AhoCorasick matcher = AhoCorasick.compile(List.of("bug", "bugged"));
+
+        assertEquals(List.of(), matches(matcher, "debug menu and bugs2"));
+        assertEquals(List.of("1@4-10"), matches(matcher, "Got bugged!"));
+        assertEquals(List.of("0@1-4"), matches(matcher, "(BUG)"));
+    }
+
+    @Test
+    void blankKeywordsAreIgnoredButKeepTheirIndex() {
+        AhoCorasick matcher = AhoCorasick.compile(List.of("", "crash", "  ", " Bug "));
+
+        assertEquals(List.of("3@0-3", "1@4-9"), matches(matcher, "bug crash"));
+    }
+
+    @Test
+    void charactersOutsideTheKeywordsResetTheMatch() {
+        AhoCorasick matcher = AhoCorasick.compile(List.of("lag"));
+
+        assertEquals(List.of("0@7-10"), matches(matcher, "laz? ü lag"));
+    }
+
+    private static List<String> matches(AhoCorasick matcher, String text) {
+        List<String> found = new ArrayList<>();
+        matcher.scan(text, (keyword, start, end) -> found.add(keyword + "@" + start + "-" + end));
+        return found;
+    }
+}
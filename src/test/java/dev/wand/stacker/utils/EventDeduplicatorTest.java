@@ -0,0 +1,95 @@
+package dev.wand.stacker.utils;
+
+import dev.wand.stacker.metrics.Metrics;
+import dev.wand.stacker.utils.EventDeduplicator.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.wand.stacker.utils.EventDeduplicator.WINDOW_MS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventDeduplicatorTest {
+
+    // The table is static; each test starts past the window of everything earlier tests inserted
+    private static final AtomicLong CLOCK = new AtomicLong(1_000_000_000_000L);
+
+    private long now;
+
+    @BeforeEach
+    void advanceClock() {
+        now = CLOCK.addAndGet(2 * WINDOW_MS);
+    }
+
+    @Test
+    void repeatInsideWindowIsSuppressed() {
+        assertTrue(EventDeduplicator.firstSeen(EventType.THREAD_CREATE, 0L, 1001L, now));
+        assertFalse(EventDeduplicator.firstSeen(EventType.THREAD_CREATE, 0L, 1001L, now + 1));
+
+        // Same snowflake under another event type or scope is a different event
+        assertTrue(EventDeduplicator.firstSeen(EventType.MEMBER_JOIN, 0L, 1001L, now));
+        assertTrue(EventDeduplicator.firstSeen(EventType.MEMBER_JOIN, 7L, 1001L, now));
+        assertFalse(EventDeduplicator.firstSeen(EventType.MEMBER_JOIN, 7L, 1001L, now));
+    }
+
+    @Test
+    void repeatAfterWindowIsNewEvent() {
+        assertTrue(EventDeduplicator.firstSeen(EventType.THREAD_CREATE, 0L, 2002L, now));
+        assertFalse(EventDeduplicator.firstSeen(EventType.THREAD_CREATE, 0L, 2002L, now + WINDOW_MS - 1));
+        assertTrue(EventDeduplicator.firstSeen(EventType.THREAD_CREATE, 0L, 2002L, now + WINDOW_MS));
+        // The window restarts from the second delivery
+        assertFalse(EventDeduplicator.firstSeen(EventType.THREAD_CREATE, 0L, 2002L, now + WINDOW_MS + 1));
+    }
+
+    @Test
+    void fullTableEvictsOldestEntries() {
+        long evictions = Metrics.count("events.dedup_evictions");
+        assertTrue(EventDeduplicator.firstSeen(EventType.MEMBER_JOIN, 1L, 3003L, now));
+        // Twice the table's capacity of live entries, all newer than the first one
+        for (long id = 1; id <= 1 << 14; id++) {
+            EventDeduplicator.firstSeen(EventType.MEMBER_JOIN, 2L, id, now + 1);
+        }
+
+        assertTrue(Metrics.count("events.dedup_evictions") > evictions);
+        // The oldest entry was evicted, so its replay can no longer be recognised
+        assertTrue(EventDeduplicator.firstSeen(EventType.MEMBER_JOIN, 1L, 3003L, now + 2));
+    }
+
+    @Test
+    void concurrentDuplicatesAreHandledOnce() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (long id = 0; id < 500; id++) {
+                long snowflake = 4_000_000L + id;
+                CyclicBarrier barrier = new CyclicBarrier(threads);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(pool.submit(() -> {
+                        barrier.await();
+                        return EventDeduplicator.firstSeen(EventType.THREAD_CREATE, 0L, snowflake, now);
+                    }));
+                }
+                int handled = 0;
+                for (Future<Boolean> result : results) {
+                    if (result.get(10, TimeUnit.SECONDS)) {
+                        handled++;
+                    }
+                }
+                assertEquals(1, handled, "snowflake " + snowflake);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}